@@ -1 +1,33 @@
-create DATABASE ebm;
\ No newline at end of file
+create DATABASE ebm;
+use ebm;
+
+-- ids por @SequenceGenerator (allocationSize = 50). O MySQL nao tem sequence: o Hibernate usa uma tabela
+-- <nome>_seq por gerador, com uma linha em next_val. next_val e o topo do proximo bloco de 50 ids, que vai de
+-- next_val - 49 a next_val, entao cada tabela comeca em MAX(id) + 50 para nao repetir os ids AUTO_INCREMENT ja gravados
+CREATE TABLE cargo_seq (next_val BIGINT) ENGINE=InnoDB;
+INSERT INTO cargo_seq SELECT COALESCE(MAX(id), 0) + 50 FROM cargo;
+CREATE TABLE categoria_item_seq (next_val BIGINT) ENGINE=InnoDB;
+INSERT INTO categoria_item_seq SELECT COALESCE(MAX(id), 0) + 50 FROM categoria_item;
+CREATE TABLE cidade_seq (next_val BIGINT) ENGINE=InnoDB;
+INSERT INTO cidade_seq SELECT COALESCE(MAX(id), 0) + 50 FROM cidade;
+CREATE TABLE email_seq (next_val BIGINT) ENGINE=InnoDB;
+INSERT INTO email_seq SELECT COALESCE(MAX(id), 0) + 50 FROM email;
+CREATE TABLE endereco_seq (next_val BIGINT) ENGINE=InnoDB;
+INSERT INTO endereco_seq SELECT COALESCE(MAX(id), 0) + 50 FROM endereco;
+CREATE TABLE estado_seq (next_val BIGINT) ENGINE=InnoDB;
+INSERT INTO estado_seq SELECT COALESCE(MAX(id), 0) + 50 FROM estado;
+-- Produto e Servico dividem a tabela item (SINGLE_TABLE)
+CREATE TABLE item_seq (next_val BIGINT) ENGINE=InnoDB;
+INSERT INTO item_seq SELECT COALESCE(MAX(id), 0) + 50 FROM item;
+CREATE TABLE movimentacao_seq (next_val BIGINT) ENGINE=InnoDB;
+INSERT INTO movimentacao_seq SELECT COALESCE(MAX(id), 0) + 50 FROM movimentacao;
+-- o id das subclasses (JOINED) e dos @MapsId (cliente, fornecedor, funcionario) vem de pessoa
+CREATE TABLE pessoa_seq (next_val BIGINT) ENGINE=InnoDB;
+INSERT INTO pessoa_seq SELECT COALESCE(MAX(id), 0) + 50 FROM pessoa;
+CREATE TABLE telefone_seq (next_val BIGINT) ENGINE=InnoDB;
+INSERT INTO telefone_seq SELECT COALESCE(MAX(id), 0) + 50 FROM telefone;
+CREATE TABLE unidade_seq (next_val BIGINT) ENGINE=InnoDB;
+INSERT INTO unidade_seq SELECT COALESCE(MAX(id), 0) + 50 FROM unidade;
+-- lancamento_estoque e nova, sem ids gravados: o primeiro bloco vai de 1 a 50
+CREATE TABLE lancamento_estoque_seq (next_val BIGINT) ENGINE=InnoDB;
+INSERT INTO lancamento_estoque_seq VALUES (50);
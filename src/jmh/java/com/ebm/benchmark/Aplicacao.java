@@ -0,0 +1,45 @@
+package com.ebm.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcAutoConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+
+import com.ebm.DevApplication;
+
+/**
+ * Sobe a aplicacao inteira para os benchmarks que passam pelo banco ou pelo
+ * HTTP: profile testauto (H2 em memoria), porta livre e monitor de consultas
+ * desligado, com a mesma configuracao versionada dos testes.
+ */
+final class Aplicacao {
+
+	private Aplicacao() {
+	}
+
+	// argumentos de linha de comando: valem sobre os arquivos de properties, como nos testes o @ActiveProfiles
+	static ConfigurableApplicationContext sobe(String... argumentos) {
+		List<String> todos = new ArrayList<>(Arrays.asList("--spring.profiles.active=testauto", "--server.port=0",
+				"--consultas.monitor.habilitado=false", "--spring.jpa.properties.hibernate.generate_statistics=false",
+				"--logging.level.root=WARN"));
+		todos.addAll(Arrays.asList(argumentos));
+		return new SpringApplicationBuilder(DevApplication.class, ClasspathDeTeste.class)
+				.run(todos.toArray(new String[0]));
+	}
+
+	static int porta(ConfigurableApplicationContext contexto) {
+		return contexto.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+	}
+
+	// o TestUtils de src/test entra na varredura de com.ebm e precisa do MockMvc
+	@Configuration
+	@ImportAutoConfiguration(MockMvcAutoConfiguration.class)
+	static class ClasspathDeTeste {
+	}
+
+}
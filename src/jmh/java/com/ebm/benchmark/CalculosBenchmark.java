@@ -0,0 +1,107 @@
+package com.ebm.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ebm.estoque.domain.Item;
+import com.ebm.estoque.domain.ProdutoMovimentacao;
+import com.ebm.estoque.domain.interfaces.ItemVendaInfo;
+import com.ebm.geral.service.PopulaBD;
+import com.ebm.geral.utils.TotaisVenda;
+import com.ebm.geral.utils.UtilContabel;
+
+/**
+ * Calculos de venda: a calculadora de um item, os totais de UtilContabel
+ * sobre uma venda e os precos estimados de Item.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculosBenchmark {
+
+	@Param({ "10", "100" })
+	private int itensPorVenda;
+
+	private List<ItemVendaInfo> venda;
+	private ItemVendaInfo itemVenda;
+	private Item item;
+
+	@Setup
+	public void setUp() {
+		PopulaBD bd = new PopulaBD().instanciaItem(true);
+		venda = new ArrayList<>(itensPorVenda);
+		for (int i = 0; i < itensPorVenda; i++)
+			venda.add(new ProdutoMovimentacao(null, bd.p1, BigDecimal.valueOf(i % 10), BigDecimal.valueOf(200 + i),
+					1 + i % 5));
+		itemVenda = venda.get(0);
+		item = bd.p1;
+	}
+
+	@Benchmark
+	public BigDecimal calculadoraLucroLiquidoTotal() {
+		return itemVenda.getCalculadora().getLucroLiquidoTotal();
+	}
+
+	@Benchmark
+	public BigDecimal calculadoraComissaoTotal() {
+		return itemVenda.getCalculadora().getComissaoTotal();
+	}
+
+	@Benchmark
+	public Double utilContabelComissaoTotal() {
+		return UtilContabel.calculaComissaoTotal(venda);
+	}
+
+	@Benchmark
+	public Double utilContabelLucroLiquido() {
+		return UtilContabel.calcularLucroLiquido(venda);
+	}
+
+	@Benchmark
+	public Double utilContabelLucroLiquidoComTaxa() {
+		return UtilContabel.calcularLucroLiquido(venda, 0.05);
+	}
+
+	@Benchmark
+	public Double utilContabelVendaLiquidaTotal() {
+		return UtilContabel.calcularPrecoValorVendaLiquidoTotal(venda);
+	}
+
+	@Benchmark
+	public Double utilContabelCustoTotal() {
+		return UtilContabel.calcularCustoTotal(venda);
+	}
+
+	@Benchmark
+	public TotaisVenda utilContabelTotaliza() {
+		return UtilContabel.totaliza(venda);
+	}
+
+	@Benchmark
+	public BigDecimal itemPrecoVenda() {
+		return item.getPrecoVenda();
+	}
+
+	@Benchmark
+	public BigDecimal itemLucroEstimado() {
+		return item.getLucroEstimado();
+	}
+
+}
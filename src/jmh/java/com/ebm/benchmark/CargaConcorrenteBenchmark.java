@@ -0,0 +1,120 @@
+package com.ebm.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.ebm.geral.config.ExecucaoWebConfig;
+import com.ebm.geral.service.PopulaBD;
+import com.ebm.security.dto.UsuarioNewDTO;
+import com.ebm.security.service.UsuarioService;
+
+/**
+ * Clientes simultaneos contra o servidor HTTP, um por thread do JMH: /login
+ * (BCrypt) e consultas autenticadas, como no pico da manha, em cada modo de
+ * execucao das requisicoes (ExecucaoWebConfig). O modo SampleTime traz os
+ * percentis de latencia no resultado: mvn -P benchmark verify
+ * -Djmh.filtro=CargaConcorrente. Abaixo do JDK 21 nao ha virtual threads e a
+ * linha virtual falha em vez de medir o executor limitado no lugar dela.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(200)
+public class CargaConcorrenteBenchmark {
+
+	@Param({ "plataforma", "limitado", "virtual" })
+	private String execucao;
+	// o mesmo tamanho de pool em plataforma (server.tomcat.max-threads) e limitado (web.execucao.threads),
+	// pequeno como num servidor saturado; o virtual nao tem pool
+	@Param("8")
+	private int threads;
+
+	private ConfigurableApplicationContext contexto;
+	private HttpClient http;
+	private String base;
+
+	// cada thread do JMH e um cliente com o seu token
+	@State(Scope.Thread)
+	public static class Cliente {
+		private String token;
+
+		@Setup
+		public void setUp(CargaConcorrenteBenchmark carga) throws Exception {
+			token = carga.entra();
+		}
+	}
+
+	// gravado de verdade: as requisicoes chegam por outras conexoes
+	@Setup
+	public void setUp() {
+		contexto = Aplicacao.sobe("--web.execucao=" + execucao, "--server.tomcat.max-threads=" + threads,
+				"--web.execucao.threads=" + threads);
+		// sem virtual threads o ExecucaoWebConfig cai no limitado: essa linha mediria o limitado com outro nome
+		if (ExecucaoWebConfig.VIRTUAL.equals(execucao)
+				&& contexto.getBean("executorWeb") instanceof ThreadPoolExecutor) {
+			contexto.close();
+			throw new IllegalStateException(
+					"Virtual threads exigem JDK 21 ou maior (rodando no " + System.getProperty("java.version") + ")");
+		}
+		PopulaBD bd = contexto.getBean(PopulaBD.class).instanciaFuncionario(true).instanciaUsuarios();
+		bd.getCargoS().save(bd.funf1.getCargo());
+		bd.getPessoaS().save(bd.funf1.getPessoa());
+		bd.getFuncionarioS().save(bd.funf1);
+		contexto.getBean(UsuarioService.class).save(UsuarioNewDTO.from(bd.user1));
+
+		http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+		base = "http://localhost:" + Aplicacao.porta(contexto);
+	}
+
+	@TearDown
+	public void tearDown() {
+		contexto.close();
+	}
+
+	@Benchmark
+	public String login() throws Exception {
+		return entra();
+	}
+
+	@Benchmark
+	public String consulta(Cliente cliente) throws Exception {
+		HttpResponse<String> resposta = http.send(HttpRequest.newBuilder(URI.create(base + "/cargos/page"))
+				.header("Authorization", cliente.token).GET().build(), HttpResponse.BodyHandlers.ofString());
+		if (resposta.statusCode() != 200)
+			throw new IllegalStateException("consulta: " + resposta.statusCode());
+		return resposta.body();
+	}
+
+	String entra() throws Exception {
+		HttpResponse<String> resposta = http.send(HttpRequest.newBuilder(URI.create(base + "/login"))
+				.POST(HttpRequest.BodyPublishers.ofString("{\"login\":\"gustavo\",\"password\":\"123456\"}"))
+				.header("Content-Type", "application/json").build(), HttpResponse.BodyHandlers.ofString());
+		if (resposta.statusCode() != 200)
+			throw new IllegalStateException("login: " + resposta.statusCode());
+		return resposta.headers().firstValue("Authorization").orElseThrow();
+	}
+
+}
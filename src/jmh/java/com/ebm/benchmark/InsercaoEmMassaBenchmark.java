@@ -0,0 +1,178 @@
+package com.ebm.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ebm.estoque.domain.CategoriaItem;
+import com.ebm.estoque.domain.Item;
+import com.ebm.estoque.domain.Movimentacao;
+import com.ebm.estoque.domain.Produto;
+import com.ebm.estoque.domain.ProdutoMovimentacao;
+import com.ebm.estoque.domain.Unidade;
+import com.ebm.estoque.service.interfaces.ItemService;
+import com.ebm.estoque.service.interfaces.MovimentacaoService;
+import com.ebm.geral.service.PopulaBD;
+import com.ebm.pessoal.domain.Cidade;
+import com.ebm.pessoal.domain.Email;
+import com.ebm.pessoal.domain.Endereco;
+import com.ebm.pessoal.domain.Estado;
+import com.ebm.pessoal.domain.Pessoa;
+import com.ebm.pessoal.domain.PessoaJuridica;
+import com.ebm.pessoal.domain.Telefone;
+import com.ebm.pessoal.service.PessoaService;
+
+/**
+ * Vazao dos saveAll que mais escrevem no banco, com a aplicacao inteira (ver
+ * {@link Aplicacao}). Cada chamada grava um lote numa transacao que e desfeita
+ * no fim, para o banco nao crescer entre as iteracoes; o tempo e por registro.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class InsercaoEmMassaBenchmark {
+
+	private static final int LOTE = 200;
+
+	private ConfigurableApplicationContext contexto;
+	private TransactionTemplate transacao;
+	private PessoaService pessoaService;
+	private ItemService itemService;
+	private MovimentacaoService movimentacaoService;
+	private List<Produto> produtos;
+	private Unidade unidade;
+	private CategoriaItem categoria;
+	// cnpj, email, telefone e nome do item sao unicos: cada lote usa numeros novos
+	private int sequencia;
+
+	@Setup
+	public void setUp() {
+		contexto = Aplicacao.sobe();
+		transacao = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+		pessoaService = contexto.getBean(PessoaService.class);
+		itemService = contexto.getBean(ItemService.class);
+		movimentacaoService = contexto.getBean(MovimentacaoService.class);
+
+		PopulaBD bd = contexto.getBean(PopulaBD.class).instanciaItem(true);
+		bd.saveUnidade(Arrays.asList(bd.un1, bd.un2));
+		bd.saveCategoria(Arrays.asList(bd.cat1, bd.cat2, bd.cat3, bd.cat4));
+		bd.saveProduto(Arrays.asList(bd.p1, bd.p2, bd.p3));
+		produtos = Arrays.asList(bd.p1, bd.p2, bd.p3);
+		unidade = bd.un1;
+		categoria = bd.cat1;
+	}
+
+	@TearDown
+	public void tearDown() {
+		contexto.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LOTE)
+	public List<Pessoa> pessoaServiceSaveAll() {
+		List<Pessoa> pessoas = pessoas();
+		return desfeito(() -> pessoaService.saveAll(pessoas));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LOTE)
+	public Collection<? extends Item> itemServiceSaveAll() {
+		List<Item> itens = new ArrayList<>(LOTE);
+		for (int i = 0; i < LOTE; i++) {
+			int n = ++sequencia;
+			itens.add(new Produto(null, "Produto " + n, "benchmark", unidade, categoria, "PROD" + n,
+					BigDecimal.valueOf(100), null, 0.3, 0.01, 5, 0, 10));
+		}
+		return desfeito(() -> itemService.saveAll(itens));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LOTE)
+	public List<Movimentacao> movimentacaoServiceSaveAll() {
+		List<Movimentacao> movimentacoes = movimentacoes();
+		return desfeito(() -> movimentacaoService.saveAll(movimentacoes));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LOTE)
+	public List<Integer> movimentacaoServiceSaveBatch() {
+		List<Movimentacao> movimentacoes = movimentacoes();
+		return desfeito(() -> movimentacaoService.saveBatch(movimentacoes));
+	}
+
+	// saveAll e saveBatch descarregam o ultimo lote antes de voltar: os inserts entram na medicao
+	private <T> T desfeito(Supplier<T> gravacao) {
+		return transacao.execute(status -> {
+			T resultado = gravacao.get();
+			status.setRollbackOnly();
+			return resultado;
+		});
+	}
+
+	private List<Pessoa> pessoas() {
+		List<Pessoa> pessoas = new ArrayList<>(LOTE);
+		for (int i = 0; i < LOTE; i++) {
+			int n = ++sequencia;
+			PessoaJuridica pj = new PessoaJuridica(null, "Empresa " + n, cnpj(n), "Empresa " + n + " ME", "ie" + n,
+					"im" + n);
+			pj.getEmail().add(new Email(null, "empresa" + n + "@example.com", "benchmark", true));
+			pj.getTelefone().add(new Telefone(null, "62", String.valueOf(900000000 + n), "benchmark", true));
+			pj.getEndereco().add(new Endereco(null, "Rua benchmark", "Centro",
+					new Cidade(null, "Goiânia", new Estado(null, "GO", "Goiás")), String.valueOf(n), null,
+					"75840000", true, "benchmark"));
+			pessoas.add(pj);
+		}
+		return pessoas;
+	}
+
+	private List<Movimentacao> movimentacoes() {
+		List<Movimentacao> movimentacoes = new ArrayList<>(LOTE);
+		for (int i = 0; i < LOTE; i++) {
+			Movimentacao mov = Movimentacao.novaEntrada();
+			produtos.forEach(p -> mov.getProdutoMovimentacao().add(new ProdutoMovimentacao(mov,
+					Produto.ofId(p.getId()), BigDecimal.valueOf(0), BigDecimal.valueOf(10), 1)));
+			movimentacoes.add(mov);
+		}
+		return movimentacoes;
+	}
+
+	private static String cnpj(int numero) {
+		String base = String.format("%08d0001", numero);
+		base = base + digitoCnpj(base);
+		return base + digitoCnpj(base);
+	}
+
+	private static int digitoCnpj(String digitos) {
+		int[] pesos = { 6, 5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2 };
+		int deslocamento = pesos.length - digitos.length();
+		int soma = 0;
+		for (int i = 0; i < digitos.length(); i++)
+			soma += (digitos.charAt(i) - '0') * pesos[i + deslocamento];
+		int resto = soma % 11;
+		return resto < 2 ? 0 : 11 - resto;
+	}
+
+}
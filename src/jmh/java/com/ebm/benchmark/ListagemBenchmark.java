@@ -0,0 +1,73 @@
+package com.ebm.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ebm.estoque.domain.Item;
+import com.ebm.estoque.domain.Movimentacao;
+import com.ebm.estoque.domain.enums.TipoMovimentacao;
+import com.ebm.estoque.dtos.ItemListDTO;
+import com.ebm.estoque.dtos.MovimentacaoListDTO;
+import com.ebm.geral.service.PopulaBD;
+
+/**
+ * Montagem dos DTOs de listagem para uma pagina cheia, a partir da entidade e
+ * a partir das colunas da consulta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListagemBenchmark {
+
+	private static final int PAGINA = 50;
+
+	private List<Item> itens;
+	private List<Movimentacao> movimentacoes;
+
+	@Setup
+	public void setUp() {
+		PopulaBD bd = new PopulaBD().instanciaItem(true);
+		List<Item> modelos = List.of(bd.p1, bd.p2, bd.p3, bd.p4, bd.p5, bd.p6, bd.p7, bd.s1, bd.s2, bd.s3);
+		itens = new ArrayList<>(PAGINA);
+		movimentacoes = new ArrayList<>(PAGINA);
+		for (int i = 0; i < PAGINA; i++) {
+			itens.add(modelos.get(i % modelos.size()));
+			movimentacoes.add(new Movimentacao(i, "NF-" + i, "benchmark", LocalDateTime.now().minusHours(i)));
+			movimentacoes.get(i).setTipoMovimentacao(i % 2 == 0 ? TipoMovimentacao.ENTRADA : TipoMovimentacao.SAIDA);
+		}
+	}
+
+	@Benchmark
+	public List<ItemListDTO> itemListDTO() {
+		return itens.stream().map(ItemListDTO::new).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<MovimentacaoListDTO> movimentacaoListDTO() {
+		return movimentacoes.stream().map(MovimentacaoListDTO::new).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<MovimentacaoListDTO> movimentacaoListDTOPorColunas() {
+		return movimentacoes.stream().map(m -> new MovimentacaoListDTO(m.getId(), m.getTipoMovimentacao(),
+				m.getDataMovimentacao(), m.getDocumento())).collect(Collectors.toList());
+	}
+
+}
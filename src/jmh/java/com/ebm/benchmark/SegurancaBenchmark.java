@@ -0,0 +1,98 @@
+package com.ebm.benchmark;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.security.core.GrantedAuthority;
+
+import com.ebm.security.JWTUtil;
+import com.ebm.security.PermissaoE;
+import com.ebm.security.Usuario;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Caminho de autorizacao de cada requisicao: leitura do token, montagem do
+ * principal e das authorities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SegurancaBenchmark {
+
+	private Integer[] ids;
+	private Usuario adm;
+	private JWTUtil jwtUtil;
+	private String token;
+	private String tokenComPermissoes;
+
+	@Setup
+	public void setUp() throws ReflectiveOperationException {
+		ids = PermissaoE.getPermissaoStream().map(PermissaoE::getId).toArray(Integer[]::new);
+		adm = administrador();
+		adm.getAuthorities();
+
+		jwtUtil = new JWTUtil();
+		campo(jwtUtil, "secret", "BENCHMARK");
+		campo(jwtUtil, "exp", TimeUnit.HOURS.toMillis(1));
+		token = jwtUtil.generatedToken(adm);
+		campo(jwtUtil, "permissoesNoToken", true);
+		tokenComPermissoes = jwtUtil.generatedToken(adm);
+	}
+
+	@Benchmark
+	public void permissaoToEnum(Blackhole bh) {
+		for (Integer id : ids)
+			bh.consume(PermissaoE.toEnum(id));
+	}
+
+	@Benchmark
+	public Collection<? extends GrantedAuthority> authoritiesUsuarioEmCache() {
+		return adm.getAuthorities();
+	}
+
+	@Benchmark
+	public Collection<? extends GrantedAuthority> authoritiesUsuarioNovo() {
+		return administrador().getAuthorities();
+	}
+
+	@Benchmark
+	public String tokenValida() {
+		return jwtUtil.getUsernameSeValido(token);
+	}
+
+	@Benchmark
+	public Usuario tokenComPermissoesMontaPrincipal() {
+		Claims claims = jwtUtil.getClaimsSeValido(tokenComPermissoes);
+		return jwtUtil.getUsuario(claims);
+	}
+
+	// os campos do JWTUtil vem do @Value; aqui nao ha contexto Spring
+	private static void campo(Object alvo, String nome, Object valor) throws ReflectiveOperationException {
+		Field field = alvo.getClass().getDeclaredField(nome);
+		field.setAccessible(true);
+		field.set(alvo, valor);
+	}
+
+	private static Usuario administrador() {
+		Usuario usuario = new Usuario(1, "adm", "adm");
+		PermissaoE.getPermissaoStream().forEach(usuario::addPermissao);
+		return usuario;
+	}
+
+}
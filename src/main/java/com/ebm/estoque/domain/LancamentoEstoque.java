@@ -0,0 +1,64 @@
+package com.ebm.estoque.domain;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Livro de estoque: cada movimentacao grava uma linha por produto, com o
+ * saldo do produto logo depois dela. Uma linha com data retroativa soma sua
+ * quantidade ao saldo de todas as posteriores. Exclusao e alteracao gravam o
+ * lancamento contrario na data original, entao a mesma movimentacao pode ter
+ * varias linhas do produto, cuja soma e o que ela ainda conta no estoque. O
+ * saldo numa data e o da ultima linha ate ela, achada pelo indice (produto,
+ * data). Os ids sao guardados sem chave estrangeira para o historico
+ * sobreviver a exclusoes.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Table(indexes = @Index(name = "idx_lancamento_estoque_produto_data", columnList = "produtoId, dataMovimentacao"))
+public class LancamentoEstoque implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lancamento_estoque_seq")
+	@SequenceGenerator(name = "lancamento_estoque_seq", sequenceName = "lancamento_estoque_seq", allocationSize = 50)
+	@EqualsAndHashCode.Include
+	private Integer id;
+	@Column(nullable = false)
+	private Integer produtoId;
+	private Integer movimentacaoId;
+	@Column(nullable = false)
+	private LocalDateTime dataMovimentacao;
+	// positiva na entrada, negativa na saida
+	@Column(nullable = false)
+	private int quantidade;
+	@Column(nullable = false)
+	private int saldo;
+
+	public LancamentoEstoque(Integer produtoId, Integer movimentacaoId, LocalDateTime dataMovimentacao,
+			int quantidade) {
+		this.produtoId = produtoId;
+		this.movimentacaoId = movimentacaoId;
+		this.dataMovimentacao = dataMovimentacao;
+		this.quantidade = quantidade;
+	}
+
+}
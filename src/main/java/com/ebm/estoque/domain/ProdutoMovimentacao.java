@@ -1,7 +1,6 @@
 package com.ebm.estoque.domain;
 
 import java.math.BigDecimal;
-import java.util.Optional;
 
 import javax.persistence.Column;
 import javax.persistence.EmbeddedId;
@@ -10,6 +9,7 @@ import javax.persistence.Transient;
 
 import com.ebm.estoque.domain.interfaces.ItemVendaInfo;
 import com.ebm.geral.utils.CalculosItemVenda;
+import com.ebm.geral.utils.UtilNumeric;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import lombok.AllArgsConstructor;
@@ -63,17 +63,13 @@ public class ProdutoMovimentacao implements ItemVendaInfo {
 	@Transient
 	@JsonIgnore
 	public Double getComissaoTx() {
-		return Optional.of(this.getProduto().getComissaoVenda()).orElse(0d);
+		return UtilNumeric.valueOrZero(this.getProduto().getComissaoVenda());
 	}
 
 	@Override
 	@Transient
 	public BigDecimal getValorVendaLiquido() {
-		return this.valueOrZero(this.valorVendaBruto).subtract(valueOrZero(this.desconto));
-	}
-
-	private BigDecimal valueOrZero(BigDecimal value) {
-		return Optional.ofNullable(value).orElse(BigDecimal.valueOf(0));
+		return calculadora.getValorVendaLiquido();
 	}
 
 	@Transient
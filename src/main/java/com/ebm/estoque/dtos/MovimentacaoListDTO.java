@@ -1,11 +1,13 @@
 package com.ebm.estoque.dtos;
 
 import java.io.Serializable;
+import java.time.LocalDateTime;
 
 import com.ebm.estoque.domain.Movimentacao;
+import com.ebm.estoque.domain.enums.TipoMovimentacao;
 import com.ebm.geral.utils.Utils;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -13,17 +15,31 @@ import lombok.Setter;
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 public class MovimentacaoListDTO implements Serializable {
 	private static final long serialVersionUID = 1L;
 	private Integer id;
 	private String tipo;
 	private String data;
 	private String documento;
+	// data sem formatacao, chave da listagem por cursor
+	@JsonIgnore
+	private LocalDateTime dataMovimentacao;
+
+	public MovimentacaoListDTO(Integer id, String tipo, String data, String documento) {
+		this.id = id;
+		this.tipo = tipo;
+		this.data = data;
+		this.documento = documento;
+	}
 
 	public MovimentacaoListDTO(Movimentacao movimentacao) {
-		this(movimentacao.getId(), movimentacao.getTipoMovimentacao().getDesc(),
-				movimentacao.getDataMovimentacao().format(Utils.getBrDateTimeFormatter()), movimentacao.getDocumento());
+		this(movimentacao.getId(), movimentacao.getTipoMovimentacao(), movimentacao.getDataMovimentacao(),
+				movimentacao.getDocumento());
+	}
+
+	public MovimentacaoListDTO(Integer id, TipoMovimentacao tipo, LocalDateTime data, String documento) {
+		this(id, tipo.getDesc(), data.format(Utils.getBrDateTimeFormatter()), documento);
+		this.dataMovimentacao = data;
 	}
 
 }
@@ -0,0 +1,44 @@
+package com.ebm.estoque.dtos;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+import com.ebm.geral.utils.Dinheiro;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Estimativas do cadastro de itens somadas pelo banco para um grupo
+ * (categoria ou unidade); mesmos campos de {@link com.ebm.geral.utils.TotaisEstimados},
+ * arredondados por grupo (ver {@link Dinheiro}).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class ResumoItensDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+	private String grupo;
+	private Long itens;
+	private BigDecimal custoTotal;
+	private BigDecimal precoVendaTotal;
+	private BigDecimal lucroBrutoEstimado;
+	private BigDecimal comissaoEstimada;
+	private BigDecimal lucroLiquidoEstimado;
+	// so produtos: estoque atual a custo
+	private BigDecimal valorEmEstoque;
+
+	public ResumoItensDTO(String grupo, Long itens, Number custoTotal, Number precoVendaTotal,
+			Number lucroBrutoEstimado, Number comissaoEstimada, Number valorEmEstoque) {
+		this.grupo = grupo;
+		this.itens = itens;
+		this.custoTotal = Dinheiro.de(custoTotal);
+		this.precoVendaTotal = Dinheiro.de(precoVendaTotal);
+		this.lucroBrutoEstimado = Dinheiro.de(lucroBrutoEstimado);
+		this.comissaoEstimada = Dinheiro.de(comissaoEstimada);
+		this.lucroLiquidoEstimado = this.lucroBrutoEstimado.subtract(this.comissaoEstimada);
+		this.valorEmEstoque = Dinheiro.de(valorEmEstoque);
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.ebm.estoque.dtos;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+import com.ebm.geral.utils.Dinheiro;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Totais das linhas de movimentacao somados pelo banco para um grupo
+ * (categoria, fornecedor ou mes); mesmos nomes de
+ * {@link com.ebm.geral.utils.TotaisVenda}. O custo e o do cadastro atual do
+ * produto, como no calculo em memoria; arredondados por grupo (ver
+ * {@link Dinheiro}).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class ResumoMovimentacaoDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+	private String grupo;
+	private Long quantidade;
+	private BigDecimal valorTotalBruto;
+	private BigDecimal valorTotalDesconto;
+	private BigDecimal valorVendaLiquidoTotal;
+	private BigDecimal custoTotal;
+	private BigDecimal comissaoTotal;
+	private BigDecimal lucroBrutoTotal;
+	private BigDecimal lucroLiquidoTotal;
+
+	public ResumoMovimentacaoDTO(String grupo, Long quantidade, Number valorTotalBruto, Number valorTotalDesconto,
+			Number valorVendaLiquidoTotal, Number custoTotal, Number comissaoTotal) {
+		this.grupo = grupo;
+		this.quantidade = quantidade;
+		this.valorTotalBruto = Dinheiro.de(valorTotalBruto);
+		this.valorTotalDesconto = Dinheiro.de(valorTotalDesconto);
+		this.valorVendaLiquidoTotal = Dinheiro.de(valorVendaLiquidoTotal);
+		this.custoTotal = Dinheiro.de(custoTotal);
+		this.comissaoTotal = Dinheiro.de(comissaoTotal);
+		this.lucroBrutoTotal = this.valorVendaLiquidoTotal.subtract(this.custoTotal);
+		this.lucroLiquidoTotal = this.lucroBrutoTotal.subtract(this.comissaoTotal);
+	}
+
+	// agrupado por mes: grupo no formato aaaa-mm
+	public ResumoMovimentacaoDTO(Integer ano, Integer mes, Long quantidade, Number valorTotalBruto,
+			Number valorTotalDesconto, Number valorVendaLiquidoTotal, Number custoTotal, Number comissaoTotal) {
+		this(String.format("%04d-%02d", ano, mes), quantidade, valorTotalBruto, valorTotalDesconto,
+				valorVendaLiquidoTotal, custoTotal, comissaoTotal);
+	}
+
+}
@@ -0,0 +1,24 @@
+package com.ebm.estoque.dtos;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoEstoqueDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+	private Integer produtoId;
+	@JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+	private LocalDateTime em;
+	private Integer saldo;
+
+}
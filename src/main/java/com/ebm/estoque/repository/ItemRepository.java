@@ -1,10 +1,78 @@
 package com.ebm.estoque.repository;
 
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.ebm.estoque.domain.Item;
+import com.ebm.estoque.dtos.ItemListDTO;
+import com.ebm.estoque.dtos.ResumoItensDTO;
 
 public interface ItemRepository extends JpaRepository<Item, Integer>{
 
-	
+	// parametro nulo desliga o filtro; codInterno e nome por trecho, o resto por igualdade (sem caixa)
+	String FILTRO = " WHERE (?1 IS NULL OR LOWER(i.codInterno) LIKE LOWER(CONCAT('%', ?1, '%')))"
+			+ " AND (?2 IS NULL OR i.tipo = ?2)"
+			+ " AND (?3 IS NULL OR LOWER(i.nome) LIKE LOWER(CONCAT('%', ?3, '%')))"
+			+ " AND (?4 IS NULL OR LOWER(u.abrev) = LOWER(?4))"
+			+ " AND (?5 IS NULL OR LOWER(c.nome) = LOWER(?5))";
+
+	String LISTAGEM = "SELECT new com.ebm.estoque.dtos.ItemListDTO(i.id, i.codInterno, i.tipo, i.nome, i.descricao,"
+			+ " u.abrev, c.nome) FROM Item i JOIN i.unidade u JOIN i.categoria c";
+	String CONTAGEM = "SELECT COUNT(i) FROM Item i JOIN i.unidade u JOIN i.categoria c";
+
+	// custo = valorCompraMedio + outrasDespesa; preco = custo * (1 + margem); estoque so existe em produto
+	String CUSTO = "(COALESCE(i.valorCompraMedio, 0) + COALESCE(i.outrasDespesa, 0))";
+	String RESUMO = "COUNT(i), SUM(" + CUSTO + "), SUM(" + CUSTO + " * (1 + COALESCE(i.margemLucro, 0))),"
+			+ " SUM(" + CUSTO + " * COALESCE(i.margemLucro, 0)),"
+			+ " SUM(" + CUSTO + " * (1 + COALESCE(i.margemLucro, 0)) * COALESCE(i.comissaoVenda, 0)),"
+			+ " SUM(" + CUSTO + " * COALESCE(i.estoqueAtual, 0))";
+
+	// soma feita pelo banco: o lock de linha do UPDATE serializa movimentacoes concorrentes do mesmo produto
+	@Transactional
+	@Modifying(flushAutomatically = true)
+	@Query("UPDATE Produto p SET p.estoqueAtual = COALESCE(p.estoqueAtual, 0) + ?2 WHERE p.id = ?1")
+	int ajustaEstoque(Integer produtoId, int delta);
+
+	@Transactional(readOnly = true)
+	@Query("SELECT COALESCE(p.estoqueAtual, 0) FROM Produto p WHERE p.id = ?1")
+	Optional<Integer> findEstoqueAtualById(Integer produtoId);
+
+	@Transactional(readOnly = true)
+	@Query(value = "SELECT i FROM Item i JOIN FETCH i.unidade u JOIN FETCH i.categoria c" + FILTRO,
+			countQuery = CONTAGEM + FILTRO)
+	Page<Item> findBy(String codInterno, String tipo, String nome, String unidade, String categoria,
+			Pageable pageable);
+
+	@Transactional(readOnly = true)
+	@Query(value = LISTAGEM + FILTRO, countQuery = CONTAGEM + FILTRO)
+	Page<ItemListDTO> findListBy(String codInterno, String tipo, String nome, String unidade, String categoria,
+			Pageable pageable);
+
+	@Transactional(readOnly = true)
+	@Query(LISTAGEM + FILTRO)
+	Slice<ItemListDTO> findSliceBy(String codInterno, String tipo, String nome, String unidade, String categoria,
+			Pageable pageable);
+
+	@Transactional(readOnly = true)
+	@Query(CONTAGEM + FILTRO)
+	long contaListBy(String codInterno, String tipo, String nome, String unidade, String categoria);
+
+	@Transactional(readOnly = true)
+	@Query("SELECT new com.ebm.estoque.dtos.ResumoItensDTO(c.nome, " + RESUMO + ") FROM Item i JOIN i.categoria c"
+			+ " GROUP BY c.nome ORDER BY c.nome")
+	List<ResumoItensDTO> resumoPorCategoria();
+
+	@Transactional(readOnly = true)
+	@Query("SELECT new com.ebm.estoque.dtos.ResumoItensDTO(u.abrev, " + RESUMO + ") FROM Item i JOIN i.unidade u"
+			+ " GROUP BY u.abrev ORDER BY u.abrev")
+	List<ResumoItensDTO> resumoPorUnidade();
+
 }
@@ -0,0 +1,71 @@
+package com.ebm.estoque.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import javax.persistence.LockModeType;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ebm.estoque.domain.LancamentoEstoque;
+
+@Repository
+public interface LancamentoEstoqueRepository extends JpaRepository<LancamentoEstoque, Integer> {
+
+	// projecao em vez da entidade: depois de deslocaSaldos uma entidade ja carregada ficaria com o saldo velho
+	interface Saldo {
+		LocalDateTime getDataMovimentacao();
+
+		int getQuantidade();
+
+		int getSaldo();
+	}
+
+	// todas as buscas abaixo descem pelo indice (produtoId, dataMovimentacao)
+	@Transactional(readOnly = true)
+	Optional<Saldo> findFirstByProdutoIdOrderByDataMovimentacaoDescIdDesc(Integer produtoId);
+
+	@Transactional(readOnly = true)
+	Optional<Saldo> findFirstByProdutoIdAndDataMovimentacaoLessThanEqualOrderByDataMovimentacaoDescIdDesc(
+			Integer produtoId, LocalDateTime em);
+
+	@Transactional(readOnly = true)
+	Optional<Saldo> findFirstByProdutoIdAndDataMovimentacaoGreaterThanOrderByDataMovimentacaoAscIdAsc(
+			Integer produtoId, LocalDateTime em);
+
+	// as mesmas buscas para quem grava: o FOR UPDATE le a ultima versao confirmada. Uma leitura simples no
+	// REPEATABLE READ do MySQL devolve o snapshot tirado antes da espera pelo lock do produto
+	@Transactional
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT l.dataMovimentacao AS dataMovimentacao, l.quantidade AS quantidade, l.saldo AS saldo "
+			+ "FROM LancamentoEstoque l WHERE l.produtoId = ?1 ORDER BY l.dataMovimentacao DESC, l.id DESC")
+	List<Saldo> findUltimoParaAtualizar(Integer produtoId, Pageable primeiro);
+
+	@Transactional
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT l.dataMovimentacao AS dataMovimentacao, l.quantidade AS quantidade, l.saldo AS saldo "
+			+ "FROM LancamentoEstoque l WHERE l.produtoId = ?1 AND l.dataMovimentacao <= ?2 "
+			+ "ORDER BY l.dataMovimentacao DESC, l.id DESC")
+	List<Saldo> findAteParaAtualizar(Integer produtoId, LocalDateTime em, Pageable primeiro);
+
+	@Transactional
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT l.dataMovimentacao AS dataMovimentacao, l.quantidade AS quantidade, l.saldo AS saldo "
+			+ "FROM LancamentoEstoque l WHERE l.produtoId = ?1 AND l.dataMovimentacao > ?2 "
+			+ "ORDER BY l.dataMovimentacao ASC, l.id ASC")
+	List<Saldo> findAposParaAtualizar(Integer produtoId, LocalDateTime em, Pageable primeiro);
+
+	// lancamento com data retroativa: os posteriores passam a contar com ele
+	@Transactional
+	@Modifying(flushAutomatically = true)
+	@Query("UPDATE LancamentoEstoque l SET l.saldo = l.saldo + ?3 WHERE l.produtoId = ?1 AND l.dataMovimentacao > ?2")
+	int deslocaSaldos(Integer produtoId, LocalDateTime apos, int quantidade);
+
+}
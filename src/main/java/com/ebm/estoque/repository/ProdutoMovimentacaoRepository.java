@@ -1,11 +1,71 @@
 package com.ebm.estoque.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import javax.persistence.LockModeType;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.ebm.estoque.domain.ProdutoMovimentacao;
 import com.ebm.estoque.domain.ProdutoMovimentacaoPK;
+import com.ebm.estoque.domain.enums.TipoMovimentacao;
+import com.ebm.estoque.dtos.ResumoMovimentacaoDTO;
 @Repository
 public interface ProdutoMovimentacaoRepository extends JpaRepository<ProdutoMovimentacao, ProdutoMovimentacaoPK> {
 
+	// valores da linha multiplicados pela quantidade, como em CalculosItemVenda; arredondamento por grupo em Dinheiro
+	String LIQUIDO = "(pm.valorVendaBruto - COALESCE(pm.desconto, 0))";
+	String RESUMO = "SUM(pm.quantidade), SUM(pm.valorVendaBruto * pm.quantidade),"
+			+ " SUM(COALESCE(pm.desconto, 0) * pm.quantidade), SUM(" + LIQUIDO + " * pm.quantidade),"
+			+ " SUM((COALESCE(p.valorCompraMedio, 0) + COALESCE(p.outrasDespesa, 0)) * pm.quantidade),"
+			+ " SUM(" + LIQUIDO + " * COALESCE(p.comissaoVenda, 0) * pm.quantidade)";
+	String ORIGEM = " FROM ProdutoMovimentacao pm JOIN pm.id.movimentacao m JOIN pm.id.produto p";
+	// periodo [de, ate); parametro nulo desliga o filtro
+	String FILTRO = " WHERE (m.tipoMovimentacao = ?1 OR ?1 IS NULL)"
+			+ " AND (m.dataMovimentacao >= ?2 OR ?2 IS NULL) AND (m.dataMovimentacao < ?3 OR ?3 IS NULL)";
+
+	@Transactional(readOnly = true)
+	@Query("SELECT new com.ebm.estoque.dtos.ResumoMovimentacaoDTO(c.nome, " + RESUMO + ")" + ORIGEM
+			+ " JOIN p.categoria c" + FILTRO + " GROUP BY c.nome ORDER BY c.nome")
+	List<ResumoMovimentacaoDTO> resumoPorCategoria(TipoMovimentacao tipo, LocalDateTime de, LocalDateTime ate);
+
+	// movimentacao com mais de um fornecedor entra no grupo de cada um deles
+	@Transactional(readOnly = true)
+	@Query("SELECT new com.ebm.estoque.dtos.ResumoMovimentacaoDTO(fp.nome, " + RESUMO + ")" + ORIGEM
+			+ " JOIN m.fornecedores f JOIN f.pessoa fp" + FILTRO + " GROUP BY f.id, fp.nome ORDER BY fp.nome")
+	List<ResumoMovimentacaoDTO> resumoPorFornecedor(TipoMovimentacao tipo, LocalDateTime de, LocalDateTime ate);
+
+	@Transactional(readOnly = true)
+	@Query("SELECT new com.ebm.estoque.dtos.ResumoMovimentacaoDTO(YEAR(m.dataMovimentacao), MONTH(m.dataMovimentacao), "
+			+ RESUMO + ")" + ORIGEM + FILTRO + " GROUP BY YEAR(m.dataMovimentacao), MONTH(m.dataMovimentacao)"
+			+ " ORDER BY YEAR(m.dataMovimentacao), MONTH(m.dataMovimentacao)")
+	List<ResumoMovimentacaoDTO> resumoPorMes(TipoMovimentacao tipo, LocalDateTime de, LocalDateTime ate);
+
+	// historico completo dos produtos, na ordem em que o custo medio e refeito
+	@Transactional(readOnly = true)
+	@Query("SELECT pm FROM ProdutoMovimentacao pm JOIN FETCH pm.id.movimentacao m JOIN FETCH pm.id.produto p"
+			+ " WHERE p.id IN ?1 ORDER BY p.id, m.dataMovimentacao, m.id")
+	List<ProdutoMovimentacao> findHistoricoByProdutoIdIn(Collection<Integer> produtos);
+
+	@Transactional(readOnly = true)
+	@Query("SELECT DISTINCT pm.id.produto.id FROM ProdutoMovimentacao pm WHERE pm.id.movimentacao.tipoMovimentacao = ?1"
+			+ " AND pm.id.produto.id > ?2 ORDER BY pm.id.produto.id")
+	List<Integer> findProdutosComMovimentacao(TipoMovimentacao tipo, Integer apos, Pageable pagina);
+
+	// movimentacoes do produto datadas ou gravadas depois de outra; com lock, como as leituras de
+	// LancamentoEstoqueRepository, para enxergar o que foi confirmado durante a espera pelo lock do produto
+	@Transactional
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT m.id FROM ProdutoMovimentacao pm JOIN pm.id.movimentacao m WHERE pm.id.produto.id = ?1"
+			+ " AND m.tipoMovimentacao = ?2 AND m.id <> ?3 AND (m.dataMovimentacao > ?4 OR m.id > ?3)")
+	List<Integer> findMovimentacoesPosteriores(Integer produtoId, TipoMovimentacao tipo, Integer movimentacaoId,
+			LocalDateTime data, Pageable primeira);
+
 }
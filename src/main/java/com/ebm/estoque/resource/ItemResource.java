@@ -5,8 +5,8 @@ import java.net.URI;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -24,6 +24,8 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import com.ebm.estoque.domain.Item;
 import com.ebm.estoque.dtos.ItemListDTO;
 import com.ebm.estoque.service.interfaces.ItemService;
+import com.ebm.geral.domain.Contagem;
+import com.ebm.geral.domain.CursorPage;
 
 @RestController
 @RequestMapping(value = "/itens")
@@ -65,7 +67,7 @@ public class ItemResource {
 
 	@PreAuthorize("hasAuthority('ITEM_GET')")
 	@GetMapping(value = "/page")
-	public ResponseEntity<Page<ItemListDTO>> findAllBy(
+	public ResponseEntity<Slice<ItemListDTO>> findAllBy(
 			@RequestParam(value = "codInterno", required = false) String codInterno,
 			@RequestParam(value = "nome", required = false) String nome,
 			@RequestParam(value = "tipo", required = false) String tipo,
@@ -74,9 +76,29 @@ public class ItemResource {
 			@RequestParam(value = "page", defaultValue = "0") Integer page,
 			@RequestParam(value = "linesPerPage", defaultValue = "10") Integer linesPerPage,
 			@RequestParam(value = "orderBy", defaultValue = "nome") String orderBy,
-			@RequestParam(value = "direction", defaultValue = "ASC") String direction) {
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "count", defaultValue = "true") String count) {
 		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
-		Page<ItemListDTO> rs = itemService.findBy(codInterno, tipo, nome, unidade, categoria, pageRequest);
+		Slice<ItemListDTO> rs = itemService.findBy(codInterno, tipo, nome, unidade, categoria, pageRequest,
+				Contagem.fromString(count));
+		return ResponseEntity.ok().body(rs);
+	}
+
+	@PreAuthorize("hasAuthority('ITEM_GET')")
+	@GetMapping(value = "/page", params = "after")
+	public ResponseEntity<CursorPage<ItemListDTO>> findAllByCursor(
+			@RequestParam(value = "codInterno", required = false) String codInterno,
+			@RequestParam(value = "nome", required = false) String nome,
+			@RequestParam(value = "tipo", required = false) String tipo,
+			@RequestParam(value = "unidade", required = false) String unidade,
+			@RequestParam(value = "categoria", required = false) String categoria,
+			@RequestParam(value = "after") String after,
+			@RequestParam(value = "linesPerPage", defaultValue = "10") Integer linesPerPage,
+			@RequestParam(value = "orderBy", defaultValue = "nome") String orderBy,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "count", defaultValue = "false") boolean count) {
+		CursorPage<ItemListDTO> rs = itemService.findBy(codInterno, tipo, nome, unidade, categoria, after,
+				orderBy, Direction.valueOf(direction), linesPerPage, count);
 		return ResponseEntity.ok().body(rs);
 	}
 
@@ -1,16 +1,21 @@
 package com.ebm.estoque.resource;
 
 import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
 
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort.Direction;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -26,8 +31,12 @@ import com.ebm.estoque.domain.Movimentacao;
 import com.ebm.estoque.domain.enums.TipoMovimentacao;
 import com.ebm.estoque.dtos.MovimentacaoListDTO;
 import com.ebm.estoque.service.interfaces.MovimentacaoService;
+import com.ebm.geral.domain.Contagem;
+import com.ebm.geral.domain.CursorPage;
 
+// @Validated: valida cada movimentacao do lote, o @Valid sozinho nao entra nos elementos da lista
 @RestController
+@Validated
 @RequestMapping(value = "/movimentacoes")
 public class MovimentacaoResource {
 	@Autowired
@@ -42,6 +51,13 @@ public class MovimentacaoResource {
 		return ResponseEntity.created(uri).build();
 	}
 
+	@PreAuthorize("hasAuthority('MOVIMENTACAO_POST')")
+	@PostMapping(value = "/batch")
+	public ResponseEntity<List<Integer>> insertBatch(@Valid @RequestBody List<Movimentacao> movimentacoes) {
+		List<Integer> ids = movimentacaoService.saveBatch(movimentacoes);
+		return ResponseEntity.status(HttpStatus.CREATED).body(ids);
+	}
+
 	@PreAuthorize("hasAuthority('MOVIMENTACAO_PUT')")
 	@PutMapping(value = "/{id}")
 	public ResponseEntity<Void> update(@Valid @RequestBody Movimentacao movimentacao, @PathVariable Integer id) {
@@ -67,19 +83,41 @@ public class MovimentacaoResource {
 
 	@PreAuthorize("hasAuthority('MOVIMENTACAO_GET')")
 	@GetMapping(value = "/page")
-	public ResponseEntity<Page<MovimentacaoListDTO>> findAllBy(
+	public ResponseEntity<Slice<MovimentacaoListDTO>> findAllBy(
 			@RequestParam(value = "documento", required = false) String documento,
 			@RequestParam(value = "tipo", required = false) String tipo,
 			@RequestParam(value = "fornecedores", required = false) List<Integer> fornecedores,
 			@RequestParam(value = "produtos", required = false) List<Integer> produtos,
+			@RequestParam(value = "de", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate de,
+			@RequestParam(value = "ate", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate ate,
 			@RequestParam(value = "page", defaultValue = "0") Integer page,
 			@RequestParam(value = "linesPerPage", defaultValue = "10") Integer linesPerPage,
 			@RequestParam(value = "orderBy", defaultValue = "id") String orderBy,
-			@RequestParam(value = "direction", defaultValue = "ASC") String direction) {
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "count", defaultValue = "true") String count) {
 
 		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
-		Page<MovimentacaoListDTO> rs = movimentacaoService.findBy(TipoMovimentacao.fromString(tipo), documento,
-				fornecedores, produtos, pageRequest);
+		Slice<MovimentacaoListDTO> rs = movimentacaoService.findBy(TipoMovimentacao.fromString(tipo), documento,
+				fornecedores, produtos, de, ate, pageRequest, Contagem.fromString(count));
+		return ResponseEntity.ok().body(rs);
+	}
+
+	@PreAuthorize("hasAuthority('MOVIMENTACAO_GET')")
+	@GetMapping(value = "/page", params = "after")
+	public ResponseEntity<CursorPage<MovimentacaoListDTO>> findAllByCursor(
+			@RequestParam(value = "documento", required = false) String documento,
+			@RequestParam(value = "tipo", required = false) String tipo,
+			@RequestParam(value = "fornecedores", required = false) List<Integer> fornecedores,
+			@RequestParam(value = "produtos", required = false) List<Integer> produtos,
+			@RequestParam(value = "de", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate de,
+			@RequestParam(value = "ate", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate ate,
+			@RequestParam(value = "after") String after,
+			@RequestParam(value = "linesPerPage", defaultValue = "10") Integer linesPerPage,
+			@RequestParam(value = "orderBy", defaultValue = "id") String orderBy,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "count", defaultValue = "false") boolean count) {
+		CursorPage<MovimentacaoListDTO> rs = movimentacaoService.findBy(TipoMovimentacao.fromString(tipo), documento,
+				fornecedores, produtos, de, ate, after, orderBy, Direction.valueOf(direction), linesPerPage, count);
 		return ResponseEntity.ok().body(rs);
 	}
 
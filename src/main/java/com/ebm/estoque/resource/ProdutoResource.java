@@ -0,0 +1,56 @@
+package com.ebm.estoque.resource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ebm.estoque.dtos.SaldoEstoqueDTO;
+import com.ebm.estoque.service.interfaces.LancamentoEstoqueService;
+import com.ebm.estoque.service.interfaces.MovimentacaoService;
+
+@RestController
+@RequestMapping(value = "/produtos")
+public class ProdutoResource {
+	@Autowired
+	private LancamentoEstoqueService lancamentoService;
+	@Autowired
+	private MovimentacaoService movimentacaoService;
+
+	@PreAuthorize("hasAuthority('ITEM_GET')")
+	@GetMapping(value = "/{id}/saldo")
+	public ResponseEntity<SaldoEstoqueDTO> saldo(@PathVariable Integer id,
+			@RequestParam(value = "em", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime em) {
+		LocalDateTime data = em == null ? LocalDateTime.now() : em;
+		return ResponseEntity.ok(new SaldoEstoqueDTO(id, data, lancamentoService.saldoEm(id, data)));
+	}
+
+	// fechamento: varios produtos na mesma data, uma busca indexada por produto
+	@PreAuthorize("hasAuthority('ITEM_GET')")
+	@GetMapping(value = "/saldos")
+	public ResponseEntity<List<SaldoEstoqueDTO>> saldos(@RequestParam(value = "ids") List<Integer> ids,
+			@RequestParam(value = "em", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime em) {
+		LocalDateTime data = em == null ? LocalDateTime.now() : em;
+		return ResponseEntity.ok(ids.stream().map(id -> new SaldoEstoqueDTO(id, data, lancamentoService.saldoEm(id, data)))
+				.collect(Collectors.toList()));
+	}
+
+	// reconstroi o custo medio de todos os produtos pelo historico de entradas; devolve quantos foram recalculados
+	@PreAuthorize("hasAuthority('ITEM_PUT')")
+	@PostMapping(value = "/custo-medio")
+	public ResponseEntity<Integer> recalculaCustoMedio() {
+		return ResponseEntity.ok(movimentacaoService.recalculaCustoMedio());
+	}
+
+}
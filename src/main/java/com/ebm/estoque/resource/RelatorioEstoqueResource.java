@@ -0,0 +1,45 @@
+package com.ebm.estoque.resource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ebm.estoque.domain.enums.TipoMovimentacao;
+import com.ebm.estoque.dtos.ResumoItensDTO;
+import com.ebm.estoque.dtos.ResumoMovimentacaoDTO;
+import com.ebm.estoque.service.interfaces.RelatorioEstoqueService;
+
+@RestController
+@RequestMapping(value = "/relatorios/estoque")
+public class RelatorioEstoqueResource {
+	@Autowired
+	private RelatorioEstoqueService relatorioService;
+
+	@PreAuthorize("hasAuthority('ITEM_GET')")
+	@GetMapping(value = "/itens")
+	public ResponseEntity<List<ResumoItensDTO>> resumoItens(
+			@RequestParam(value = "agrupar", defaultValue = "categoria") String agrupar) {
+		return ResponseEntity.ok(relatorioService.resumoItens(agrupar));
+	}
+
+	@PreAuthorize("hasAuthority('MOVIMENTACAO_GET')")
+	@GetMapping(value = "/movimentacoes")
+	public ResponseEntity<List<ResumoMovimentacaoDTO>> resumoMovimentacoes(
+			@RequestParam(value = "agrupar", defaultValue = "mes") String agrupar,
+			@RequestParam(value = "tipo", required = false) String tipo,
+			@RequestParam(value = "de", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate de,
+			@RequestParam(value = "ate", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate ate) {
+		return ResponseEntity
+				.ok(relatorioService.resumoMovimentacoes(agrupar, TipoMovimentacao.fromString(tipo), de, ate));
+	}
+
+}
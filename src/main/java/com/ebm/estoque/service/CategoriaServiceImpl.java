@@ -8,12 +8,14 @@ import java.util.stream.Collectors;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.ebm.estoque.domain.CategoriaItem;
 import com.ebm.estoque.dtos.ItemListDTO;
@@ -22,6 +24,8 @@ import com.ebm.estoque.service.interfaces.CategoriaItemService;
 import com.ebm.estoque.service.interfaces.ItemService;
 import com.ebm.geral.exceptions.DataIntegrityException;
 import com.ebm.geral.exceptions.ObjectNotFoundException;
+import com.ebm.geral.service.CacheReferencias;
+import com.ebm.geral.service.CacheReferencias.Tabela;
 import com.ebm.geral.utils.Utils;
 
 @Service
@@ -31,13 +35,30 @@ public class CategoriaServiceImpl implements CategoriaItemService{
 	private CategoriaItemRepository categoriaRepository;
 	@Autowired
 	private ItemService itens;
+	@Autowired
+	private CacheReferencias cacheReferencias;
+	@Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+	private int batchSize;
 	
 	@Override
 	public CategoriaItem save(@Valid CategoriaItem categoria) {
+		CategoriaItem salva = salva(categoria);
+		categoriaRepository.flush();
+		return salva;
+	}
+
+	private CategoriaItem salva(CategoriaItem categoria) {
 		garantaIntegridade(categoria);
 		saveAssociacoes(categoria);
 		Utils.audita(categoria.getHistorico());
-		return categoriaRepository.save(categoria);
+		// com id pode ser troca de nome: a chave antiga e desconhecida
+		boolean nova = categoria.getId() == null;
+		CategoriaItem salva = categoriaRepository.save(categoria);
+		if (nova)
+			cacheReferencias.invalida(Tabela.CATEGORIA, CacheReferencias.minuscula(categoria.getNome()));
+		else
+			cacheReferencias.limpa(Tabela.CATEGORIA);
+		return salva;
 	}
 	
 	private void saveAssociacoes(CategoriaItem categoria) {
@@ -60,7 +81,8 @@ public class CategoriaServiceImpl implements CategoriaItemService{
 	public CategoriaItem findByNome(String nome) {
 		if(nome == null)
 			throw new DataIntegrityException(DATAINTEGRITY_NOMENULL);
-		return categoriaRepository.findByNomeIgnoreCaseLike(nome).orElseThrow( () -> new ObjectNotFoundException(ONFE_NOTFOUNDBYNOME));
+		return Optional.ofNullable(cacheReferencias.categoria(nome, () -> categoriaRepository.findByNomeIgnoreCaseLike(nome)))
+				.orElseThrow( () -> new ObjectNotFoundException(ONFE_NOTFOUNDBYNOME));
 		
 		
 	}
@@ -88,13 +110,14 @@ public class CategoriaServiceImpl implements CategoriaItemService{
 	@Override
 	public void deleteAll() {
 		categoriaRepository.deleteAll();
+		cacheReferencias.limpa(Tabela.CATEGORIA);
 		
 	}
 
+	@Transactional
 	@Override
 	public List<CategoriaItem> saveAll(List<CategoriaItem> categorias) {
-		// TODO Auto-generated method stub
-		return categorias.stream().map(c -> this.save(c)).collect(Collectors.toList());
+		return Utils.salvaEmLotes(categorias, this::salva, categoriaRepository::flush, batchSize);
 	}
 
 	@Override
@@ -105,6 +128,7 @@ public class CategoriaServiceImpl implements CategoriaItemService{
 			throw new DataIntegrityException(DATAINTEGRITY_CATTHASITEM);
 		}
 		categoriaRepository.deleteById(id);
+		cacheReferencias.invalida(Tabela.CATEGORIA, CacheReferencias.minuscula(cat.getNome()));
 		
 	}
 
@@ -1,30 +1,43 @@
 package com.ebm.estoque.service;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.ebm.estoque.domain.Item;
+import com.ebm.estoque.domain.Produto;
 import com.ebm.estoque.domain.enums.TipoItem;
 import com.ebm.estoque.dtos.ItemListDTO;
 import com.ebm.estoque.repository.ItemRepository;
 import com.ebm.estoque.service.interfaces.CategoriaItemService;
 import com.ebm.estoque.service.interfaces.ItemService;
 import com.ebm.estoque.service.interfaces.UnidadeService;
+import com.ebm.geral.domain.Contagem;
+import com.ebm.geral.domain.CursorPage;
 import com.ebm.geral.exceptions.DataIntegrityException;
 import com.ebm.geral.exceptions.ObjectNotFoundException;
+import com.ebm.geral.service.CacheContagem;
+import com.ebm.geral.utils.ListagemPorCursor;
+import com.ebm.geral.utils.TotaisEstimados;
+import com.ebm.geral.utils.UtilContabel;
 import com.ebm.geral.utils.Utils;
 
 @Service
@@ -36,6 +49,17 @@ public class ItemServiceImpl implements ItemService {
 	private UnidadeService unidadeService;
 	@Autowired
 	private CategoriaItemService categoriaService;
+	@PersistenceContext
+	private EntityManager entityManager;
+	@Autowired
+	private CacheContagem cacheContagem;
+	@Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+	private int batchSize;
+
+	private static final ListagemPorCursor<ItemListDTO> LISTAGEM = new ListagemPorCursor<>(ItemListDTO.class,
+			ItemRepository.LISTAGEM, ItemRepository.CONTAGEM, "i.id", ItemListDTO::getId)
+					.chave("nome", "i.nome", String.class, ItemListDTO::getNome);
+
 	@Override
 	public void deleteAll(boolean b) {
 		itemRepository.deleteAll();
@@ -48,6 +72,12 @@ public class ItemServiceImpl implements ItemService {
 
 	@Override
 	public Item save(Item item) {
+		Item salvo = salva(item);
+		itemRepository.flush();
+		return salvo;
+	}
+
+	private Item salva(Item item) {
 		garantaIntegridade(item);
 		salvaAssociacao(item);
 		Utils.audita(item.getHistorico());
@@ -77,6 +107,44 @@ public class ItemServiceImpl implements ItemService {
 		itemRepository.deleteById(id);
 	}
 
+	@Transactional
+	@Override
+	public Produto ajustaEstoque(Produto produto, int delta) {
+		if (produto == null || produto.getId() == null)
+			throw new DataIntegrityException(DATAINTEGRITY_IDNULL);
+		if (itemRepository.ajustaEstoque(produto.getId(), delta) == 0)
+			throw new ObjectNotFoundException(ONFE_PRODUTOBYID + produto.getId());
+
+		// o UPDATE nao passa pelo contexto de persistencia, entao recarrega o saldo gravado
+		if (entityManager.contains(produto)) {
+			entityManager.refresh(produto);
+			return produto;
+		}
+		return (Produto) findById(produto.getId());
+	}
+
+	@Transactional
+	@Override
+	public void ajustaEstoque(Map<Integer, Integer> deltaPorProduto) {
+		// TreeMap: mesma ordem de lock usada em ajustaEstoque(Produto, int)
+		new TreeMap<>(deltaPorProduto).forEach((id, delta) -> {
+			if (itemRepository.ajustaEstoque(id, delta) == 0)
+				throw new ObjectNotFoundException(ONFE_PRODUTOBYID + id);
+		});
+	}
+
+	@Override
+	public List<Produto> findAllProdutosById(Set<Integer> ids) {
+		List<Produto> produtos = itemRepository.findAllById(ids).stream().filter(i -> i instanceof Produto)
+				.map(i -> (Produto) i).collect(Collectors.toList());
+		if (produtos.size() != ids.size()) {
+			Set<Integer> encontrados = produtos.stream().map(Produto::getId).collect(Collectors.toSet());
+			throw new ObjectNotFoundException(ONFE_PRODUTOBYID
+					+ ids.stream().filter(id -> !encontrados.contains(id)).findFirst().orElse(null));
+		}
+		return produtos;
+	}
+
 	@Override
 	public Item findById(Integer id) {
 		if(!Optional.ofNullable(id).isPresent())
@@ -88,84 +156,90 @@ public class ItemServiceImpl implements ItemService {
 	
 	@Override
 	public List<Item> findBy(String codigoInterno, String tipo, String nome, String unidade, String categoria) {
-		ExampleMatcher matcher = Utils.getExampleMatcherForDinamicFilter(true);
-
-		List<Item> itens = new ArrayList<>();
-
-		if(tipo == null || tipo.isEmpty()) {
-			matcher = matcher.withIgnorePaths("tipo");
-			preparaItens(codigoInterno, nome, unidade, categoria, matcher, itens, TipoItem.PRODUTO.getInstance());
-			preparaItens(codigoInterno, nome, unidade, categoria, matcher, itens, TipoItem.SERVICO.getInstance());	
-		}else 
-			preparaItens(codigoInterno, nome, unidade, categoria, matcher, itens, TipoItem.fromString(tipo).getInstance());
-		
-		return itens;
+		return itemRepository.findBy(Utils.nullSeVazio(codigoInterno), tipoItem(tipo), Utils.nullSeVazio(nome),
+				Utils.nullSeVazio(unidade), Utils.nullSeVazio(categoria), Pageable.unpaged()).getContent();
 	}
 	
 	@Override
 	public Page<ItemListDTO> findBy(String codigoInterno, String tipo, String nome, String unidade, String categoria,
 			PageRequest pageRequest) {
-		List<ItemListDTO> itens = findBy(codigoInterno, tipo, nome, unidade, categoria).stream().map( i -> new ItemListDTO(i)).collect(Collectors.toList());
-		
-		return new PageImpl<>(itens, pageRequest, itens.size());
-		
+		return itemRepository.findListBy(Utils.nullSeVazio(codigoInterno), tipoItem(tipo), Utils.nullSeVazio(nome),
+				Utils.nullSeVazio(unidade), Utils.nullSeVazio(categoria), pageRequest);
 	}
-	private void preparaItens(String codigoInterno, String nome, String unidade, String categoria,
-			ExampleMatcher matcher, List<Item> itens, Item item) {
-		item.setCodInterno(codigoInterno);
-		if(Optional.ofNullable(categoria).isPresent()) {			
-			item.setCategoria(categoriaService.findByNome(categoria));
-			item.getCategoria().setHistorico(null);
-		}
-		if(Optional.ofNullable(unidade).isPresent())
-			item.setUnidade(unidadeService.findByAbrev(unidade));
-		item.setNome(nome);
-		
-		itens.addAll(itemRepository.findAll(Example.of(item, matcher)));
+
+	@Override
+	public Slice<ItemListDTO> findBy(String codigoInterno, String tipo, String nome, String unidade,
+			String categoria, PageRequest pageRequest, Contagem contagem) {
+		if (contagem == Contagem.EXATA)
+			return findBy(codigoInterno, tipo, nome, unidade, categoria, pageRequest);
+		String cod = Utils.nullSeVazio(codigoInterno), tp = tipoItem(tipo), nm = Utils.nullSeVazio(nome),
+				un = Utils.nullSeVazio(unidade), cat = Utils.nullSeVazio(categoria);
+		Slice<ItemListDTO> fatia = itemRepository.findSliceBy(cod, tp, nm, un, cat, pageRequest);
+		if (contagem == Contagem.NENHUMA)
+			return fatia;
+		return cacheContagem.pagina(fatia, "itens", () -> itemRepository.contaListBy(cod, tp, nm, un, cat), cod,
+				tp, nm, un, cat);
+	}
+
+	@Transactional(readOnly = true)
+	@Override
+	public CursorPage<ItemListDTO> findBy(String codigoInterno, String tipo, String nome, String unidade,
+			String categoria, String after, String orderBy, Direction direcao, int tamanho, boolean contar) {
+		return LISTAGEM.busca(entityManager, ItemRepository.FILTRO,
+				Arrays.asList(Utils.nullSeVazio(codigoInterno), tipoItem(tipo), Utils.nullSeVazio(nome),
+						Utils.nullSeVazio(unidade), Utils.nullSeVazio(categoria)),
+				after, orderBy, direcao, tamanho, contar);
+	}
+
+	private String tipoItem(String tipo) {
+		return Utils.nullSeVazio(tipo) == null ? null : TipoItem.fromString(tipo).getDescricao();
 	}
+
 	@Override
-	public Double calcularComissaoEstimada(Collection<Item> item, Double taxaComissaoA) {
-		BigDecimal taxaComissao = BigDecimal.valueOf(Optional.of(taxaComissaoA).orElse(0d));
-		return item.stream().mapToDouble(i -> i.getPrecoVenda().multiply(taxaComissao).doubleValue()).sum();
+	public Double calcularComissaoEstimada(Collection<Item> item, Double taxaComissao) {
+		return totalizaEstimativas(item).getComissaoEstimada(taxaComissao).doubleValue();
 	}
 
 	@Override
 	public Double calcularComissaoEstimada(Collection<Item> item) {
-		return item.stream().mapToDouble(i->i.getComissaoEstimada().doubleValue()).sum();
+		return totalizaEstimativas(item).getComissaoEstimada().doubleValue();
 	}
 
 	@Override
 	public Double calcularLucroBrutoEstimado(Collection<Item> item) {
-
-		return item.stream().mapToDouble(i->i.getLucroEstimado().doubleValue()).sum();
+		return totalizaEstimativas(item).getLucroBrutoEstimado().doubleValue();
 	}
 
 	@Override
 	public Double calcularLucroLiquidoEstimado(Collection<Item> item) {
-		 return item.stream().mapToDouble(i ->  i.getLucroEstimado().subtract(i.getComissaoEstimada()).doubleValue() ).sum();
+		return totalizaEstimativas(item).getLucroLiquidoEstimado().doubleValue();
 	}
 
 	@Override
-	public Double calcularLucroLiquidoEstimado(Collection<Item> item, Double taxaComissaoA) {
-		BigDecimal taxaComissao = BigDecimal.valueOf(Optional.of(taxaComissaoA).orElse(0d));
-		
-		return item.stream().mapToDouble(i ->  i.getLucroEstimado().subtract(i.getPrecoVenda().multiply(taxaComissao)).doubleValue() ).sum();
+	public Double calcularLucroLiquidoEstimado(Collection<Item> item, Double taxaComissao) {
+		return totalizaEstimativas(item).getLucroLiquidoEstimado(taxaComissao).doubleValue();
 	}
 
 	@Override
 	public Double calcularCustoTotal(Collection<Item> item) {
-		return item.stream().mapToDouble(i-> i.getCustoTotal().doubleValue()).sum();
+		return totalizaEstimativas(item).getCustoTotal().doubleValue();
 	}
 
 	@Override
 	public Double calcularPrecoVendaTotal(Collection<Item> item) {
-		return item.stream().mapToDouble(i -> i. getPrecoVenda().doubleValue()).sum();
+		return totalizaEstimativas(item).getPrecoVendaTotal().doubleValue();
+	}
+
+	// todas as estimativas numa passada; quem precisa de mais de uma deve chamar este direto
+	@Override
+	public TotaisEstimados totalizaEstimativas(Collection<? extends Item> item) {
+		return UtilContabel.totalizaEstimativas(item);
 	}
 	
 	@Transactional
 	@Override
 	public Collection<? extends Item> saveAll(Collection<? extends Item> itens){
-		return itens.stream().map( i -> this.save(i)).collect(Collectors.toList());
+		return Utils.salvaEmLotes(itens, this::salva, itemRepository::flush, batchSize);
 	}
 	
 	
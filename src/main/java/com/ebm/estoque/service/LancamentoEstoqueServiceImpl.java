@@ -0,0 +1,98 @@
+package com.ebm.estoque.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ebm.estoque.domain.LancamentoEstoque;
+import com.ebm.estoque.repository.ItemRepository;
+import com.ebm.estoque.repository.LancamentoEstoqueRepository;
+import com.ebm.estoque.repository.LancamentoEstoqueRepository.Saldo;
+import com.ebm.estoque.service.interfaces.ItemService;
+import com.ebm.estoque.service.interfaces.LancamentoEstoqueService;
+import com.ebm.geral.exceptions.DataIntegrityException;
+import com.ebm.geral.exceptions.ObjectNotFoundException;
+
+@Service
+public class LancamentoEstoqueServiceImpl implements LancamentoEstoqueService {
+
+	@Autowired
+	private LancamentoEstoqueRepository lancamentoRepository;
+	@Autowired
+	private ItemRepository itemRepository;
+
+	private static final Pageable PRIMEIRO = PageRequest.of(0, 1);
+
+	@Transactional
+	@Override
+	public void registra(Integer produtoId, List<LancamentoEstoque> lancamentos) {
+		if (produtoId == null)
+			throw new DataIntegrityException(DATAINTEGRITY_IDNULL);
+		if (lancamentos.isEmpty())
+			return;
+		List<LancamentoEstoque> ordenados = new ArrayList<>(lancamentos);
+		ordenados.sort(Comparator.comparing(LancamentoEstoque::getDataMovimentacao));
+
+		Optional<Saldo> ultimo = primeiro(lancamentoRepository.findUltimoParaAtualizar(produtoId, PRIMEIRO));
+		if (!ultimo.isPresent()
+				|| !ordenados.get(0).getDataMovimentacao().isBefore(ultimo.get().getDataMovimentacao())) {
+			// caso comum: tudo depois do ultimo lancamento, o saldo so acumula. Parte do estoqueAtual que esta
+			// transacao acabou de gravar (a propria linha alterada e sempre lida atual), antes destes ajustes
+			int saldo = estoqueAtual(produtoId) - ordenados.stream().mapToInt(LancamentoEstoque::getQuantidade).sum();
+			for (LancamentoEstoque lancamento : ordenados) {
+				saldo += lancamento.getQuantidade();
+				lancamento.setSaldo(saldo);
+			}
+			lancamentoRepository.saveAll(ordenados);
+			return;
+		}
+
+		// data retroativa: cada lancamento entra no meio do historico e soma sua quantidade aos posteriores
+		for (LancamentoEstoque lancamento : ordenados) {
+			lancamento.setSaldo(
+					saldoEm(produtoId, lancamento.getDataMovimentacao(), true) + lancamento.getQuantidade());
+			lancamentoRepository.deslocaSaldos(produtoId, lancamento.getDataMovimentacao(), lancamento.getQuantidade());
+			lancamentoRepository.save(lancamento);
+		}
+	}
+
+	@Override
+	public int saldoEm(Integer produtoId, LocalDateTime em) {
+		if (produtoId == null)
+			throw new DataIntegrityException(DATAINTEGRITY_IDNULL);
+		return saldoEm(produtoId, em, false);
+	}
+
+	// paraAtualizar: leitura com lock, para quem vai gravar a partir do saldo lido
+	private int saldoEm(Integer produtoId, LocalDateTime em, boolean paraAtualizar) {
+		Optional<Saldo> ate = paraAtualizar ? primeiro(lancamentoRepository.findAteParaAtualizar(produtoId, em, PRIMEIRO))
+				: lancamentoRepository
+						.findFirstByProdutoIdAndDataMovimentacaoLessThanEqualOrderByDataMovimentacaoDescIdDesc(produtoId, em);
+		if (ate.isPresent())
+			return ate.get().getSaldo();
+		// antes do primeiro lancamento: o saldo que ele encontrou
+		Optional<Saldo> apos = paraAtualizar
+				? primeiro(lancamentoRepository.findAposParaAtualizar(produtoId, em, PRIMEIRO))
+				: lancamentoRepository
+						.findFirstByProdutoIdAndDataMovimentacaoGreaterThanOrderByDataMovimentacaoAscIdAsc(produtoId, em);
+		return apos.map(s -> s.getSaldo() - s.getQuantidade()).orElseGet(() -> estoqueAtual(produtoId));
+	}
+
+	private static Optional<Saldo> primeiro(List<Saldo> saldos) {
+		return saldos.stream().findFirst();
+	}
+
+	private int estoqueAtual(Integer produtoId) {
+		return itemRepository.findEstoqueAtualById(produtoId)
+				.orElseThrow(() -> new ObjectNotFoundException(ItemService.ONFE_PRODUTOBYID + produtoId));
+	}
+
+}
@@ -1,22 +1,50 @@
 package com.ebm.estoque.service;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.repository.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.ebm.estoque.domain.LancamentoEstoque;
 import com.ebm.estoque.domain.Movimentacao;
 import com.ebm.estoque.domain.Produto;
 import com.ebm.estoque.domain.ProdutoMovimentacao;
@@ -25,9 +53,15 @@ import com.ebm.estoque.dtos.MovimentacaoListDTO;
 import com.ebm.estoque.repository.MovimentacaoRepository;
 import com.ebm.estoque.repository.ProdutoMovimentacaoRepository;
 import com.ebm.estoque.service.interfaces.ItemService;
+import com.ebm.estoque.service.interfaces.LancamentoEstoqueService;
 import com.ebm.estoque.service.interfaces.MovimentacaoService;
+import com.ebm.geral.domain.Contagem;
+import com.ebm.geral.domain.CursorPage;
 import com.ebm.geral.exceptions.DataIntegrityException;
 import com.ebm.geral.exceptions.ObjectNotFoundException;
+import com.ebm.geral.service.CacheContagem;
+import com.ebm.geral.utils.Cursor;
+import com.ebm.geral.utils.UtilContabel;
 import com.ebm.geral.utils.Utils;
 import com.ebm.pessoal.domain.Fornecedor;
 import com.ebm.pessoal.service.interfaces.FornecedorService;
@@ -44,12 +78,35 @@ public class MovimentacaoServiceImpl implements MovimentacaoService {
 	private FornecedorService fornecedorService;
 	@Autowired
 	private ItemService itemService;
+	@Autowired
+	private LancamentoEstoqueService lancamentoService;
+	@PersistenceContext
+	private EntityManager entityManager;
+	@Autowired
+	private CacheContagem cacheContagem;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	// chaves aceitas na listagem por cursor: nao nulas, com o valor lido do DTO
+	private static final Map<String, Function<MovimentacaoListDTO, Object>> CHAVES_CURSOR = Map.of("id",
+			MovimentacaoListDTO::getId, "dataMovimentacao", MovimentacaoListDTO::getDataMovimentacao);
+
+	@Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+	private int batchSize;
 
 	@Transactional
 	@Override
 	public Movimentacao save(Movimentacao movimentacao) {
 		garanteIntegridade(movimentacao);
-		
+		// alteracao: as linhas gravadas sao desfeitas como na exclusao e as recebidas entram como novas
+		Set<Integer> refazerCusto = new HashSet<>();
+		if (movimentacao.getId() != null) {
+			// a instancia recebida pode ser a gerenciada: solta para ler a gravada no banco
+			if (entityManager.contains(movimentacao))
+				entityManager.detach(movimentacao);
+			refazerCusto = desfaz(findById(movimentacao.getId()));
+		}
+
 		recuperaFornecedorFrom(movimentacao);
 		recuperaProdutosFrom(movimentacao);
 		
@@ -61,33 +118,43 @@ public class MovimentacaoServiceImpl implements MovimentacaoService {
 				pm.setMovimentacao(movimentacao);
 			}
 		}
-		movimentacao = movimentacaoRepository.save(movimentacao);
+		if (movimentacao.getId() == null)
+			movimentacao = movimentacaoRepository.save(movimentacao);
+		else {
+			// as linhas sao gravadas a parte, sem cascade: fora do merge, que procuraria as apagadas pelo desfaz
+			Set<ProdutoMovimentacao> linhas = movimentacao.getProdutoMovimentacao();
+			movimentacao.setProdutoMovimentacao(new HashSet<>());
+			movimentacao = movimentacaoRepository.save(movimentacao);
+			movimentacao.setProdutoMovimentacao(linhas);
+		}
 
 		if (!Optional.ofNullable(movimentacao.getDataMovimentacao()).isPresent())
 			movimentacao.setDataMovimentacao(LocalDateTime.now());
-		for (ProdutoMovimentacao pM : movimentacao.getProdutoMovimentacao()) {
+		// ordem fixa por produto para que movimentacoes concorrentes travem as linhas na mesma sequencia
+		List<ProdutoMovimentacao> itens = movimentacao.getProdutoMovimentacao().stream()
+				.sorted(Comparator.comparing(pM -> pM.getProduto().getId())).collect(Collectors.toList());
+		for (ProdutoMovimentacao pM : itens) {
 			pM.setMovimentacao(movimentacao);
-			
-
-			if (movimentacao.getTipoMovimentacao() == TipoMovimentacao.ENTRADA) {
-				// Aqui algo pra retornar uma mensagem de alerta caso extrapole a quantidade
-				// maxima de estoque
-				pM.getProduto().setEstoqueAtual(
-						valueOrZero(pM.getProduto().getEstoqueAtual()) + valueOrZero(pM.getQuantidade()));
-			} else {
-				// Aqui algo pra retornar uma mensagem de alerta caso extrapole a quantidade
-				// minima de estoque
-				pM.getProduto().setEstoqueAtual(
-						valueOrZero(pM.getProduto().getEstoqueAtual()) - valueOrZero(pM.getQuantidade()));
-			}
 
-			pM.setProduto((Produto) itemService.save(pM.getProduto()));
+			int quantidade = valueOrZero(pM.getQuantidade());
+			// Aqui algo pra retornar uma mensagem de alerta caso extrapole a quantidade
+			// maxima/minima de estoque
+			int delta = movimentacao.getTipoMovimentacao() == TipoMovimentacao.ENTRADA ? quantidade : -quantidade;
 
+			pM.setProduto(itemService.ajustaEstoque(pM.getProduto(), delta));
+			if (movimentacao.getTipoMovimentacao() == TipoMovimentacao.ENTRADA
+					&& !refazerCusto.contains(pM.getProduto().getId()))
+				pM.getProduto().setValorCompraMedio(custoMedio(pM.getProduto().getValorCompraMedio(),
+						pM.getProduto().getEstoqueAtual() - delta, Collections.singletonList(pM)));
+			lancamentoService.registra(pM.getProduto().getId(), Collections.singletonList(new LancamentoEstoque(
+					pM.getProduto().getId(), movimentacao.getId(), movimentacao.getDataMovimentacao(), delta)));
 		}
 
 		
 		movimentacao.setProdutoMovimentacao(new HashSet<ProdutoMovimentacao>(
 				pMovimentacaoRepository.saveAll(movimentacao.getProdutoMovimentacao())));
+		if (!refazerCusto.isEmpty())
+			recalculaCustoMedio(new ArrayList<>(refazerCusto));
 		return movimentacao;
 	}
 
@@ -124,6 +191,155 @@ public class MovimentacaoServiceImpl implements MovimentacaoService {
 		return movimentacoes.stream().map(m -> this.save(m)).collect(Collectors.toList());
 	}
 
+	@Transactional
+	@Override
+	public List<Integer> saveBatch(List<Movimentacao> movimentacoes) {
+		if (nullOrEmpty(movimentacoes))
+			throw new DataIntegrityException(DATAINTEGRITY_LOTEVAZIO);
+		movimentacoes.forEach(m -> garanteIntegridade(m));
+
+		Map<Integer, Produto> produtos = itemService.findAllProdutosById(movimentacoes.stream()
+				.flatMap(m -> m.getProdutoMovimentacao().stream()).map(pM -> idProduto(pM))
+				.collect(Collectors.toSet())).stream().collect(Collectors.toMap(Produto::getId, Function.identity()));
+
+		Set<Integer> idsFornecedores = movimentacoes.stream()
+				.filter(m -> m.getTipoMovimentacao() == TipoMovimentacao.ENTRADA && m.getFornecedores() != null)
+				.flatMap(m -> m.getFornecedores().stream()).map(f -> idFornecedor(f)).collect(Collectors.toSet());
+		Map<Integer, Fornecedor> fornecedores = idsFornecedores.isEmpty() ? new HashMap<>()
+				: fornecedorService.findAllById(idsFornecedores).stream()
+						.collect(Collectors.toMap(Fornecedor::getId, Function.identity()));
+
+		Map<Integer, Integer> deltaPorProduto = new HashMap<>();
+		Map<Integer, List<LancamentoEstoque>> lancamentos = new HashMap<>();
+		Map<Integer, List<ProdutoMovimentacao>> linhasPorProduto = new HashMap<>();
+		List<Integer> ids = new ArrayList<>(movimentacoes.size());
+		int pendentes = 0;
+		for (Movimentacao movimentacao : movimentacoes) {
+			if (movimentacao.getFornecedores() != null)
+				movimentacao.setFornecedores(movimentacao.getFornecedores().stream()
+						.map(f -> Optional.ofNullable(fornecedores.get(f.getId())).orElseThrow(
+								() -> new ObjectNotFoundException(FornecedorService.ONFE_BYID + f.getId())))
+						.collect(Collectors.toSet()));
+			if (movimentacao.getDataMovimentacao() == null)
+				movimentacao.setDataMovimentacao(LocalDateTime.now());
+			Utils.audita(movimentacao.getHistorico());
+			List<ProdutoMovimentacao> itens = new ArrayList<>(movimentacao.getProdutoMovimentacao());
+			entityManager.persist(movimentacao);
+			ids.add(movimentacao.getId());
+
+			int sinal = movimentacao.getTipoMovimentacao() == TipoMovimentacao.ENTRADA ? 1 : -1;
+			for (ProdutoMovimentacao pM : itens) {
+				pM.setMovimentacao(movimentacao);
+				pM.setProduto(produtos.get(idProduto(pM)));
+				entityManager.persist(pM);
+				int delta = sinal * valueOrZero(pM.getQuantidade());
+				deltaPorProduto.merge(pM.getProduto().getId(), delta, Integer::sum);
+				lancamentos.computeIfAbsent(pM.getProduto().getId(), id -> new ArrayList<>()).add(new LancamentoEstoque(
+						pM.getProduto().getId(), movimentacao.getId(), movimentacao.getDataMovimentacao(), delta));
+				linhasPorProduto.computeIfAbsent(pM.getProduto().getId(), id -> new ArrayList<>()).add(pM);
+				pendentes++;
+			}
+			// esvazia o contexto a cada lote para manter os inserts agrupados e a memoria constante
+			if (pendentes >= batchSize) {
+				entityManager.flush();
+				entityManager.clear();
+				pendentes = 0;
+			}
+		}
+		itemService.ajustaEstoque(deltaPorProduto);
+		new TreeMap<>(lancamentos).forEach(lancamentoService::registra);
+		atualizaCustoMedio(linhasPorProduto, deltaPorProduto);
+		entityManager.flush();
+		entityManager.clear();
+		return ids;
+	}
+
+	// so os produtos com entrada no lote; recarregados depois do ajuste de estoque, com a linha ja travada
+	private void atualizaCustoMedio(Map<Integer, List<ProdutoMovimentacao>> linhasPorProduto,
+			Map<Integer, Integer> deltaPorProduto) {
+		Set<Integer> comEntrada = linhasPorProduto.entrySet().stream()
+				.filter(e -> e.getValue().stream().anyMatch(pM -> entrada(pM))).map(Map.Entry::getKey)
+				.collect(Collectors.toSet());
+		if (comEntrada.isEmpty())
+			return;
+		entityManager.flush();
+		entityManager.clear();
+		for (Produto produto : itemService.findAllProdutosById(comEntrada)) {
+			List<ProdutoMovimentacao> linhas = linhasPorProduto.get(produto.getId());
+			linhas.sort(Comparator.comparing(pM -> pM.getMovimentacao().getDataMovimentacao()));
+			produto.setValorCompraMedio(custoMedio(produto.getValorCompraMedio(),
+					produto.getEstoqueAtual() - deltaPorProduto.get(produto.getId()), linhas));
+		}
+	}
+
+	// refaz o custo medio ponderado pelas linhas de um produto, em ordem de data, a partir do saldo antes da primeira
+	private BigDecimal custoMedio(BigDecimal custoMedio, int saldo, List<ProdutoMovimentacao> linhas) {
+		for (ProdutoMovimentacao pM : linhas) {
+			int quantidade = valueOrZero(pM.getQuantidade());
+			if (entrada(pM)) {
+				custoMedio = UtilContabel.custoMedioComEntrada(custoMedio, saldo, pM.getValorVendaLiquido(), quantidade);
+				saldo += quantidade;
+			} else
+				saldo -= quantidade;
+		}
+		return custoMedio;
+	}
+
+	private boolean entrada(ProdutoMovimentacao pM) {
+		return pM.getMovimentacao().getTipoMovimentacao() == TipoMovimentacao.ENTRADA;
+	}
+
+	@Override
+	public int recalculaCustoMedio() {
+		TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+		int recalculados = 0;
+		Integer ultimo = 0;
+		// um lote de produtos por transacao, com o historico deles; a chave do proximo lote e o ultimo id
+		while (true) {
+			List<Integer> ids = pMovimentacaoRepository.findProdutosComMovimentacao(TipoMovimentacao.ENTRADA, ultimo,
+					PageRequest.of(0, batchSize));
+			if (ids.isEmpty())
+				return recalculados;
+			transacao.execute(status -> {
+				recalculaCustoMedio(ids);
+				return null;
+			});
+			recalculados += ids.size();
+			ultimo = ids.get(ids.size() - 1);
+		}
+	}
+
+	private void recalculaCustoMedio(List<Integer> ids) {
+		// trava os produtos antes de ler o historico para nao perder uma entrada concorrente
+		List<Produto> produtos = entityManager
+				.createQuery("SELECT p FROM Produto p WHERE p.id IN :ids ORDER BY p.id", Produto.class)
+				.setParameter("ids", ids).setLockMode(LockModeType.PESSIMISTIC_WRITE).getResultList();
+		Map<Integer, List<ProdutoMovimentacao>> historico = pMovimentacaoRepository.findHistoricoByProdutoIdIn(ids)
+				.stream().collect(Collectors.groupingBy(pM -> pM.getProduto().getId()));
+		for (Produto produto : produtos) {
+			List<ProdutoMovimentacao> linhas = historico.get(produto.getId());
+			int saldoInicial = valueOrZero(produto.getEstoqueAtual())
+					- linhas.stream().mapToInt(pM -> entrada(pM) ? valueOrZero(pM.getQuantidade())
+							: -valueOrZero(pM.getQuantidade())).sum();
+			// o custo das unidades anteriores ao historico e desconhecido: vale o da primeira entrada
+			produto.setValorCompraMedio(custoMedio(null, saldoInicial, linhas));
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	private Integer idProduto(ProdutoMovimentacao pM) {
+		if (pM.getProduto() == null || pM.getProduto().getId() == null)
+			throw new DataIntegrityException(DATAINTEGRITY_PRODUTOSEMID);
+		return pM.getProduto().getId();
+	}
+
+	private Integer idFornecedor(Fornecedor fornecedor) {
+		if (fornecedor == null || fornecedor.getId() == null)
+			throw new DataIntegrityException(DATAINTEGRITY_FORNECEDORSEMID);
+		return fornecedor.getId();
+	}
+
 	@Override
 	public Movimentacao findById(Integer id) {
 		if (!Optional.ofNullable(id).isPresent())
@@ -135,26 +351,131 @@ public class MovimentacaoServiceImpl implements MovimentacaoService {
 	@Transactional
 	@Override
 	public Page<MovimentacaoListDTO> findBy(TipoMovimentacao tipo, String documento, List<Integer> fornecedoresId,
-			List<Integer> produtosId, PageRequest page) {
-		ExampleMatcher matcher = Utils.getExampleMatcherForDinamicFilter(true);
+			List<Integer> produtosId, LocalDate de, LocalDate ate, PageRequest page) {
+		List<MovimentacaoListDTO> conteudo = lista(tipo, documento, fornecedoresId, produtosId, de, ate, page,
+				page.getPageSize());
+		return PageableExecutionUtils.getPage(conteudo, page, () -> conta(entityManager.getCriteriaBuilder(), tipo,
+				documento, fornecedoresId, produtosId, de, ate));
+	}
 
-		Movimentacao mov = new Movimentacao();
-		mov.setTipoMovimentacao(tipo);
-		mov.setDocumento(documento);
-		List<Movimentacao> movs = new ArrayList<>(movimentacaoRepository.findAll(Example.of(mov, matcher), page).getContent());
+	@Transactional(readOnly = true)
+	@Override
+	public Slice<MovimentacaoListDTO> findBy(TipoMovimentacao tipo, String documento, List<Integer> fornecedoresId,
+			List<Integer> produtosId, LocalDate de, LocalDate ate, PageRequest page, Contagem contagem) {
+		if (contagem == Contagem.EXATA)
+			return findBy(tipo, documento, fornecedoresId, produtosId, de, ate, page);
+		// uma linha a mais no lugar do COUNT diz se ha proxima pagina
+		List<MovimentacaoListDTO> linhas = lista(tipo, documento, fornecedoresId, produtosId, de, ate, page,
+				page.getPageSize() + 1);
+		boolean haProxima = linhas.size() > page.getPageSize();
+		Slice<MovimentacaoListDTO> fatia = new SliceImpl<>(
+				haProxima ? linhas.subList(0, page.getPageSize()) : linhas, page, haProxima);
+		if (contagem == Contagem.NENHUMA)
+			return fatia;
+		return cacheContagem.pagina(fatia, "movimentacoes", () -> conta(entityManager.getCriteriaBuilder(), tipo,
+				documento, fornecedoresId, produtosId, de, ate), tipo, documento, fornecedoresId, produtosId, de, ate);
+	}
+
+	private List<MovimentacaoListDTO> lista(TipoMovimentacao tipo, String documento, List<Integer> fornecedoresId,
+			List<Integer> produtosId, LocalDate de, LocalDate ate, PageRequest page, int linhas) {
+		if (de != null && ate != null && de.isAfter(ate))
+			throw new DataIntegrityException(DATAINTEGRITY_PERIODO);
+		// criteria em vez de @Query: os filtros por fornecedor e produto entram so quando informados
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+		CriteriaQuery<MovimentacaoListDTO> query = cb.createQuery(MovimentacaoListDTO.class);
+		Root<Movimentacao> mov = query.from(Movimentacao.class);
+		query.select(cb.construct(MovimentacaoListDTO.class, mov.get("id"), mov.get("tipoMovimentacao"),
+				mov.get("dataMovimentacao"), mov.get("documento")))
+				.where(filtros(cb, query, mov, tipo, documento, fornecedoresId, produtosId, de, ate))
+				.orderBy(QueryUtils.toOrders(page.getSort(), mov, cb));
+		return entityManager.createQuery(query).setFirstResult((int) page.getOffset()).setMaxResults(linhas)
+				.getResultList();
+	}
 
+	@Transactional(readOnly = true)
+	@Override
+	public CursorPage<MovimentacaoListDTO> findBy(TipoMovimentacao tipo, String documento, List<Integer> fornecedoresId,
+			List<Integer> produtosId, LocalDate de, LocalDate ate, String after, String orderBy, Direction direcao,
+			int tamanho, boolean contar) {
+		if (de != null && ate != null && de.isAfter(ate))
+			throw new DataIntegrityException(DATAINTEGRITY_PERIODO);
+		Cursor.confereTamanho(tamanho);
+		Function<MovimentacaoListDTO, Object> chave = CHAVES_CURSOR.get(orderBy);
+		if (chave == null)
+			throw new DataIntegrityException(Cursor.DATAINTEGRITY_ORDEMNAOSUPORTADA + orderBy);
+		Cursor cursor = Utils.nullSeVazio(after) == null ? null : Cursor.decodifica(after);
+		if (cursor != null)
+			cursor.confere(orderBy, direcao);
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+		CriteriaQuery<MovimentacaoListDTO> query = cb.createQuery(MovimentacaoListDTO.class);
+		Root<Movimentacao> mov = query.from(Movimentacao.class);
+		List<Predicate> filtros = new ArrayList<>(
+				Arrays.asList(filtros(cb, query, mov, tipo, documento, fornecedoresId, produtosId, de, ate)));
+		if (cursor != null)
+			filtros.add(depoisDe(cb, mov, cursor));
+		Sort ordem = "id".equals(orderBy) ? Sort.by(direcao, "id") : Sort.by(direcao, orderBy, "id");
+		query.select(cb.construct(MovimentacaoListDTO.class, mov.get("id"), mov.get("tipoMovimentacao"),
+				mov.get("dataMovimentacao"), mov.get("documento")))
+				.where(filtros.toArray(new Predicate[0]))
+				.orderBy(QueryUtils.toOrders(ordem, mov, cb));
+		List<MovimentacaoListDTO> linhas = entityManager.createQuery(query).setMaxResults(tamanho + 1)
+				.getResultList();
+
+		Long total = contar ? conta(cb, tipo, documento, fornecedoresId, produtosId, de, ate) : null;
+		return CursorPage.de(linhas, tamanho, m -> new Cursor(orderBy, direcao, m.getId(), chave.apply(m)), total);
+	}
+
+	// registros depois do cursor na ordem (chave, id)
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Predicate depoisDe(CriteriaBuilder cb, Root<Movimentacao> mov, Cursor cursor) {
+		boolean asc = cursor.getDirecao() == Direction.ASC;
+		Path<Integer> id = mov.get("id");
+		Predicate depoisDoId = asc ? cb.greaterThan(id, cursor.getId()) : cb.lessThan(id, cursor.getId());
+		if ("id".equals(cursor.getCampo()))
+			return depoisDoId;
+		Path<Comparable> chave = mov.get(cursor.getCampo());
+		Comparable valor = cursor.valor(chave.getJavaType());
+		return cb.or(asc ? cb.greaterThan(chave, valor) : cb.lessThan(chave, valor),
+				cb.and(cb.equal(chave, valor), depoisDoId));
+	}
+
+	private Long conta(CriteriaBuilder cb, TipoMovimentacao tipo, String documento, List<Integer> fornecedoresId,
+			List<Integer> produtosId, LocalDate de, LocalDate ate) {
+		CriteriaQuery<Long> contagem = cb.createQuery(Long.class);
+		Root<Movimentacao> mov = contagem.from(Movimentacao.class);
+		contagem.select(cb.count(mov))
+				.where(filtros(cb, contagem, mov, tipo, documento, fornecedoresId, produtosId, de, ate));
+		return entityManager.createQuery(contagem).getSingleResult();
+	}
+
+	private Predicate[] filtros(CriteriaBuilder cb, CriteriaQuery<?> query, Root<Movimentacao> mov,
+			TipoMovimentacao tipo, String documento, List<Integer> fornecedoresId, List<Integer> produtosId,
+			LocalDate de, LocalDate ate) {
+		List<Predicate> filtros = new ArrayList<>();
+		if (tipo != null)
+			filtros.add(cb.equal(mov.get("tipoMovimentacao"), tipo));
+		// periodo inclusivo nas datas, comparado como intervalo para usar o indice de dataMovimentacao
+		if (de != null)
+			filtros.add(cb.greaterThanOrEqualTo(mov.get("dataMovimentacao"), de.atStartOfDay()));
+		if (ate != null)
+			filtros.add(cb.lessThan(mov.get("dataMovimentacao"), ate.plusDays(1).atStartOfDay()));
+		if (Utils.nullSeVazio(documento) != null)
+			filtros.add(cb.like(cb.lower(mov.<String>get("documento")), "%" + documento.toLowerCase() + "%"));
 		if (!nullOrEmpty(fornecedoresId)) {
-			List<Fornecedor> fornecedores = fornecedoresId.stream().map(f -> Fornecedor.ofId(f)).collect(Collectors.toList());
-			retainOrAddIfNull(movs, movimentacaoRepository.findDistinctByFornecedoresIn(fornecedores));
+			Subquery<Integer> sub = query.subquery(Integer.class);
+			Join<Movimentacao, Fornecedor> fornecedor = sub.correlate(mov).join("fornecedores");
+			filtros.add(cb.exists(sub.select(fornecedor.<Integer>get("id")).where(fornecedor.get("id").in(fornecedoresId))));
 		}
 		if (!nullOrEmpty(produtosId)) {
-			List<Produto> produtos = produtosId.stream().map(p -> Produto.ofId(p)).collect(Collectors.toList());
-			retainOrAddIfNull(movs, movimentacaoRepository.findDistinctByProdutosIn(produtos));
+			Subquery<Integer> sub = query.subquery(Integer.class);
+			Root<ProdutoMovimentacao> pM = sub.from(ProdutoMovimentacao.class);
+			Path<Integer> produto = pM.get("id").get("produto").get("id");
+			filtros.add(cb.exists(sub.select(produto)
+					.where(cb.equal(pM.get("id").get("movimentacao"), mov), produto.in(produtosId))));
 		}
-
-		return new PageImpl<>(movs.stream().map(m -> new MovimentacaoListDTO(m)).collect(Collectors.toList()), page,
-				movs.size());
-
+		return filtros.toArray(new Predicate[0]);
 	}
 
 	private boolean nullOrEmpty(List<?> obj) {
@@ -162,20 +483,44 @@ public class MovimentacaoServiceImpl implements MovimentacaoService {
 
 	}
 
-	private void retainOrAddIfNull(List<Movimentacao> base, List<Movimentacao> toRetain) {
-		if (!nullOrEmpty(base))
-			base.retainAll(toRetain);
-		else if (!Optional.ofNullable(base).isPresent()) {
-			base = new ArrayList<>();
-			base.addAll(toRetain);
-		} else
-			base.addAll(toRetain);
-	}
-
+	@Transactional
 	@Override
 	public void deleteById(Integer id) {
-		findById(id);
-		movimentacaoRepository.deleteById(id);
-		
+		Movimentacao movimentacao = findById(id);
+		Set<Integer> refazerCusto = desfaz(movimentacao);
+		movimentacaoRepository.delete(movimentacao);
+		if (!refazerCusto.isEmpty())
+			recalculaCustoMedio(new ArrayList<>(refazerCusto));
+	}
+
+	// desfaz estoque e custo medio das linhas gravadas e as apaga; o livro recebe o lancamento contrario na data
+	// original. Devolve os produtos cujo custo medio tem de ser refeito pelo historico
+	private Set<Integer> desfaz(Movimentacao movimentacao) {
+		boolean entrada = movimentacao.getTipoMovimentacao() == TipoMovimentacao.ENTRADA;
+		List<ProdutoMovimentacao> itens = movimentacao.getProdutoMovimentacao().stream()
+				.sorted(Comparator.comparing(pM -> pM.getProduto().getId())).collect(Collectors.toList());
+		Set<Integer> refazerCusto = new HashSet<>();
+		for (ProdutoMovimentacao pM : itens) {
+			int quantidade = valueOrZero(pM.getQuantidade());
+			int delta = entrada ? -quantidade : quantidade;
+			Produto produto = itemService.ajustaEstoque(pM.getProduto(), delta);
+			if (entrada && entradaPosterior(produto.getId(), movimentacao))
+				refazerCusto.add(produto.getId());
+			else if (entrada)
+				produto.setValorCompraMedio(UtilContabel.custoMedioSemEntrada(produto.getValorCompraMedio(),
+						produto.getEstoqueAtual(), pM.getValorVendaLiquido(), quantidade));
+			lancamentoService.registra(produto.getId(), Collections.singletonList(new LancamentoEstoque(
+					produto.getId(), movimentacao.getId(), movimentacao.getDataMovimentacao(), delta)));
+		}
+		pMovimentacaoRepository.deleteAll(itens);
+		movimentacao.getProdutoMovimentacao().clear();
+		entityManager.flush();
+		return refazerCusto;
+	}
+
+	// outra entrada depois desta ja ponderou o custo dela: so o historico refeito sem ela da o custo certo
+	private boolean entradaPosterior(Integer produtoId, Movimentacao movimentacao) {
+		return !pMovimentacaoRepository.findMovimentacoesPosteriores(produtoId, TipoMovimentacao.ENTRADA,
+				movimentacao.getId(), movimentacao.getDataMovimentacao(), PageRequest.of(0, 1)).isEmpty();
 	}
 }
@@ -0,0 +1,62 @@
+package com.ebm.estoque.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.ebm.estoque.domain.enums.TipoMovimentacao;
+import com.ebm.estoque.dtos.ResumoItensDTO;
+import com.ebm.estoque.dtos.ResumoMovimentacaoDTO;
+import com.ebm.estoque.repository.ItemRepository;
+import com.ebm.estoque.repository.ProdutoMovimentacaoRepository;
+import com.ebm.estoque.service.interfaces.RelatorioEstoqueService;
+import com.ebm.geral.exceptions.DataIntegrityException;
+
+/**
+ * Somas de estoque e margem feitas pelo banco, uma consulta por relatorio, sem
+ * carregar itens ou movimentacoes para a memoria.
+ */
+@Service
+public class RelatorioEstoqueServiceImpl implements RelatorioEstoqueService {
+
+	@Autowired
+	private ItemRepository itemRepository;
+	@Autowired
+	private ProdutoMovimentacaoRepository pMovimentacaoRepository;
+
+	@Override
+	public List<ResumoItensDTO> resumoItens(String agrupamento) {
+		switch (agrupamento == null ? "" : agrupamento.toLowerCase()) {
+		case "categoria":
+			return itemRepository.resumoPorCategoria();
+		case "unidade":
+			return itemRepository.resumoPorUnidade();
+		default:
+			throw new DataIntegrityException(DATAINTEGRITY_AGRUPAMENTOITENS);
+		}
+	}
+
+	@Override
+	public List<ResumoMovimentacaoDTO> resumoMovimentacoes(String agrupamento, TipoMovimentacao tipo, LocalDate de,
+			LocalDate ate) {
+		if (de != null && ate != null && de.isAfter(ate))
+			throw new DataIntegrityException(DATAINTEGRITY_PERIODO);
+		LocalDateTime inicio = de == null ? null : de.atStartOfDay();
+		LocalDateTime fim = ate == null ? null : ate.plusDays(1).atStartOfDay();
+
+		switch (agrupamento == null ? "" : agrupamento.toLowerCase()) {
+		case "categoria":
+			return pMovimentacaoRepository.resumoPorCategoria(tipo, inicio, fim);
+		case "fornecedor":
+			return pMovimentacaoRepository.resumoPorFornecedor(tipo, inicio, fim);
+		case "mes":
+			return pMovimentacaoRepository.resumoPorMes(tipo, inicio, fim);
+		default:
+			throw new DataIntegrityException(DATAINTEGRITY_AGRUPAMENTOMOVIMENTACOES);
+		}
+	}
+
+}
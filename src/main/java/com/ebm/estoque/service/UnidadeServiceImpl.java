@@ -11,6 +11,8 @@ import com.ebm.estoque.service.interfaces.ItemService;
 import com.ebm.estoque.service.interfaces.UnidadeService;
 import com.ebm.geral.exceptions.DataIntegrityException;
 import com.ebm.geral.exceptions.ObjectNotFoundException;
+import com.ebm.geral.service.CacheReferencias;
+import com.ebm.geral.service.CacheReferencias.Tabela;
 import com.ebm.geral.utils.Utils;
 
 @Service
@@ -20,13 +22,22 @@ public class UnidadeServiceImpl implements UnidadeService{
 	private UnidadeRepository unidadeRepository;
 	@Autowired
 	private ItemService itens;
+	@Autowired
+	private CacheReferencias cacheReferencias;
 	
 	@Override
 	public Unidade save(Unidade unidade) {
 		garantaIntegridade(unidade);
 		saveAssociacoes(unidade);
 		Utils.audita(unidade.getHistorico());
-		return unidadeRepository.save(unidade);
+		// com id pode ser troca de abreviacao: a chave antiga e desconhecida
+		boolean nova = unidade.getId() == null;
+		Unidade salva = unidadeRepository.saveAndFlush(unidade);
+		if (nova)
+			cacheReferencias.invalida(Tabela.UNIDADE, CacheReferencias.minuscula(unidade.getAbrev()));
+		else
+			cacheReferencias.limpa(Tabela.UNIDADE);
+		return salva;
 	}
 	
 	private void saveAssociacoes(Unidade unidade) {
@@ -49,7 +60,8 @@ public class UnidadeServiceImpl implements UnidadeService{
 	
 
 	public Unidade findByAbrev(String abrev) {
-		return unidadeRepository.findByAbrevIgnoreCaseLike(abrev).orElseThrow( () -> new ObjectNotFoundException(ONFE_NOTFOUNDBYABREV));
+		return Optional.ofNullable(cacheReferencias.unidade(abrev, () -> unidadeRepository.findByAbrevIgnoreCaseLike(abrev)))
+				.orElseThrow( () -> new ObjectNotFoundException(ONFE_NOTFOUNDBYABREV));
 		
 	}
 
@@ -63,6 +75,7 @@ public class UnidadeServiceImpl implements UnidadeService{
 	@Override
 	public void deleteAll() {
 		unidadeRepository.deleteAll();
+		cacheReferencias.limpa(Tabela.UNIDADE);
 		
 	}
 
@@ -73,6 +86,7 @@ public class UnidadeServiceImpl implements UnidadeService{
 			throw new DataIntegrityException(DATAINTEGRITY_UNITHASITEM);
 		}
 		unidadeRepository.deleteById(id);
+		cacheReferencias.invalida(Tabela.UNIDADE, CacheReferencias.minuscula(un.getAbrev()));
 		
 	}
 
@@ -2,15 +2,23 @@ package com.ebm.estoque.service.interfaces;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.stereotype.Service;
 
 import com.ebm.estoque.domain.Item;
+import com.ebm.estoque.domain.Produto;
 import com.ebm.estoque.dtos.ItemListDTO;
+import com.ebm.geral.domain.Contagem;
+import com.ebm.geral.domain.CursorPage;
 import com.ebm.geral.exceptions.DataIntegrityException;
 import com.ebm.geral.exceptions.ObjectNotFoundException;
+import com.ebm.geral.utils.TotaisEstimados;
 
 @Service
 public interface ItemService {
@@ -19,6 +27,7 @@ public interface ItemService {
 	String DATAINTEGRITY_CATEGORIANULL = DataIntegrityException.DEFAULT + ": Item sem categoria.";
 	String ONFE_BYID = ObjectNotFoundException.DEFAULT + "um item com o id passado";
 	String DATAINTEGRITY_IDNULL =DataIntegrityException.DEFAULT + ": o id passado é nulo.";
+	String ONFE_PRODUTOBYID = ObjectNotFoundException.DEFAULT + "um produto com o id: ";
 
 
 
@@ -27,7 +36,16 @@ public interface ItemService {
 	Item findById(Integer id);
 	void deleteAll(boolean propaga);
 	void delete(Integer id);
+	Produto ajustaEstoque(Produto produto, int delta);
+	// um UPDATE por produto; instancias ja carregadas no contexto nao sao atualizadas
+	void ajustaEstoque(Map<Integer, Integer> deltaPorProduto);
+	List<Produto> findAllProdutosById(Set<Integer> ids);
 	Page<ItemListDTO> findBy(String codigoInterno, String tipo, String nome, String unidade, String Categoria, PageRequest page);
+	Slice<ItemListDTO> findBy(String codigoInterno, String tipo, String nome, String unidade, String categoria,
+			PageRequest page, Contagem contagem);
+	// por cursor: ordena por nome ou id e so conta quando pedido
+	CursorPage<ItemListDTO> findBy(String codigoInterno, String tipo, String nome, String unidade, String categoria,
+			String after, String orderBy, Direction direcao, int tamanho, boolean contar);
 	
 	List<Item> findBy(String codigoInterno, String tipo, String nome, String unidade, String Categoria);
 	
@@ -38,4 +56,5 @@ public interface ItemService {
 	Double calcularLucroLiquidoEstimado(Collection<Item> item, Double taxaComissao);
 	Double calcularCustoTotal(Collection<Item> item);
 	Double calcularPrecoVendaTotal(Collection<Item> item);
+	TotaisEstimados totalizaEstimativas(Collection<? extends Item> item);
 }
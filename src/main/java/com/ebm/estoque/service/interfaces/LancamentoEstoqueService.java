@@ -0,0 +1,22 @@
+package com.ebm.estoque.service.interfaces;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import com.ebm.estoque.domain.LancamentoEstoque;
+import com.ebm.geral.exceptions.DataIntegrityException;
+
+@Service
+public interface LancamentoEstoqueService {
+
+	String DATAINTEGRITY_IDNULL = DataIntegrityException.DEFAULT + ": o id do produto nao pode ser nulo";
+
+	// lancamentos de um mesmo produto; deve rodar depois do ajuste de estoqueAtual, na mesma transacao
+	void registra(Integer produtoId, List<LancamentoEstoque> lancamentos);
+
+	// sem lancamentos o saldo e o estoqueAtual do produto
+	int saldoEm(Integer produtoId, LocalDateTime em);
+
+}
@@ -1,14 +1,19 @@
 package com.ebm.estoque.service.interfaces;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.stereotype.Service;
 
 import com.ebm.estoque.domain.Movimentacao;
 import com.ebm.estoque.domain.enums.TipoMovimentacao;
 import com.ebm.estoque.dtos.MovimentacaoListDTO;
+import com.ebm.geral.domain.Contagem;
+import com.ebm.geral.domain.CursorPage;
 import com.ebm.geral.exceptions.DataIntegrityException;
 import com.ebm.geral.exceptions.ObjectNotFoundException;
 
@@ -20,11 +25,27 @@ public interface MovimentacaoService {
 	public static final String DATAINTEGRITY_SAIDAWITHFORNECEDOR =  DataIntegrityException.DEFAULT + ": Um movimentacao de saída nao deve possuir fornecedores";
 	public static final String DATAINTEGRITY_IDNULL = DataIntegrityException.DEFAULT + ": O id não pode ser nulo";
 	public static final String ONFE_NOTFOUNDBYID =ObjectNotFoundException.DEFAULT + " uma movimentacaçõ com o id: ";
+	public static final String DATAINTEGRITY_LOTEVAZIO = DataIntegrityException.DEFAULT + ": O lote não possui movimentações";
+	public static final String DATAINTEGRITY_PERIODO = DataIntegrityException.DEFAULT + ": a data inicial nao pode ser depois da final";
+	public static final String DATAINTEGRITY_PRODUTOSEMID = DataIntegrityException.DEFAULT + ": Todo produto da movimentação precisa de um id";
+	public static final String DATAINTEGRITY_FORNECEDORSEMID = DataIntegrityException.DEFAULT + ": Todo fornecedor da movimentação precisa de um id";
 	Movimentacao save(Movimentacao movimentacao);
 	List<Movimentacao> saveAll(List<Movimentacao> asList);
+	// ingestao em massa: limpa o contexto de persistencia a cada lote gravado
+	List<Integer> saveBatch(List<Movimentacao> movimentacoes);
 	Movimentacao findById(Integer id);
+	// de e ate inclusivos; nulos deixam o periodo aberto
 	Page<MovimentacaoListDTO> findBy(TipoMovimentacao tipo, String documento, List<Integer> fornecedores,
-			List<Integer> produtos, PageRequest page);
+			List<Integer> produtos, LocalDate de, LocalDate ate, PageRequest page);
+	Slice<MovimentacaoListDTO> findBy(TipoMovimentacao tipo, String documento, List<Integer> fornecedores,
+			List<Integer> produtos, LocalDate de, LocalDate ate, PageRequest page, Contagem contagem);
+	// por cursor: ordena por dataMovimentacao ou id e so conta quando pedido
+	CursorPage<MovimentacaoListDTO> findBy(TipoMovimentacao tipo, String documento, List<Integer> fornecedores,
+			List<Integer> produtos, LocalDate de, LocalDate ate, String after, String orderBy, Direction direcao,
+			int tamanho, boolean contar);
+	// desfaz o ajuste de estoque e de custo medio da movimentacao
 	void deleteById(Integer id);
+	// refaz o custo medio de todo produto com entrada a partir do historico; devolve quantos foram recalculados
+	int recalculaCustoMedio();
 
 }
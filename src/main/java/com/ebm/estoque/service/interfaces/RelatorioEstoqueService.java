@@ -0,0 +1,26 @@
+package com.ebm.estoque.service.interfaces;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import com.ebm.estoque.domain.enums.TipoMovimentacao;
+import com.ebm.estoque.dtos.ResumoItensDTO;
+import com.ebm.estoque.dtos.ResumoMovimentacaoDTO;
+import com.ebm.geral.exceptions.DataIntegrityException;
+
+@Service
+public interface RelatorioEstoqueService {
+
+	String DATAINTEGRITY_AGRUPAMENTOITENS = DataIntegrityException.DEFAULT + ": agrupamento invalido, use categoria ou unidade";
+	String DATAINTEGRITY_AGRUPAMENTOMOVIMENTACOES = DataIntegrityException.DEFAULT + ": agrupamento invalido, use categoria, fornecedor ou mes";
+	String DATAINTEGRITY_PERIODO = DataIntegrityException.DEFAULT + ": a data inicial nao pode ser depois da final";
+
+	List<ResumoItensDTO> resumoItens(String agrupamento);
+
+	// de e ate inclusivos; nulos deixam o periodo aberto
+	List<ResumoMovimentacaoDTO> resumoMovimentacoes(String agrupamento, TipoMovimentacao tipo, LocalDate de,
+			LocalDate ate);
+
+}
@@ -0,0 +1,42 @@
+package com.ebm.geral.config;
+
+import org.hibernate.BaseSessionEventListener;
+
+import com.ebm.geral.utils.ContadorConsultas;
+
+/**
+ * Ouvinte por sessao do Hibernate (hibernate.session.events.auto) que leva cada
+ * comando SQL e o tempo de execucao para as medicoes abertas na thread.
+ */
+public class ContadorSessao extends BaseSessionEventListener {
+
+	private static final long serialVersionUID = 1L;
+
+	private long inicio;
+
+	@Override
+	public void jdbcPrepareStatementStart() {
+		ContadorConsultas.comando();
+	}
+
+	@Override
+	public void jdbcExecuteStatementStart() {
+		inicio = System.nanoTime();
+	}
+
+	@Override
+	public void jdbcExecuteStatementEnd() {
+		ContadorConsultas.execucao(System.nanoTime() - inicio);
+	}
+
+	@Override
+	public void jdbcExecuteBatchStart() {
+		inicio = System.nanoTime();
+	}
+
+	@Override
+	public void jdbcExecuteBatchEnd() {
+		ContadorConsultas.execucao(System.nanoTime() - inicio);
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.ebm.geral.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Executor das requisicoes no Tomcat (web.execucao):
+ * <ul>
+ * <li>plataforma (padrao): pool do proprio Tomcat (server.tomcat.max-threads);</li>
+ * <li>virtual: uma virtual thread por requisicao, no JDK 21 ou maior; nos
+ * anteriores cai no limitado. JDBC e BCrypt bloqueiam a virtual thread, nao a
+ * thread do sistema;</li>
+ * <li>limitado: web.execucao.threads threads e fila de web.execucao.fila
+ * conexoes; com a fila cheia o Tomcat recusa a conexao em vez de deixa-la
+ * esperando sem prazo.</li>
+ * </ul>
+ * O mesmo executor atende o processamento assincrono do Spring MVC (Callable,
+ * DeferredResult). O limite real de acesso ao banco continua sendo o pool do
+ * Hikari (spring.datasource.hikari.maximum-pool-size).
+ */
+@Configuration
+@ConditionalOnExpression("'${web.execucao:plataforma}' != 'plataforma'")
+public class ExecucaoWebConfig {
+
+	public static final String VIRTUAL = "virtual";
+	public static final String LIMITADO = "limitado";
+
+	private static final Logger LOG = LoggerFactory.getLogger(ExecucaoWebConfig.class);
+
+	@Bean(destroyMethod = "shutdown")
+	public ExecutorService executorWeb(@Value("${web.execucao}") String modo,
+			@Value("${web.execucao.threads:200}") int threads, @Value("${web.execucao.fila:1000}") int fila) {
+		if (!VIRTUAL.equals(modo) && !LIMITADO.equals(modo))
+			throw new IllegalStateException("web.execucao deve ser plataforma, virtual ou limitado: " + modo);
+		if (VIRTUAL.equals(modo)) {
+			ExecutorService virtuais = virtuais();
+			if (virtuais != null) {
+				LOG.info("Requisicoes em virtual threads");
+				return virtuais;
+			}
+			LOG.warn("Virtual threads exigem JDK 21 ou maior (rodando no {}): usando o executor limitado",
+					System.getProperty("java.version"));
+		}
+		LOG.info("Requisicoes no executor limitado: {} threads, fila de {}", threads, fila);
+		ThreadPoolExecutor limitado = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(fila), new CustomizableThreadFactory("web-"));
+		limitado.allowCoreThreadTimeOut(true);
+		return limitado;
+	}
+
+	@Bean
+	public TomcatProtocolHandlerCustomizer<?> executorTomcat(ExecutorService executorWeb) {
+		return protocolo -> protocolo.setExecutor(executorWeb);
+	}
+
+	@Bean
+	public WebMvcConfigurer execucaoAssincrona(ExecutorService executorWeb) {
+		return new WebMvcConfigurer() {
+			@Override
+			public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+				configurer.setTaskExecutor(new TaskExecutorAdapter(executorWeb));
+			}
+		};
+	}
+
+	// o projeto compila para o Java 13: a fabrica das virtual threads so e procurada em tempo de execucao
+	static ExecutorService virtuais() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.ebm.geral.config;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.UrlPathHelper;
+
+import com.ebm.geral.service.Metricas;
+
+/**
+ * Mede toda requisicao, antes da cadeia do Spring Security: o /login e as
+ * recusas por falta de permissao tambem entram. A uri registrada e o padrao do
+ * mapeamento (/itens/{id}), nunca o caminho com ids, para manter poucas series.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MetricasFilter extends OncePerRequestFilter {
+
+	public static final String LOGIN = "/login";
+	// recusada antes de chegar a um controller (sem token, 404...)
+	public static final String SEM_MAPEAMENTO = "UNKNOWN";
+
+	private static final UrlPathHelper CAMINHO = new UrlPathHelper();
+
+	@Autowired
+	private Metricas metricas;
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		long inicio = System.nanoTime();
+		int status = 500;
+		try {
+			chain.doFilter(request, response);
+			status = response.getStatus();
+		} finally {
+			metricas.registraRequisicao(request.getMethod(), uri(request), status, System.nanoTime() - inicio);
+		}
+	}
+
+	private static String uri(HttpServletRequest request) {
+		Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		if (padrao != null)
+			return padrao.toString();
+		return LOGIN.equals(CAMINHO.getPathWithinApplication(request)) ? LOGIN : SEM_MAPEAMENTO;
+	}
+
+}
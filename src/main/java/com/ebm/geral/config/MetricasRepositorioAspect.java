@@ -0,0 +1,52 @@
+package com.ebm.geral.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.ebm.geral.service.Metricas;
+
+/**
+ * Tempo de cada chamada aos repositorios Spring Data, por interface e metodo.
+ * Os metodos herdados (findById, save...) entram com o nome do repositorio do
+ * modulo, nao com o de CrudRepository.
+ */
+@Aspect
+@Component
+public class MetricasRepositorioAspect {
+
+	private final Map<Class<?>, String> nomes = new ConcurrentHashMap<>();
+
+	@Autowired
+	private Metricas metricas;
+
+	@Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+	public Object mede(ProceedingJoinPoint chamada) throws Throwable {
+		long inicio = System.nanoTime();
+		boolean erro = true;
+		try {
+			Object resultado = chamada.proceed();
+			erro = false;
+			return resultado;
+		} finally {
+			metricas.registraRepositorio(nome(chamada.getTarget().getClass()), chamada.getSignature().getName(), erro,
+					System.nanoTime() - inicio);
+		}
+	}
+
+	// o alvo e o proxy do Spring Data: o repositorio e a interface da aplicacao que ele implementa
+	private String nome(Class<?> alvo) {
+		return nomes.computeIfAbsent(alvo, classe -> {
+			for (Class<?> interfaceDoAlvo : classe.getInterfaces())
+				if (interfaceDoAlvo.getName().startsWith("com.ebm."))
+					return interfaceDoAlvo.getSimpleName();
+			return classe.getSimpleName();
+		});
+	}
+
+}
@@ -0,0 +1,45 @@
+package com.ebm.geral.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+import com.ebm.geral.service.MonitorConsultas;
+import com.ebm.geral.utils.ContadorConsultas;
+import com.ebm.geral.utils.ContadorConsultas.Medicao;
+
+/**
+ * Uma medicao por chamada de servico ("ClienteService.findBy"). Chamadas feitas
+ * de dentro de outro servico so sao conferidas quando tem limite proprio: o
+ * excesso ja aparece na chamada de fora.
+ */
+@Aspect
+public class MonitorConsultasAspect {
+
+	private static final ThreadLocal<Integer> PROFUNDIDADE = ThreadLocal.withInitial(() -> 0);
+
+	private final MonitorConsultas monitor;
+
+	public MonitorConsultasAspect(MonitorConsultas monitor) {
+		this.monitor = monitor;
+	}
+
+	// PopulaBD fica de fora: os testes leem os campos publicos dele direto
+	@Around("@within(org.springframework.stereotype.Service) && within(com.ebm..service..*) && !within(com.ebm.geral..*)")
+	public Object mede(ProceedingJoinPoint chamada) throws Throwable {
+		String operacao = chamada.getSignature().getDeclaringType().getSimpleName() + "."
+				+ chamada.getSignature().getName();
+		int profundidade = PROFUNDIDADE.get();
+		Medicao medicao = ContadorConsultas.inicia(operacao);
+		PROFUNDIDADE.set(profundidade + 1);
+		try {
+			return chamada.proceed();
+		} finally {
+			PROFUNDIDADE.set(profundidade);
+			ContadorConsultas.encerra(medicao);
+			if (profundidade == 0 || monitor.temLimiteProprio(operacao))
+				monitor.confere(medicao);
+		}
+	}
+
+}
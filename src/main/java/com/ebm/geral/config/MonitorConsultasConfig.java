@@ -0,0 +1,79 @@
+package com.ebm.geral.config;
+
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import com.ebm.geral.service.Metricas;
+import com.ebm.geral.service.MonitorConsultas;
+import com.ebm.geral.utils.ContadorConsultas;
+
+/**
+ * Monitor de consultas do Hibernate, para testes e homologacao: conta comandos
+ * SQL, entidades carregadas e colecoes buscadas por requisicao e por chamada de
+ * servico e avisa quem passa do orcamento. Desligado por padrao; liga com
+ * consultas.monitor.habilitado=true. Limites:
+ * consultas.monitor.limite (padrao para todas as operacoes) e
+ * consultas.monitor.limites={'GET /itens/{id}':5,'ClienteService.findBy':3}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "consultas.monitor.habilitado", havingValue = "true")
+public class MonitorConsultasConfig {
+
+	@Bean
+	public HibernatePropertiesCustomizer contadorSessao() {
+		return propriedades -> propriedades.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER,
+				ContadorSessao.class.getName());
+	}
+
+	// carga de entidade e busca de colecao nao passam pelo ouvinte de sessao
+	@Bean
+	public SmartInitializingSingleton ouvintesDeCarga(EntityManagerFactory emf) {
+		return () -> {
+			EventListenerRegistry registro = emf.unwrap(SessionFactoryImpl.class).getServiceRegistry()
+					.getService(EventListenerRegistry.class);
+			registro.appendListeners(EventType.POST_LOAD, (PostLoadEventListener) evento -> ContadorConsultas.entidade());
+			// antes do ouvinte padrao, que inicializa a colecao
+			registro.prependListeners(EventType.INIT_COLLECTION, (InitializeCollectionEventListener) evento -> {
+				if (!evento.getCollection().wasInitialized())
+					ContadorConsultas.colecao();
+			});
+		};
+	}
+
+	@Bean
+	public MonitorConsultas monitorConsultas(@Value("${consultas.monitor.limite:50}") int limite,
+			@Value("#{${consultas.monitor.limites:{:}}}") Map<String, Integer> limites, Metricas metricas) {
+		return new MonitorConsultas(limite, limites, metricas);
+	}
+
+	// logo depois do MetricasFilter: o /login tambem e medido
+	@Bean
+	public FilterRegistrationBean<MonitorConsultasFilter> monitorConsultasFilter(MonitorConsultas monitor) {
+		FilterRegistrationBean<MonitorConsultasFilter> registro = new FilterRegistrationBean<>(
+				new MonitorConsultasFilter(monitor));
+		registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+		return registro;
+	}
+
+	@Bean
+	public MonitorConsultasAspect monitorConsultasAspect(MonitorConsultas monitor) {
+		return new MonitorConsultasAspect(monitor);
+	}
+
+}
@@ -0,0 +1,44 @@
+package com.ebm.geral.config;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.ebm.geral.service.MonitorConsultas;
+import com.ebm.geral.utils.ContadorConsultas;
+import com.ebm.geral.utils.ContadorConsultas.Medicao;
+
+/**
+ * Uma medicao por requisicao, conferida no orcamento pelo padrao do endpoint
+ * ("GET /itens/{id}"); sem controller (login, recusas) fica o caminho.
+ */
+public class MonitorConsultasFilter extends OncePerRequestFilter {
+
+	private final MonitorConsultas monitor;
+
+	public MonitorConsultasFilter(MonitorConsultas monitor) {
+		this.monitor = monitor;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		Medicao medicao = ContadorConsultas.inicia(request.getMethod() + " " + request.getRequestURI());
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			ContadorConsultas.encerra(medicao);
+		}
+		Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		if (padrao != null)
+			medicao.setOperacao(request.getMethod() + " " + padrao);
+		monitor.confere(medicao);
+	}
+
+}
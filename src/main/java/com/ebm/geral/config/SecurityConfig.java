@@ -13,7 +13,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -23,6 +22,7 @@ import com.ebm.security.JWTUtil;
 import com.ebm.security.filter.JWTAuthenticationFilter;
 import com.ebm.security.filter.JWTAuthorizationFilter;
 import com.ebm.security.filter.LocationFilter;
+import com.ebm.security.service.UsuarioService;
 @EnableWebSecurity
 @Configuration
 @EnableGlobalMethodSecurity(prePostEnabled= true)
@@ -31,7 +31,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 	@Autowired
 	private Environment env;
 	@Autowired
-	private UserDetailsService userDetailService;
+	private UsuarioService userDetailService;
 	@Autowired
 	private JWTUtil jwtUtil;
 	
@@ -40,7 +40,9 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 			"/h2/**"
 	};
 	private static final String[] PUBLIC_MATCHERS_GET = {
-			"/usuarios/authorities"
+			"/usuarios/authorities",
+			// o coletor usa o token proprio, conferido em MetricasResource
+			"/metricas"
 	};
 
 	@Override
@@ -0,0 +1,40 @@
+package com.ebm.geral.domain;
+
+import com.ebm.geral.exceptions.DataIntegrityException;
+
+import lombok.Getter;
+
+/**
+ * Como a listagem paginada obtem o total, escolhido pelo parametro count do
+ * GET /page dos recursos. Os servicos devolvem Slice em todos os casos:
+ * <ul>
+ * <li>EXATA (count=true, padrao): o Page do findBy, com COUNT a cada pedido;</li>
+ * <li>CACHE (count=cached): Page com o total do mesmo filtro guardado no
+ * {@link com.ebm.geral.service.CacheContagem} por alguns segundos;</li>
+ * <li>NENHUMA (count=false): Slice sem COUNT. A consulta busca uma linha a mais
+ * que a pagina so para saber se ha proxima.</li>
+ * </ul>
+ */
+@Getter
+public enum Contagem {
+	EXATA("true"), CACHE("cached"), NENHUMA("false");
+
+	public static final String DATAINTEGRITY_INVALIDA = DataIntegrityException.DEFAULT
+			+ ": count deve ser true, false ou cached; recebido: ";
+
+	private String param;
+
+	private Contagem(String param) {
+		this.param = param;
+	}
+
+	public static Contagem fromString(String param) {
+		if (param == null || param.isEmpty())
+			return EXATA;
+		for (Contagem contagem : values())
+			if (contagem.param.equalsIgnoreCase(param))
+				return contagem;
+		throw new DataIntegrityException(DATAINTEGRITY_INVALIDA + param);
+	}
+
+}
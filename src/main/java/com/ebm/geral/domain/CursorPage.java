@@ -0,0 +1,42 @@
+package com.ebm.geral.domain;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import com.ebm.geral.utils.Cursor;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Pagina da listagem por cursor, o GET /page com o parametro after dos
+ * recursos: after vazio abre a primeira pagina e next traz o cursor da
+ * seguinte, nulo na ultima. Nao ha numero de pagina; totalElements so vem com
+ * count=true.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private List<T> content;
+	private int size;
+	private String next;
+	private Long totalElements;
+
+	// linhas vem com um registro alem do tamanho: se ele existe, ha proxima pagina
+	public static <T> CursorPage<T> de(List<T> linhas, int tamanho, Function<T, Cursor> cursor, Long total) {
+		if (linhas.size() <= tamanho)
+			return new CursorPage<>(linhas, tamanho, null, total);
+		List<T> conteudo = new ArrayList<>(linhas.subList(0, tamanho));
+		return new CursorPage<>(conteudo, tamanho, cursor.apply(conteudo.get(tamanho - 1)).codifica(), total);
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.ebm.geral.resource;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ebm.geral.exceptions.AuthorizationException;
+import com.ebm.geral.service.Metricas;
+import com.ebm.geral.utils.Utils;
+import com.ebm.security.PermissaoE;
+
+@RestController
+@RequestMapping(value = "/metricas")
+public class MetricasResource {
+
+	public static final String TOKEN_HEADER = "X-Metricas-Token";
+	public static final String ACESSO_NEGADO = "Informe o token de coleta ou acesse com um usuario com permissao "
+			+ PermissaoE.USUARIO_GET.getNome();
+	// versao do formato texto do Prometheus
+	public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+	@Autowired
+	private Metricas metricas;
+	// o coletor nao tem usuario: sem token configurado so entra usuario autenticado
+	@Value("${metricas.token:}")
+	private String token;
+
+	@GetMapping
+	public ResponseEntity<String> coleta(@RequestHeader(value = TOKEN_HEADER, required = false) String tokenInformado) {
+		if (!autorizado(tokenInformado))
+			throw new AuthorizationException(ACESSO_NEGADO);
+		return ResponseEntity.ok().header("Content-Type", CONTENT_TYPE).body(metricas.texto());
+	}
+
+	private boolean autorizado(String tokenInformado) {
+		if (Utils.nullSeVazio(token) != null && tokenInformado != null && MessageDigest
+				.isEqual(token.getBytes(StandardCharsets.UTF_8), tokenInformado.getBytes(StandardCharsets.UTF_8)))
+			return true;
+		Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+		return auth != null && auth.getAuthorities().stream()
+				.anyMatch(a -> PermissaoE.USUARIO_GET.getNome().equals(a.getAuthority()));
+	}
+
+}
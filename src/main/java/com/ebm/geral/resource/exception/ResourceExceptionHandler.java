@@ -1,6 +1,8 @@
 package com.ebm.geral.resource.exception;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -35,6 +37,17 @@ public class ResourceExceptionHandler {
 	  
 	  return ResponseEntity.status( HttpStatus.UNPROCESSABLE_ENTITY).body(err);
 	}
+	// validacao de metodo (@Validated), como a dos lotes: o campo vem sem o nome do metodo, ex. movimentacoes[0].documento
+	@ExceptionHandler(ConstraintViolationException.class)
+	public ResponseEntity<ValidationError> validation(ConstraintViolationException e, HttpServletRequest request){
+	  ValidationError err = new ValidationError(System.currentTimeMillis(), HttpStatus.UNPROCESSABLE_ENTITY.value(),"Dados Invalidos", e.getMessage(), request.getRequestURI());
+	 for(ConstraintViolation<?> violation : e.getConstraintViolations()) {
+		 String campo = violation.getPropertyPath().toString();
+		 err.addError(campo.substring(campo.indexOf('.') + 1), violation.getMessage());
+	 }
+
+	  return ResponseEntity.status( HttpStatus.UNPROCESSABLE_ENTITY).body(err);
+	}
 	@ExceptionHandler(AuthorizationException.class)
 	public ResponseEntity<StandardError> auhtorizathion(AuthorizationException e, HttpServletRequest request){
 		 StandardError standardError = new StandardError(System.currentTimeMillis(), HttpStatus.FORBIDDEN.value(),"Acesso Negado", e.getMessage(), request.getRequestURI());
@@ -0,0 +1,48 @@
+package com.ebm.geral.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+import com.ebm.geral.utils.CacheLimitado;
+
+/**
+ * Total das listagens paginadas guardado por listagem e filtro, para o modo
+ * {@link com.ebm.geral.domain.Contagem#CACHE}: a pagina vem do Slice e o COUNT
+ * so vai ao banco quando a entrada do filtro expirou (listagem.contagem.ttl).
+ * O valor pode ficar defasado ate a validade da entrada: serve para montar a
+ * paginacao, nao para conferir saldo.
+ */
+@Component
+public class CacheContagem extends CacheLimitado<String, Long> {
+
+	// fora de qualquer texto digitado no filtro
+	private static final String SEPARADOR = "\u0000";
+
+	public CacheContagem(@Value("${listagem.contagem.ttl:30000}") long ttlMillis,
+			@Value("${listagem.contagem.tamanho:500}") int tamanho) {
+		super(ttlMillis, tamanho);
+	}
+
+	// a fatia ja veio sem COUNT; o total so vai ao banco quando a entrada expirou
+	public <T> Page<T> pagina(Slice<T> fatia, String listagem, Supplier<Long> contagem, Object... filtros) {
+		return PageableExecutionUtils.getPage(fatia.getContent(), fatia.getPageable(),
+				() -> get(chave(listagem, filtros), c -> contagem.get()));
+	}
+
+	static String chave(String listagem, Object... filtros) {
+		// colecoes entram ordenadas: o mesmo filtro em outra ordem cai na mesma entrada
+		return listagem + SEPARADOR + Arrays.stream(filtros)
+				.map(f -> String.valueOf(f instanceof Collection ? new TreeSet<>((Collection<?>) f) : f))
+				.collect(Collectors.joining(SEPARADOR));
+	}
+
+}
@@ -0,0 +1,145 @@
+package com.ebm.geral.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ebm.estoque.domain.CategoriaItem;
+import com.ebm.estoque.domain.Unidade;
+import com.ebm.geral.utils.CacheLimitado;
+import com.ebm.pessoal.domain.Cidade;
+import com.ebm.pessoal.domain.Estado;
+import com.ebm.pessoal.domain.HistoricoCadastral;
+
+/**
+ * Tabelas de referencia (estado, cidade, unidade e categoria) pela chave natural.
+ * O cache guarda uma copia desligada do contexto de persistencia e cada consulta
+ * recebe outra copia: quem altera o retorno nao altera o cache. Os saves e
+ * deletes dos servicos invalidam a chave na hora e de novo ao fim da transacao,
+ * para que uma linha lida dentro de uma transacao desfeita nao fique guardada.
+ */
+@Component
+public class CacheReferencias {
+
+	public enum Tabela {
+		ESTADO, CIDADE, UNIDADE, CATEGORIA
+	}
+
+	private final Map<Tabela, CacheLimitado<String, Object>> caches = new LinkedHashMap<>();
+
+	public CacheReferencias(@Value("${referencia.cache.ttl:600000}") long ttlMillis,
+			@Value("${referencia.cache.tamanho:2000}") int tamanho) {
+		for (Tabela tabela : Tabela.values())
+			caches.put(tabela, new CacheLimitado<>(ttlMillis, tamanho));
+	}
+
+	// uf exata, como em EstadoRepository.findOneByUf
+	public Estado estado(String uf, Supplier<Optional<Estado>> carrega) {
+		return copia(busca(Tabela.ESTADO, uf, carrega, CacheReferencias::copia));
+	}
+
+	public Cidade cidade(String nome, String uf, Supplier<Optional<Cidade>> carrega) {
+		return copia(busca(Tabela.CIDADE, chaveCidade(nome, uf), carrega, CacheReferencias::copia));
+	}
+
+	public Unidade unidade(String abrev, Supplier<Optional<Unidade>> carrega) {
+		return copia(busca(Tabela.UNIDADE, minuscula(abrev), carrega, CacheReferencias::copia));
+	}
+
+	public CategoriaItem categoria(String nome, Supplier<Optional<CategoriaItem>> carrega) {
+		return copia(busca(Tabela.CATEGORIA, minuscula(nome), carrega, CacheReferencias::copia));
+	}
+
+	public static String chaveCidade(String nome, String uf) {
+		return minuscula(nome) + "|" + minuscula(uf);
+	}
+
+	// unidade e categoria sao buscadas ignorando caixa
+	public static String minuscula(String texto) {
+		return texto == null ? null : texto.toLowerCase();
+	}
+
+	public void invalida(Tabela tabela, String chave) {
+		CacheLimitado<String, Object> cache = caches.get(tabela);
+		cache.invalida(chave);
+		aoFimDaTransacao(() -> cache.invalida(chave));
+	}
+
+	public void limpa(Tabela... tabelas) {
+		for (Tabela tabela : tabelas) {
+			CacheLimitado<String, Object> cache = caches.get(tabela);
+			cache.limpa();
+			aoFimDaTransacao(cache::limpa);
+		}
+	}
+
+	public Map<Tabela, CacheLimitado.Estatistica> estatisticas() {
+		Map<Tabela, CacheLimitado.Estatistica> estatisticas = new LinkedHashMap<>();
+		caches.forEach((tabela, cache) -> estatisticas.put(tabela, cache.estatistica()));
+		return estatisticas;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T busca(Tabela tabela, String chave, Supplier<Optional<T>> carrega, Function<T, T> copia) {
+		if (chave == null)
+			return carrega.get().orElse(null);
+		return (T) caches.get(tabela).get(chave, c -> carrega.get().map(copia).orElse(null));
+	}
+
+	private static void aoFimDaTransacao(Runnable acao) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive())
+			return;
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCompletion(int status) {
+				acao.run();
+			}
+		});
+	}
+
+	// copias
+	// --------------------------------------------------------------------------------------------------------
+	private static Estado copia(Estado estado) {
+		return estado == null ? null : new Estado(estado.getId(), estado.getUf(), estado.getNome());
+	}
+
+	// a consulta da cidade traz o estado junto: a copia nao depende de sessao aberta
+	private static Cidade copia(Cidade cidade) {
+		if (cidade == null)
+			return null;
+		Cidade copia = new Cidade(cidade.getId(), cidade.getNome(), copia(cidade.getEstado()));
+		copia.setHistorico(copia(cidade.getHistorico()));
+		return copia;
+	}
+
+	private static Unidade copia(Unidade unidade) {
+		if (unidade == null)
+			return null;
+		Unidade copia = new Unidade(unidade.getId(), unidade.getAbrev(), unidade.getNome());
+		copia.setHistorico(copia(unidade.getHistorico()));
+		return copia;
+	}
+
+	private static CategoriaItem copia(CategoriaItem categoria) {
+		if (categoria == null)
+			return null;
+		CategoriaItem copia = new CategoriaItem(categoria.getId(), categoria.getNome());
+		copia.setHistorico(copia(categoria.getHistorico()));
+		return copia;
+	}
+
+	private static HistoricoCadastral copia(HistoricoCadastral historico) {
+		if (historico == null)
+			return new HistoricoCadastral();
+		return new HistoricoCadastral(historico.getDataCadastro(), historico.getUsuarioCadastro(),
+				historico.getDataUltimaModificacao(), historico.getUltimaModificacao());
+	}
+
+}
@@ -0,0 +1,180 @@
+package com.ebm.geral.service;
+
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.ebm.geral.service.CacheReferencias.Tabela;
+import com.ebm.geral.utils.CacheLimitado;
+import com.ebm.geral.utils.Histograma;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * Metricas da aplicacao em memoria, expostas no formato texto do Prometheus por
+ * GET /metricas. Os nomes seguem os do Micrometer e do Hikari para que paineis
+ * prontos funcionem sem adaptacao. Duracoes de requisicao e de repositorio sao
+ * histogramas; pool de conexoes e caches sao lidos na hora da coleta.
+ */
+@Component
+public class Metricas {
+
+	public static final String REQUISICOES = "http_server_requests_seconds";
+	public static final String REPOSITORIOS = "repository_invocations_seconds";
+
+	// chave: rotulos ja formatados; a ordem do TreeMap na saida deixa as series estaveis
+	private final ConcurrentMap<String, Histograma> requisicoes = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, Histograma> repositorios = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, LongAdder> excessosConsultas = new ConcurrentHashMap<>();
+
+	@Autowired
+	private DataSource dataSource;
+	@Autowired
+	private CacheReferencias cacheReferencias;
+	@Autowired
+	private CacheContagem cacheContagem;
+
+	public void registraRequisicao(String metodo, String uri, int status, long nanos) {
+		String rotulos = rotulos("method", metodo, "uri", uri, "status", String.valueOf(status), "outcome",
+				resultado(status));
+		requisicoes.computeIfAbsent(rotulos, r -> new Histograma()).registra(nanos);
+	}
+
+	public void registraRepositorio(String repositorio, String metodo, boolean erro, long nanos) {
+		String rotulos = rotulos("repository", repositorio, "method", metodo, "state", erro ? "ERROR" : "SUCCESS");
+		repositorios.computeIfAbsent(rotulos, r -> new Histograma()).registra(nanos);
+	}
+
+	// so recebe valores com o monitor de consultas habilitado
+	public void registraExcessoConsultas(String operacao) {
+		excessosConsultas.computeIfAbsent(rotulos("operation", operacao), r -> new LongAdder()).increment();
+	}
+
+	public String texto() {
+		StringBuilder saida = new StringBuilder();
+		histogramas(saida, REQUISICOES, "Duracao das requisicoes HTTP por endpoint", requisicoes);
+		histogramas(saida, REPOSITORIOS, "Duracao das chamadas aos repositorios", repositorios);
+		if (!excessosConsultas.isEmpty()) {
+			cabecalho(saida, "hibernate_query_budget_exceeded_total", "Operacoes acima do orcamento de comandos SQL",
+					"counter");
+			new TreeMap<>(excessosConsultas).forEach(
+					(rotulos, total) -> linha(saida, "hibernate_query_budget_exceeded_total", rotulos, total.sum()));
+		}
+		pool(saida);
+		caches(saida);
+		return saida.toString();
+	}
+
+	private static String resultado(int status) {
+		if (status >= 500)
+			return "SERVER_ERROR";
+		if (status >= 400)
+			return "CLIENT_ERROR";
+		if (status >= 300)
+			return "REDIRECTION";
+		return "SUCCESS";
+	}
+
+	// exposicao
+	// --------------------------------------------------------------------------------------------------------
+	private static void histogramas(StringBuilder saida, String nome, String ajuda, Map<String, Histograma> series) {
+		cabecalho(saida, nome, ajuda, "histogram");
+		Map<String, Histograma> ordenadas = new TreeMap<>(series);
+		ordenadas.forEach((rotulos, h) -> {
+			long contagem = h.getContagem();
+			long[] acumulados = h.acumulados();
+			for (int i = 0; i < acumulados.length; i++)
+				linha(saida, nome + "_bucket", rotulos + ",le=\"" + Histograma.LIMITES[i] + "\"", acumulados[i]);
+			// os contadores sao lidos um a um: o +Inf nunca fica abaixo do ultimo balde
+			linha(saida, nome + "_bucket", rotulos + ",le=\"+Inf\"",
+					Math.max(contagem, acumulados[acumulados.length - 1]));
+			linha(saida, nome + "_count", rotulos, contagem);
+			linha(saida, nome + "_sum", rotulos, segundos(h.getSomaNanos()));
+		});
+		cabecalho(saida, nome + "_max", "Maior duracao desde a subida", "gauge");
+		ordenadas.forEach((rotulos, h) -> linha(saida, nome + "_max", rotulos, segundos(h.getMaximoNanos())));
+	}
+
+	private void pool(StringBuilder saida) {
+		HikariDataSource hikari;
+		try {
+			if (!dataSource.isWrapperFor(HikariDataSource.class))
+				return;
+			hikari = dataSource.unwrap(HikariDataSource.class);
+		} catch (SQLException e) {
+			return;
+		}
+		// o pool so existe depois da primeira conexao
+		HikariPoolMXBean mx = hikari.getHikariPoolMXBean();
+		if (mx == null)
+			return;
+		String rotulos = rotulos("pool", hikari.getPoolName());
+		gauge(saida, "hikaricp_connections_active", "Conexoes em uso", rotulos, mx.getActiveConnections());
+		gauge(saida, "hikaricp_connections_idle", "Conexoes livres", rotulos, mx.getIdleConnections());
+		gauge(saida, "hikaricp_connections", "Conexoes abertas", rotulos, mx.getTotalConnections());
+		gauge(saida, "hikaricp_connections_pending", "Threads esperando conexao", rotulos,
+				mx.getThreadsAwaitingConnection());
+		gauge(saida, "hikaricp_connections_max", "Tamanho maximo do pool", rotulos, hikari.getMaximumPoolSize());
+	}
+
+	private void caches(StringBuilder saida) {
+		Map<String, CacheLimitado.Estatistica> estatisticas = new TreeMap<>();
+		estatisticas.put("contagem", cacheContagem.estatistica());
+		for (Map.Entry<Tabela, CacheLimitado.Estatistica> e : cacheReferencias.estatisticas().entrySet())
+			estatisticas.put("referencia_" + e.getKey().name().toLowerCase(Locale.ROOT), e.getValue());
+
+		cabecalho(saida, "cache_gets_total", "Consultas aos caches em memoria", "counter");
+		estatisticas.forEach((cache, e) -> {
+			linha(saida, "cache_gets_total", rotulos("cache", cache, "result", "hit"), e.getAcertos());
+			linha(saida, "cache_gets_total", rotulos("cache", cache, "result", "miss"), e.getFaltas());
+		});
+		cabecalho(saida, "cache_size", "Entradas guardadas", "gauge");
+		estatisticas.forEach((cache, e) -> linha(saida, "cache_size", rotulos("cache", cache), e.getEntradas()));
+	}
+
+	private static void gauge(StringBuilder saida, String nome, String ajuda, String rotulos, Number valor) {
+		cabecalho(saida, nome, ajuda, "gauge");
+		linha(saida, nome, rotulos, valor);
+	}
+
+	private static void cabecalho(StringBuilder saida, String nome, String ajuda, String tipo) {
+		saida.append("# HELP ").append(nome).append(' ').append(ajuda).append('\n');
+		saida.append("# TYPE ").append(nome).append(' ').append(tipo).append('\n');
+	}
+
+	private static void linha(StringBuilder saida, String nome, String rotulos, Number valor) {
+		saida.append(nome).append('{').append(rotulos).append("} ").append(valor).append('\n');
+	}
+
+	private static double segundos(long nanos) {
+		return nanos / (double) TimeUnit.SECONDS.toNanos(1);
+	}
+
+	// pares nome, valor
+	static String rotulos(String... pares) {
+		StringBuilder rotulos = new StringBuilder();
+		for (int i = 0; i < pares.length; i += 2) {
+			if (i > 0)
+				rotulos.append(',');
+			rotulos.append(pares[i]).append("=\"").append(escapa(pares[i + 1])).append('"');
+		}
+		return rotulos.toString();
+	}
+
+	private static String escapa(String valor) {
+		if (valor == null)
+			return "";
+		return valor.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+}
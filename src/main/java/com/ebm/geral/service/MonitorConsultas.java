@@ -0,0 +1,45 @@
+package com.ebm.geral.service;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ebm.geral.utils.ContadorConsultas.Medicao;
+
+/**
+ * Orcamento de comandos SQL por operacao ("GET /itens/{id}", "ClienteService.findBy").
+ * Operacao acima do limite vai para o log e para a metrica
+ * hibernate_query_budget_exceeded_total. Criado por MonitorConsultasConfig.
+ */
+public class MonitorConsultas {
+
+	private static final Logger LOG = LoggerFactory.getLogger(MonitorConsultas.class);
+
+	private final int limite;
+	private final Map<String, Integer> limites;
+	private final Metricas metricas;
+
+	public MonitorConsultas(int limite, Map<String, Integer> limites, Metricas metricas) {
+		this.limite = limite;
+		this.limites = limites;
+		this.metricas = metricas;
+	}
+
+	public boolean temLimiteProprio(String operacao) {
+		return limites.containsKey(operacao);
+	}
+
+	public int limiteDe(String operacao) {
+		return limites.getOrDefault(operacao, limite);
+	}
+
+	public boolean confere(Medicao medicao) {
+		if (medicao.getComandos() <= limiteDe(medicao.getOperacao()))
+			return true;
+		LOG.warn("Orcamento de consultas excedido (limite {}) - {}", limiteDe(medicao.getOperacao()), medicao);
+		metricas.registraExcessoConsultas(medicao.getOperacao());
+		return false;
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.ebm.geral.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Cache em memoria limitado em tamanho (sai a chave usada ha mais tempo) e com
+ * validade por entrada. Valores nulos nao sao guardados.
+ */
+public class CacheLimitado<K, V> {
+
+	private final long ttl;
+	private final Map<K, Entrada<V>> entradas;
+	// incrementa a cada invalidacao: carga iniciada antes dela nao volta para o cache
+	private long geracao;
+	private long acertos;
+	private long faltas;
+
+	public CacheLimitado(long ttlMillis, int tamanho) {
+		this.ttl = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+		this.entradas = new LinkedHashMap<K, Entrada<V>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> maisAntiga) {
+				return size() > tamanho;
+			}
+		};
+	}
+
+	public V get(K chave, Function<K, V> carrega) {
+		long agora = System.nanoTime();
+		long geracaoDaCarga;
+		synchronized (this) {
+			Entrada<V> entrada = entradas.get(chave);
+			if (entrada != null && agora - entrada.criacao < ttl) {
+				acertos++;
+				return entrada.valor;
+			}
+			faltas++;
+			geracaoDaCarga = geracao;
+		}
+		// a carga fica fora do lock para nao serializar quem consulta
+		V valor = carrega.apply(chave);
+		synchronized (this) {
+			if (valor != null && geracaoDaCarga == geracao)
+				entradas.put(chave, new Entrada<>(valor, agora));
+		}
+		return valor;
+	}
+
+	public synchronized void invalida(K chave) {
+		geracao++;
+		entradas.remove(chave);
+	}
+
+	public synchronized void limpa() {
+		geracao++;
+		entradas.clear();
+	}
+
+	public synchronized Estatistica estatistica() {
+		return new Estatistica(acertos, faltas, entradas.size());
+	}
+
+	// contadores desde a subida da aplicacao; entradas inclui as ja vencidas ainda nao consultadas
+	@Getter
+	@AllArgsConstructor
+	public static class Estatistica {
+		private final long acertos;
+		private final long faltas;
+		private final int entradas;
+	}
+
+	private static class Entrada<V> {
+		private final V valor;
+		private final long criacao;
+
+		private Entrada(V valor, long criacao) {
+			this.valor = valor;
+			this.criacao = criacao;
+		}
+	}
+
+}
@@ -1,63 +1,132 @@
 package com.ebm.geral.utils;
 
 import java.math.BigDecimal;
-import java.util.Optional;
+import java.util.Objects;
 
 import com.ebm.estoque.domain.interfaces.ItemVendaInfo;
 
 public class CalculosItemVenda {
 
 	private ItemVendaInfo item;
+	// todos os valores da linha saem de uma vez; so sao refeitos se alguma entrada mudar
+	private Valores valores;
 
 	public CalculosItemVenda(ItemVendaInfo itemVenda) {
 		this.item = itemVenda;
 	}
 
 	public BigDecimal getComissaoUnitaria() {
-		return Optional.of(this.getValorVendaLiquido().multiply(BigDecimal.valueOf(item.getComissaoTx())))
-				.orElse(BigDecimal.valueOf(0d));
+		return valores().comissaoUnitaria;
 	}
 
 	public BigDecimal getComissaoTotal() {
-		return this.getComissaoUnitaria().multiply(BigDecimal.valueOf(item.getQuantidade()));
+		return valores().comissaoTotal;
 	}
 
 	public BigDecimal getLucroBrutoUnitario() {
-		return this.valueOrZero(this.getValorVendaLiquido()).subtract(valueOrZero(item.getCusto()));
+		return valores().lucroBrutoUnitario;
 	}
 
 	public BigDecimal getLucroBrutoTotal() {
-		return this.valueOrZero(this.getLucroBrutoUnitario()).multiply(BigDecimal.valueOf(item.getQuantidade()));
+		return valores().lucroBrutoTotal;
 	}
 
 	public BigDecimal getLucroLiquidoUnitario() {
-		return this.getLucroBrutoUnitario()
-				.subtract(BigDecimal.valueOf(item.getComissaoTx()).multiply(this.getValorVendaLiquido()));
+		return valores().lucroLiquidoUnitario;
 	}
 
 	public BigDecimal getLucroLiquidoTotal() {
-		return this.getLucroLiquidoUnitario().multiply(BigDecimal.valueOf(item.getQuantidade()));
+		return valores().lucroLiquidoTotal;
 	}
 
 	public BigDecimal getValorVendaLiquido() {
-		return this.valueOrZero(item.getValorVendaBruto()).subtract(valueOrZero(item.getDesconto()));
+		return valores().valorVendaLiquido;
 	}
 
 	public BigDecimal getValorVendaLiquidoTotal() {
-		return getValorVendaLiquido().multiply(BigDecimal.valueOf(item.getQuantidade()));
+		return valores().valorVendaLiquidoTotal;
 	}
 
 	public BigDecimal getValorTotalDesconto() {
-		return this.valueOrZero(item.getDesconto()).multiply(BigDecimal.valueOf(item.getQuantidade()));
+		return valores().valorTotalDesconto;
 	}
 
 	public BigDecimal getValorTotalBruto() {
-		return valueOrZero(item.getValorVendaBruto()).multiply(BigDecimal.valueOf(item.getQuantidade()));
+		return valores().valorTotalBruto;
 	}
 
-	private  BigDecimal valueOrZero(BigDecimal value) {
-		return Optional.ofNullable(value).orElse(BigDecimal.valueOf(0));
+	public BigDecimal getCustoTotal() {
+		return valores().custoTotal;
+	}
+
+	private Valores valores() {
+		BigDecimal bruto = item.getValorVendaBruto();
+		BigDecimal desconto = item.getDesconto();
+		Integer quantidade = item.getQuantidade();
+		Double comissaoTx = item.getComissaoTx();
+		BigDecimal custo = item.getCusto();
+
+		Valores atual = valores;
+		if (atual == null || !atual.mesmasEntradas(bruto, desconto, quantidade, comissaoTx, custo)) {
+			atual = new Valores(bruto, desconto, quantidade, comissaoTx, custo);
+			valores = atual;
+		}
+		return atual;
+	}
+
+	// unitarios e totais arredondados em centavos; os totais partem do unitario exato
+	private static class Valores {
+		private final BigDecimal bruto;
+		private final BigDecimal desconto;
+		private final Integer quantidade;
+		private final Double comissaoTx;
+		private final BigDecimal custo;
+
+		private final BigDecimal valorVendaLiquido;
+		private final BigDecimal valorVendaLiquidoTotal;
+		private final BigDecimal valorTotalBruto;
+		private final BigDecimal valorTotalDesconto;
+		private final BigDecimal comissaoUnitaria;
+		private final BigDecimal comissaoTotal;
+		private final BigDecimal lucroBrutoUnitario;
+		private final BigDecimal lucroBrutoTotal;
+		private final BigDecimal lucroLiquidoUnitario;
+		private final BigDecimal lucroLiquidoTotal;
+		private final BigDecimal custoTotal;
+
+		private Valores(BigDecimal bruto, BigDecimal desconto, Integer quantidade, Double comissaoTx,
+				BigDecimal custo) {
+			this.bruto = bruto;
+			this.desconto = desconto;
+			this.quantidade = quantidade;
+			this.comissaoTx = comissaoTx;
+			this.custo = custo;
+
+			BigDecimal qtd = BigDecimal.valueOf(UtilNumeric.valueOrZero(quantidade));
+			BigDecimal liquido = UtilNumeric.valueOrZero(bruto).subtract(UtilNumeric.valueOrZero(desconto));
+			BigDecimal comissao = liquido.multiply(Dinheiro.taxa(comissaoTx));
+			BigDecimal lucroBruto = liquido.subtract(UtilNumeric.valueOrZero(custo));
+			BigDecimal lucroLiquido = lucroBruto.subtract(comissao);
+
+			this.valorVendaLiquido = Dinheiro.arredonda(liquido);
+			this.valorVendaLiquidoTotal = Dinheiro.arredonda(liquido.multiply(qtd));
+			this.valorTotalBruto = Dinheiro.arredonda(UtilNumeric.valueOrZero(bruto).multiply(qtd));
+			this.valorTotalDesconto = Dinheiro.arredonda(UtilNumeric.valueOrZero(desconto).multiply(qtd));
+			this.comissaoUnitaria = Dinheiro.arredonda(comissao);
+			this.comissaoTotal = Dinheiro.arredonda(comissao.multiply(qtd));
+			this.lucroBrutoUnitario = Dinheiro.arredonda(lucroBruto);
+			this.lucroBrutoTotal = Dinheiro.arredonda(lucroBruto.multiply(qtd));
+			this.lucroLiquidoUnitario = Dinheiro.arredonda(lucroLiquido);
+			this.lucroLiquidoTotal = Dinheiro.arredonda(lucroLiquido.multiply(qtd));
+			this.custoTotal = Dinheiro.arredonda(UtilNumeric.valueOrZero(custo).multiply(qtd));
+		}
+
+		private boolean mesmasEntradas(BigDecimal bruto, BigDecimal desconto, Integer quantidade, Double comissaoTx,
+				BigDecimal custo) {
+			return Objects.equals(this.bruto, bruto) && Objects.equals(this.desconto, desconto)
+					&& Objects.equals(this.quantidade, quantidade) && Objects.equals(this.comissaoTx, comissaoTx)
+					&& Objects.equals(this.custo, custo);
+		}
 	}
-	
 
 }
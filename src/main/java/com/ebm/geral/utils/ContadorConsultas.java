@@ -0,0 +1,81 @@
+package com.ebm.geral.utils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Contagem do trabalho do Hibernate na thread atual: comandos SQL, tempo de
+ * execucao, entidades carregadas e colecoes buscadas. Medicoes abertas umas
+ * dentro das outras (requisicao, servico, teste) recebem o mesmo comando. So
+ * conta quando o monitor de consultas esta habilitado
+ * (consultas.monitor.habilitado=true).
+ */
+public final class ContadorConsultas {
+
+	private static final ThreadLocal<Deque<Medicao>> ABERTAS = ThreadLocal.withInitial(ArrayDeque::new);
+
+	private ContadorConsultas() {
+	}
+
+	public static Medicao inicia(String operacao) {
+		Medicao medicao = new Medicao(operacao);
+		ABERTAS.get().push(medicao);
+		return medicao;
+	}
+
+	// fecha a medicao e as que ficaram abertas dentro dela
+	public static Medicao encerra(Medicao medicao) {
+		Deque<Medicao> abertas = ABERTAS.get();
+		if (abertas.contains(medicao))
+			while (abertas.pop() != medicao)
+				;
+		if (abertas.isEmpty())
+			ABERTAS.remove();
+		return medicao;
+	}
+
+	public static void comando() {
+		for (Medicao m : ABERTAS.get())
+			m.comandos++;
+	}
+
+	public static void execucao(long nanos) {
+		for (Medicao m : ABERTAS.get())
+			m.tempoNanos += nanos;
+	}
+
+	public static void entidade() {
+		for (Medicao m : ABERTAS.get())
+			m.entidades++;
+	}
+
+	public static void colecao() {
+		for (Medicao m : ABERTAS.get())
+			m.colecoes++;
+	}
+
+	@Getter
+	public static class Medicao {
+		// a requisicao so conhece o padrao do endpoint depois de atendida
+		@Setter
+		private String operacao;
+		private int comandos;
+		private long tempoNanos;
+		private int entidades;
+		private int colecoes;
+
+		private Medicao(String operacao) {
+			this.operacao = operacao;
+		}
+
+		@Override
+		public String toString() {
+			return operacao + ": " + comandos + " comandos SQL em " + tempoNanos / 1_000_000 + " ms, " + entidades
+					+ " entidades carregadas, " + colecoes + " colecoes buscadas";
+		}
+	}
+
+}
@@ -0,0 +1,95 @@
+package com.ebm.geral.utils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.springframework.data.domain.Sort.Direction;
+
+import com.ebm.geral.exceptions.DataIntegrityException;
+
+import lombok.Getter;
+
+/**
+ * Posicao de uma listagem por chave (keyset): a ordenacao usada e o valor da
+ * chave e o id do ultimo registro entregue. Vai ao cliente como texto opaco.
+ */
+@Getter
+public class Cursor {
+
+	public static final String DATAINTEGRITY_INVALIDO = DataIntegrityException.DEFAULT + ": Cursor invalido";
+	public static final String DATAINTEGRITY_OUTRAORDEM = DataIntegrityException.DEFAULT
+			+ ": O cursor foi gerado para outra ordenacao";
+	public static final String DATAINTEGRITY_ORDEMNAOSUPORTADA = DataIntegrityException.DEFAULT
+			+ ": Ordenacao nao suportada na listagem por cursor: ";
+	public static final String DATAINTEGRITY_TAMANHO = DataIntegrityException.DEFAULT
+			+ ": A quantidade de linhas por pagina deve ser maior que zero";
+
+	private static final String SEPARADOR = "\n";
+
+	private final String campo;
+	private final Direction direcao;
+	private final Integer id;
+	private final String valor;
+
+	public Cursor(String campo, Direction direcao, Integer id, Object valor) {
+		this.campo = campo;
+		this.direcao = direcao;
+		this.id = id;
+		this.valor = valor == null ? null : valor.toString();
+	}
+
+	public String codifica() {
+		String texto = String.join(SEPARADOR, campo, direcao.name(), id.toString(), valor == null ? "" : valor);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static Cursor decodifica(String token) {
+		try {
+			String[] partes = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+					.split(SEPARADOR, 4);
+			if (partes.length != 4)
+				throw new DataIntegrityException(DATAINTEGRITY_INVALIDO);
+			return new Cursor(partes[0], Direction.valueOf(partes[1]), Integer.valueOf(partes[2]), partes[3]);
+		} catch (IllegalArgumentException e) {
+			throw new DataIntegrityException(DATAINTEGRITY_INVALIDO, e);
+		}
+	}
+
+	// o cursor so continua a mesma ordenacao que o gerou
+	public void confere(String campo, Direction direcao) {
+		if (!this.campo.equals(campo) || this.direcao != direcao)
+			throw new DataIntegrityException(DATAINTEGRITY_OUTRAORDEM);
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public Comparable<?> valor(Class<?> tipo) {
+		try {
+			if (tipo == String.class)
+				return valor;
+			if (tipo == Integer.class)
+				return Integer.valueOf(valor);
+			if (tipo == Long.class)
+				return Long.valueOf(valor);
+			if (tipo == BigDecimal.class)
+				return new BigDecimal(valor);
+			if (tipo == LocalDateTime.class)
+				return LocalDateTime.parse(valor);
+			if (tipo == LocalDate.class)
+				return LocalDate.parse(valor);
+			if (tipo.isEnum())
+				return Enum.valueOf((Class<Enum>) tipo, valor);
+		} catch (RuntimeException e) {
+			throw new DataIntegrityException(DATAINTEGRITY_INVALIDO, e);
+		}
+		throw new IllegalArgumentException("Tipo de chave sem conversao: " + tipo.getName());
+	}
+
+	public static void confereTamanho(int tamanho) {
+		if (tamanho < 1)
+			throw new DataIntegrityException(DATAINTEGRITY_TAMANHO);
+	}
+
+}
@@ -0,0 +1,39 @@
+package com.ebm.geral.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Regras de arredondamento para valores monetarios: cada valor de linha (item
+ * ou linha de movimentacao) e arredondado em centavos e os totais somam esses
+ * centavos, como em {@link TotaisVenda} e {@link TotaisEstimados}. A excecao
+ * sao os relatorios somados pelo banco (ResumoMovimentacaoDTO e
+ * ResumoItensDTO): o ROUND do banco nao e HALF_EVEN, entao as linhas sao
+ * somadas exatas e o total de cada grupo e arredondado uma vez aqui, em
+ * {@link #de(Number)}; podem diferir em centavos da soma em memoria.
+ */
+public final class Dinheiro {
+
+	public static final int ESCALA = 2;
+	public static final RoundingMode ARREDONDAMENTO = RoundingMode.HALF_EVEN;
+	public static final BigDecimal ZERO = BigDecimal.ZERO.setScale(ESCALA);
+
+	private Dinheiro() {
+	}
+
+	public static BigDecimal arredonda(BigDecimal valor) {
+		return valor.setScale(ESCALA, ARREDONDAMENTO);
+	}
+
+	// somas vindas do banco chegam como BigDecimal ou Double, conforme os tipos da expressao
+	public static BigDecimal de(Number valor) {
+		if (valor == null)
+			return ZERO;
+		return arredonda(valor instanceof BigDecimal ? (BigDecimal) valor : new BigDecimal(valor.toString()));
+	}
+
+	public static BigDecimal taxa(Double taxa) {
+		return taxa == null ? BigDecimal.ZERO : BigDecimal.valueOf(taxa);
+	}
+
+}
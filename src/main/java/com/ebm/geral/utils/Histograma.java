@@ -0,0 +1,67 @@
+package com.ebm.geral.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de duracoes com baldes fixos, sem lock: cada registro so soma em
+ * contadores. Os limites sao os mesmos para todas as series, de modo que as
+ * series podem ser somadas na consulta (histogram_quantile do Prometheus).
+ */
+public class Histograma {
+
+	// em segundos; acima do ultimo limite so entra no +Inf, que e a contagem
+	public static final double[] LIMITES = { 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10 };
+	private static final long[] LIMITES_NANOS = new long[LIMITES.length];
+
+	static {
+		for (int i = 0; i < LIMITES.length; i++)
+			LIMITES_NANOS[i] = (long) (LIMITES[i] * TimeUnit.SECONDS.toNanos(1));
+	}
+
+	private final LongAdder[] baldes = new LongAdder[LIMITES.length];
+	private final LongAdder contagem = new LongAdder();
+	private final LongAdder somaNanos = new LongAdder();
+	private final LongAccumulator maximoNanos = new LongAccumulator(Long::max, 0);
+
+	public Histograma() {
+		for (int i = 0; i < baldes.length; i++)
+			baldes[i] = new LongAdder();
+	}
+
+	public void registra(long nanos) {
+		int i = 0;
+		while (i < LIMITES_NANOS.length && nanos > LIMITES_NANOS[i])
+			i++;
+		if (i < baldes.length)
+			baldes[i].increment();
+		contagem.increment();
+		somaNanos.add(nanos);
+		maximoNanos.accumulate(nanos);
+	}
+
+	// acumulado por limite (le), como o formato do Prometheus pede
+	public long[] acumulados() {
+		long[] acumulados = new long[baldes.length];
+		long soma = 0;
+		for (int i = 0; i < baldes.length; i++) {
+			soma += baldes[i].sum();
+			acumulados[i] = soma;
+		}
+		return acumulados;
+	}
+
+	public long getContagem() {
+		return contagem.sum();
+	}
+
+	public long getSomaNanos() {
+		return somaNanos.sum();
+	}
+
+	public long getMaximoNanos() {
+		return maximoNanos.get();
+	}
+
+}
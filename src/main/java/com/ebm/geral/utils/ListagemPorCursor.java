@@ -0,0 +1,114 @@
+package com.ebm.geral.utils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+import org.springframework.data.domain.Sort.Direction;
+
+import com.ebm.geral.domain.CursorPage;
+import com.ebm.geral.exceptions.DataIntegrityException;
+
+/**
+ * Listagem por chave sobre as consultas JPQL dos repositorios: em vez de OFFSET,
+ * a pagina seguinte comeca depois do par (chave, id) do ultimo registro, o que
+ * mantem o custo constante em qualquer profundidade. So aceita chaves nao nulas.
+ */
+public class ListagemPorCursor<T> {
+
+	private final Class<T> tipo;
+	private final String consulta;
+	private final String contagem;
+	private final String id;
+	private final Function<T, Integer> idDe;
+	private final Map<String, Chave<T>> chaves = new HashMap<>();
+
+	/**
+	 * @param consulta SELECT da listagem ate os JOINs, sem WHERE
+	 * @param contagem SELECT COUNT com os mesmos JOINs usados pelo filtro
+	 * @param id       caminho JPQL do id da raiz, desempate da ordenacao
+	 */
+	public ListagemPorCursor(Class<T> tipo, String consulta, String contagem, String id, Function<T, Integer> idDe) {
+		this.tipo = tipo;
+		this.consulta = consulta;
+		this.contagem = contagem;
+		this.id = id;
+		this.idDe = idDe;
+		chaves.put("id", new Chave<>(id, Integer.class, idDe));
+	}
+
+	public ListagemPorCursor<T> chave(String campo, String caminho, Class<?> tipoChave, Function<T, ?> valor) {
+		chaves.put(campo, new Chave<>(caminho, tipoChave, valor));
+		return this;
+	}
+
+	/**
+	 * @param filtro     WHERE do repositorio, com parametros posicionais ?1..?n
+	 * @param parametros valores dos parametros do filtro, na ordem
+	 * @param after      cursor da pagina anterior; vazio comeca do inicio
+	 */
+	public CursorPage<T> busca(EntityManager em, String filtro, List<Object> parametros, String after,
+			String orderBy, Direction direcao, int tamanho, boolean contar) {
+		Cursor.confereTamanho(tamanho);
+		Chave<T> chave = chaves.get(orderBy);
+		if (chave == null)
+			throw new DataIntegrityException(Cursor.DATAINTEGRITY_ORDEMNAOSUPORTADA + orderBy);
+		String op = direcao == Direction.ASC ? " > " : " < ";
+		// o hibernate nao aceita lacunas nos parametros posicionais: ordenando por id so entra o do id
+		boolean soId = chave.caminho.equals(id);
+		int pChave = parametros.size() + 1;
+		int pId = soId ? pChave : pChave + 1;
+
+		StringBuilder jpql = new StringBuilder(consulta).append(filtro);
+		Cursor cursor = Utils.nullSeVazio(after) == null ? null : Cursor.decodifica(after);
+		if (cursor != null) {
+			cursor.confere(orderBy, direcao);
+			if (soId)
+				jpql.append(" AND ").append(id).append(op).append('?').append(pId);
+			else
+				jpql.append(" AND (").append(chave.caminho).append(op).append('?').append(pChave).append(" OR (")
+						.append(chave.caminho).append(" = ?").append(pChave).append(" AND ").append(id).append(op)
+						.append('?').append(pId).append("))");
+		}
+		jpql.append(" ORDER BY ").append(chave.caminho).append(' ').append(direcao.name());
+		if (!soId)
+			jpql.append(", ").append(id).append(' ').append(direcao.name());
+
+		TypedQuery<T> query = em.createQuery(jpql.toString(), tipo);
+		for (int i = 0; i < parametros.size(); i++)
+			query.setParameter(i + 1, parametros.get(i));
+		if (cursor != null) {
+			query.setParameter(pId, cursor.getId());
+			if (!soId)
+				query.setParameter(pChave, cursor.valor(chave.tipo));
+		}
+		List<T> linhas = query.setMaxResults(tamanho + 1).getResultList();
+
+		Long total = null;
+		if (contar) {
+			TypedQuery<Long> count = em.createQuery(contagem + filtro, Long.class);
+			for (int i = 0; i < parametros.size(); i++)
+				count.setParameter(i + 1, parametros.get(i));
+			total = count.getSingleResult();
+		}
+		return CursorPage.de(linhas, tamanho,
+				linha -> new Cursor(orderBy, direcao, idDe.apply(linha), chave.valor.apply(linha)), total);
+	}
+
+	private static class Chave<T> {
+		private final String caminho;
+		private final Class<?> tipo;
+		private final Function<T, ?> valor;
+
+		private Chave(String caminho, Class<?> tipo, Function<T, ?> valor) {
+			this.caminho = caminho;
+			this.tipo = tipo;
+			this.valor = valor;
+		}
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.ebm.geral.utils;
+
+import java.math.BigDecimal;
+import java.util.stream.Collector;
+
+import com.ebm.estoque.domain.Item;
+
+/**
+ * Custo, preco de venda, lucro e comissao estimados de um conjunto de itens
+ * de cadastro, somados numa unica passada (tambem em paralelo, pelo
+ * {@link #coletor()}). Cada item entra arredondado em centavos, como as linhas
+ * de {@link TotaisVenda} (ver {@link Dinheiro}).
+ */
+public class TotaisEstimados {
+
+	private BigDecimal custoTotal = Dinheiro.ZERO;
+	private BigDecimal precoVendaTotal = Dinheiro.ZERO;
+	private BigDecimal lucroBrutoEstimado = Dinheiro.ZERO;
+	private BigDecimal comissaoEstimada = Dinheiro.ZERO;
+
+	public static Collector<Item, TotaisEstimados, TotaisEstimados> coletor() {
+		return Collector.of(TotaisEstimados::new, TotaisEstimados::soma, TotaisEstimados::combina,
+				Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+	}
+
+	void soma(Item item) {
+		BigDecimal precoVenda = item.getPrecoVenda();
+		custoTotal = custoTotal.add(Dinheiro.arredonda(item.getCustoTotal()));
+		precoVendaTotal = precoVendaTotal.add(Dinheiro.arredonda(precoVenda));
+		lucroBrutoEstimado = lucroBrutoEstimado.add(Dinheiro.arredonda(item.getLucroEstimado()));
+		comissaoEstimada = comissaoEstimada
+				.add(Dinheiro.arredonda(precoVenda.multiply(Dinheiro.taxa(item.getComissaoVenda()))));
+	}
+
+	TotaisEstimados combina(TotaisEstimados outro) {
+		custoTotal = custoTotal.add(outro.custoTotal);
+		precoVendaTotal = precoVendaTotal.add(outro.precoVendaTotal);
+		lucroBrutoEstimado = lucroBrutoEstimado.add(outro.lucroBrutoEstimado);
+		comissaoEstimada = comissaoEstimada.add(outro.comissaoEstimada);
+		return this;
+	}
+
+	public BigDecimal getCustoTotal() {
+		return custoTotal;
+	}
+
+	public BigDecimal getPrecoVendaTotal() {
+		return precoVendaTotal;
+	}
+
+	public BigDecimal getLucroBrutoEstimado() {
+		return lucroBrutoEstimado;
+	}
+
+	public BigDecimal getComissaoEstimada() {
+		return comissaoEstimada;
+	}
+
+	// taxa unica sobre o preco de venda total, no lugar da comissao de cada item
+	public BigDecimal getComissaoEstimada(Double taxaComissao) {
+		return Dinheiro.arredonda(precoVendaTotal.multiply(Dinheiro.taxa(taxaComissao)));
+	}
+
+	public BigDecimal getLucroLiquidoEstimado() {
+		return lucroBrutoEstimado.subtract(comissaoEstimada);
+	}
+
+	public BigDecimal getLucroLiquidoEstimado(Double taxaComissao) {
+		return Dinheiro.arredonda(
+				lucroBrutoEstimado.subtract(precoVendaTotal.multiply(Dinheiro.taxa(taxaComissao))));
+	}
+
+}
@@ -0,0 +1,61 @@
+package com.ebm.geral.utils;
+
+import java.math.BigDecimal;
+import java.util.stream.Collector;
+
+import com.ebm.estoque.domain.interfaces.ItemVendaInfo;
+
+import lombok.Getter;
+
+/**
+ * Totais de um conjunto de itens vendidos, somados em centavos a partir dos
+ * valores de cada linha. Todas as metricas saem de uma unica passada; com
+ * {@link #coletor()} a soma tambem pode ser feita em paralelo.
+ */
+@Getter
+public class TotaisVenda {
+
+	private BigDecimal valorTotalBruto = Dinheiro.ZERO;
+	private BigDecimal valorTotalDesconto = Dinheiro.ZERO;
+	private BigDecimal valorVendaLiquidoTotal = Dinheiro.ZERO;
+	private BigDecimal custoTotal = Dinheiro.ZERO;
+	private BigDecimal comissaoTotal = Dinheiro.ZERO;
+	private BigDecimal lucroBrutoTotal = Dinheiro.ZERO;
+	private BigDecimal lucroLiquidoTotal = Dinheiro.ZERO;
+
+	public static Collector<ItemVendaInfo, TotaisVenda, TotaisVenda> coletor() {
+		return Collector.of(TotaisVenda::new, (totais, item) -> totais.soma(item.getCalculadora()),
+				TotaisVenda::combina, Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+	}
+
+	void soma(CalculosItemVenda linha) {
+		valorTotalBruto = valorTotalBruto.add(linha.getValorTotalBruto());
+		valorTotalDesconto = valorTotalDesconto.add(linha.getValorTotalDesconto());
+		valorVendaLiquidoTotal = valorVendaLiquidoTotal.add(linha.getValorVendaLiquidoTotal());
+		custoTotal = custoTotal.add(linha.getCustoTotal());
+		comissaoTotal = comissaoTotal.add(linha.getComissaoTotal());
+		lucroBrutoTotal = lucroBrutoTotal.add(linha.getLucroBrutoTotal());
+		lucroLiquidoTotal = lucroLiquidoTotal.add(linha.getLucroLiquidoTotal());
+	}
+
+	TotaisVenda combina(TotaisVenda outro) {
+		valorTotalBruto = valorTotalBruto.add(outro.valorTotalBruto);
+		valorTotalDesconto = valorTotalDesconto.add(outro.valorTotalDesconto);
+		valorVendaLiquidoTotal = valorVendaLiquidoTotal.add(outro.valorVendaLiquidoTotal);
+		custoTotal = custoTotal.add(outro.custoTotal);
+		comissaoTotal = comissaoTotal.add(outro.comissaoTotal);
+		lucroBrutoTotal = lucroBrutoTotal.add(outro.lucroBrutoTotal);
+		lucroLiquidoTotal = lucroLiquidoTotal.add(outro.lucroLiquidoTotal);
+		return this;
+	}
+
+	// comissao com taxa unica sobre o liquido, no lugar da taxa de cada produto
+	public BigDecimal getComissaoTotal(double taxaComissao) {
+		return Dinheiro.arredonda(valorVendaLiquidoTotal.multiply(BigDecimal.valueOf(taxaComissao)));
+	}
+
+	public BigDecimal getLucroLiquidoTotal(double taxaComissao) {
+		return lucroBrutoTotal.subtract(getComissaoTotal(taxaComissao));
+	}
+
+}
@@ -2,46 +2,75 @@ package com.ebm.geral.utils;
 
 import java.math.BigDecimal;
 import java.util.Collection;
-import java.util.Optional;
-
-import javax.persistence.Transient;
 
 import com.ebm.estoque.domain.Item;
 import com.ebm.estoque.domain.interfaces.ItemVendaInfo;
-import com.fasterxml.jackson.annotation.JsonIgnore;
 
 public class UtilContabel {
 
+	// uma passada pelos itens; os metodos abaixo so convertem o total exato para Double no fim
+	public static TotaisVenda totaliza(Collection<? extends ItemVendaInfo> item) {
+		return item.stream().collect(TotaisVenda.coletor());
+	}
+
+	public static TotaisEstimados totalizaEstimativas(Collection<? extends Item> item) {
+		return item.stream().collect(TotaisEstimados.coletor());
+	}
+
 	public static Double calculaComissaoTotal(Collection<ItemVendaInfo> item, double taxaComissaoA) {
-		BigDecimal taxaComissao = BigDecimal.valueOf(Optional.of(taxaComissaoA).orElse(0d));
-		return item.stream().mapToDouble(i -> i.getValorVendaLiquido().multiply(taxaComissao).multiply(BigDecimal.valueOf(i.getQuantidade())).doubleValue()).sum();
+		return totaliza(item).getComissaoTotal(taxaComissaoA).doubleValue();
 	}
 
 	public static Double calculaComissaoTotal(Collection<ItemVendaInfo> item) {
-		return item.stream().mapToDouble(i -> i.getCalculadora().getComissaoTotal().doubleValue()).sum();
+		return totaliza(item).getComissaoTotal().doubleValue();
 	}
 	 
 	public static Double calcularLucroBruto(Collection<ItemVendaInfo> item) {
-		return item.stream().mapToDouble( i -> i.getCalculadora().getLucroBrutoTotal().doubleValue()).sum();
+		return totaliza(item).getLucroBrutoTotal().doubleValue();
 	}
 
 	public static Double calcularLucroLiquido(Collection<ItemVendaInfo> item) {
-		 return item.stream().mapToDouble(i -> i.getCalculadora().getLucroLiquidoTotal().doubleValue()).sum();
+		 return totaliza(item).getLucroLiquidoTotal().doubleValue();
 	}
 	public static Double calcularLucroLiquido(Collection<ItemVendaInfo> item, double taxaComissaoA) {
-		 return UtilContabel.calcularLucroBruto(item) - UtilContabel.calculaComissaoTotal(item, taxaComissaoA);
+		 return totaliza(item).getLucroLiquidoTotal(taxaComissaoA).doubleValue();
 	}
 	 
 	public static Double calcularCustoTotal(Collection<ItemVendaInfo> item) {
-		return item.stream().mapToDouble(i-> i.getCusto().multiply(BigDecimal.valueOf(i.getQuantidade())).doubleValue()).sum();
+		return totaliza(item).getCustoTotal().doubleValue();
 	}
 	 
 	public static Double calcularPrecoValorVendaBrutoTotal(Collection<ItemVendaInfo> item) {
-		return item.stream().mapToDouble(i -> i.getCalculadora().getValorTotalBruto().doubleValue()).sum();
+		return totaliza(item).getValorTotalBruto().doubleValue();
 	}
 	 
 	public static Double calcularPrecoValorVendaLiquidoTotal(Collection<ItemVendaInfo> item) {
-		return item.stream().mapToDouble(i -> i.getCalculadora().getValorVendaLiquidoTotal().doubleValue()).sum();
+		return totaliza(item).getValorVendaLiquidoTotal().doubleValue();
 	}
-	
+
+	// custo medio ponderado depois de uma entrada; sem saldo (ou sem custo anterior) vale o custo da entrada
+	public static BigDecimal custoMedioComEntrada(BigDecimal custoMedio, int saldoAnterior, BigDecimal custoUnitario,
+			int quantidade) {
+		if (quantidade <= 0)
+			return custoMedio;
+		if (custoMedio == null || saldoAnterior <= 0)
+			return Dinheiro.arredonda(custoUnitario);
+		BigDecimal total = custoMedio.multiply(BigDecimal.valueOf(saldoAnterior))
+				.add(custoUnitario.multiply(BigDecimal.valueOf(quantidade)));
+		return total.divide(BigDecimal.valueOf(saldoAnterior + quantidade), Dinheiro.ESCALA, Dinheiro.ARREDONDAMENTO);
+	}
+
+	// desfaz custoMedioComEntrada; so e exato se nenhuma outra entrada mexeu no custo depois, o que quem chama
+	// confere. Total negativo mantem o custo atual
+	public static BigDecimal custoMedioSemEntrada(BigDecimal custoMedio, int saldoRestante, BigDecimal custoUnitario,
+			int quantidade) {
+		if (custoMedio == null || quantidade <= 0 || saldoRestante <= 0)
+			return custoMedio;
+		BigDecimal total = custoMedio.multiply(BigDecimal.valueOf(saldoRestante + quantidade))
+				.subtract(custoUnitario.multiply(BigDecimal.valueOf(quantidade)));
+		if (total.signum() < 0)
+			return custoMedio;
+		return total.divide(BigDecimal.valueOf(saldoRestante), Dinheiro.ESCALA, Dinheiro.ARREDONDAMENTO);
+	}
+
 }
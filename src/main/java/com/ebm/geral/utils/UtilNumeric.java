@@ -1,11 +1,10 @@
 package com.ebm.geral.utils;
 
 import java.math.BigDecimal;
-import java.util.Optional;
 
 public class UtilNumeric {
 	public static  BigDecimal valueOrZero(BigDecimal value) {
-		return Optional.ofNullable(value).orElse(BigDecimal.valueOf(0));
+		return value == null ? BigDecimal.ZERO : value;
 	}
 	
 	public static Double valueOrZero(Double value) {
@@ -3,6 +3,10 @@ package com.ebm.geral.utils;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;import java.util.Optional;
 import java.util.Random;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
 
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -37,6 +41,12 @@ public class Utils {
 	}
 
 
+	// filtro das consultas paginadas: parametro vazio vindo da request vale como ausente
+	public static String nullSeVazio(String valor) {
+		return valor == null || valor.isEmpty() ? null : valor;
+	}
+
+
 	public static String getRandomCodInterno(TipoItem tipo, String nome) {
 		return tipo.getDescricao()+"-"+nome+nome.hashCode();
 	}
@@ -76,6 +86,20 @@ public class Utils {
 	}
 
 
+	// salva um a um e descarrega no banco a cada lote, para os inserts sairem agrupados (hibernate.jdbc.batch_size)
+	public static <T, R> List<R> salvaEmLotes(Collection<? extends T> registros, Function<T, R> salva,
+			Runnable descarrega, int lote) {
+		List<R> salvos = new ArrayList<>(registros.size());
+		for (T registro : registros) {
+			salvos.add(salva.apply(registro));
+			if (salvos.size() % lote == 0)
+				descarrega.run();
+		}
+		descarrega.run();
+		return salvos;
+	}
+
+
 	public static String getRandomString(int i) {
 		String r =  "a";
 		for(int j = 1; j<i;j++)
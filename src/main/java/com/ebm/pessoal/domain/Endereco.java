@@ -5,11 +5,13 @@ import java.io.Serializable;
 import javax.persistence.Column;
 import javax.persistence.Embedded;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
@@ -31,7 +33,8 @@ public class Endereco implements Serializable, Principalizar {
 
 	private static final long serialVersionUID = 1L;
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "endereco_seq")
+	@SequenceGenerator(name = "endereco_seq", sequenceName = "endereco_seq", allocationSize = 50)
 	@EqualsAndHashCode.Include
 	private Integer id;
 	@Column(length = 40)
@@ -44,7 +47,7 @@ public class Endereco implements Serializable, Principalizar {
 	@NotEmpty(message = "O campo bairro não pode ser vazio")
 	@Length(min =2, max = 60, message = "O campo bairro deve possuir entre 2 e 60 caracteres")
 	private String bairro;
-	@ManyToOne(optional = false)
+	@ManyToOne(optional = false, fetch = FetchType.LAZY)
 	@JoinColumn(nullable = false, name = "endereco_cidade")
 	@Valid
 	private Cidade cidade;
@@ -6,9 +6,9 @@ import java.util.Set;
 
 import javax.persistence.Embedded;
 import javax.persistence.Entity;
-import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.MapsId;
 import javax.persistence.OneToOne;
@@ -31,7 +31,6 @@ public class Fornecedor implements Serializable {
 	private static final long serialVersionUID = 1L;
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	@EqualsAndHashCode.Include
 	private Integer id;
 
@@ -40,7 +39,10 @@ public class Fornecedor implements Serializable {
 	@NotNull
 	private Pessoa pessoa;
 
+	// o filtro por categoria parte da categoria: indice na coluna que nao abre a chave da tabela de juncao
 	@ManyToMany
+	@JoinTable(name = "fornecedor_categorias", indexes = @Index(name = "idx_fornecedor_categorias_categoria",
+			columnList = "categorias_id"))
 	private Set<CategoriaItem> categorias = new HashSet<CategoriaItem>();
 	@Embedded
 	private HistoricoCadastral historico= new HistoricoCadastral();
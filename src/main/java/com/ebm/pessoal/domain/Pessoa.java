@@ -12,17 +12,22 @@ import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Inheritance;
 import javax.persistence.InheritanceType;
 import javax.persistence.JoinColumn;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedSubgraph;
 import javax.persistence.OneToMany;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
 import javax.persistence.Transient;
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 
-import org.hibernate.annotations.LazyCollection;
-import org.hibernate.annotations.LazyCollectionOption;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.validator.constraints.Length;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -39,13 +44,20 @@ import lombok.Setter;
 @NoArgsConstructor
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @Inheritance(strategy = InheritanceType.JOINED)
+// email, telefone e endereco sao bags: o hibernate so busca uma por join, as outras vem pelo @BatchSize
+@NamedEntityGraph(name = Pessoa.GRAFO_COMPLETO, attributeNodes = @NamedAttributeNode(value = "endereco", subgraph = "endereco"),
+		subgraphs = { @NamedSubgraph(name = "endereco", attributeNodes = @NamedAttributeNode(value = "cidade", subgraph = "cidade")),
+				@NamedSubgraph(name = "cidade", attributeNodes = @NamedAttributeNode("estado")) })
 @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.PROPERTY, property = "tipo")
+@Table(indexes = @Index(name = "idx_pessoa_nome", columnList = "nome"))
 public abstract class Pessoa implements Serializable {
 
 	private static final long serialVersionUID = 1L;
+	public static final String GRAFO_COMPLETO = "pessoa-full";
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pessoa_seq")
+	@SequenceGenerator(name = "pessoa_seq", sequenceName = "pessoa_seq", allocationSize = 50)
 	@Column(name = "pessoa_id")
 	@EqualsAndHashCode.Include
 	private Integer id;
@@ -59,7 +71,7 @@ public abstract class Pessoa implements Serializable {
 	private HistoricoCadastral historico = new HistoricoCadastral();
 	@OneToMany
 	@JoinColumn(name = "pessoa_id")
-	@LazyCollection(LazyCollectionOption.FALSE)
+	@BatchSize(size = 50)
 	@NotNull(message = "O campo email não pode ser nulo")
 	@NotEmpty(message = "O campo email não pode ser vazio")
 	@Valid
@@ -69,12 +81,12 @@ public abstract class Pessoa implements Serializable {
 	@NotNull(message = "O campo telefone não pode ser nulo")
 	@NotEmpty(message = "O campo telefone não pode ser vazio")
 	@Valid
-	@LazyCollection(LazyCollectionOption.FALSE)
+	@BatchSize(size = 50)
 	private List<Telefone> telefone = new ArrayList<Telefone>();
 	
 	@OneToMany
 	@JoinColumn(name = "pessoa_id")
-	@LazyCollection(LazyCollectionOption.FALSE)
+	@BatchSize(size = 50)
 	@NotNull(message = "O campo endereco não pode ser nulo")
 	@NotEmpty(message = "O campo endereco não pode ser vazio")
 	@Valid
@@ -8,6 +8,7 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 
@@ -27,7 +28,8 @@ public class Telefone implements Serializable, Principalizar {
 	private static final long serialVersionUID = 1L;
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "telefone_seq")
+	@SequenceGenerator(name = "telefone_seq", sequenceName = "telefone_seq", allocationSize = 50)
 	@EqualsAndHashCode.Include
 	private Integer id;
 	
@@ -51,7 +53,14 @@ public class Telefone implements Serializable, Principalizar {
 	
 	@Override
 	public String toString() {
-		return this.tipo + ": ("+ddd+")"+ numero;
+		return formata(tipo, ddd, numero);
+	}
+
+	// mesmo texto do toString, para quem tem so as colunas (consultas de listagem)
+	public static String formata(String tipo, String ddd, String numero) {
+		if (numero == null)
+			return null;
+		return tipo + ": ("+ddd+")"+ numero;
 	}
 
 	public Telefone(Integer id, String ddd, String numero, String tipo, boolean principal) {
@@ -1,8 +1,11 @@
 package com.ebm.pessoal.dtos;
 
 import java.io.Serializable;
+import java.math.BigDecimal;
 
 import com.ebm.pessoal.domain.Cliente;
+import com.ebm.pessoal.domain.Telefone;
+import com.ebm.pessoal.domain.TipoPessoa;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -31,4 +34,11 @@ public class ClienteListDTO implements Serializable {
 				c.getPessoa().getEnderecoPrincipal().getCidade().getEstado().getUf() + " - " + c.getPessoa().getEnderecoPrincipal().getCidade().getNome());
 	}
 
+	// consulta de listagem: contatos principais vindos de LEFT JOIN, podem ser nulos
+	public ClienteListDTO(Integer id, String nome, TipoPessoa tipo, BigDecimal limiteCompra, String tipoTelefone,
+			String ddd, String numero, String email, String uf, String cidade) {
+		this(id, nome, tipo.getDescricao(), limiteCompra.doubleValue(), Telefone.formata(tipoTelefone, ddd, numero),
+				email, cidade == null ? null : uf + " - " + cidade);
+	}
+
 }
@@ -3,6 +3,8 @@ package com.ebm.pessoal.dtos;
 import java.io.Serializable;
 
 import com.ebm.pessoal.domain.Fornecedor;
+import com.ebm.pessoal.domain.Telefone;
+import com.ebm.pessoal.domain.TipoPessoa;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -36,4 +38,10 @@ public class FornecedorListDTO implements Serializable{
 				fornecedor.getPessoa().getEnderecoPrincipal().getCidade().getNome());
 	}
 
+	// consulta de listagem: contatos principais vindos de LEFT JOIN, podem ser nulos
+	public FornecedorListDTO(Integer id, TipoPessoa tipo, String cpfCnpj, String nome, String tipoTelefone,
+			String ddd, String numero, String email, String cidade) {
+		this(id, tipo.getDescricao(), cpfCnpj, nome, Telefone.formata(tipoTelefone, ddd, numero), email, cidade);
+	}
+
 }
@@ -3,6 +3,8 @@ package com.ebm.pessoal.dtos;
 import java.io.Serializable;
 
 import com.ebm.pessoal.domain.Funcionario;
+import com.ebm.pessoal.domain.Telefone;
+import com.ebm.pessoal.domain.TipoPessoa;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -30,4 +32,10 @@ public class FuncionarioListDTO implements Serializable {
 				f.getCargo().getNomeCargo(), f.getPessoa().getTelefonePrincipal().toString(), f.getPessoa().getEmailPrincipal().getEmail());
 	}
 
+	// consulta de listagem: contatos principais vindos de LEFT JOIN, podem ser nulos
+	public FuncionarioListDTO(Integer id, String matricula, String nome, TipoPessoa tipo, String cargo,
+			String tipoTelefone, String ddd, String numero, String email) {
+		this(id, matricula, nome, tipo.getDescricao(), cargo, Telefone.formata(tipoTelefone, ddd, numero), email);
+	}
+
 }
@@ -0,0 +1,39 @@
+package com.ebm.pessoal.dtos;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// resultado de POST /pessoas/import: linhas recusadas nao impedem a gravacao das demais
+@Getter
+@Setter
+@NoArgsConstructor
+public class RelatorioImportacaoDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private int lidas;
+	private int inseridas;
+	private List<ErroLinha> erros = new ArrayList<>();
+
+	public void erro(int linha, String mensagem) {
+		erros.add(new ErroLinha(linha, mensagem));
+	}
+
+	@Getter
+	@Setter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class ErroLinha implements Serializable {
+		private static final long serialVersionUID = 1L;
+		// numero da linha no arquivo, contando o cabecalho do csv
+		private int linha;
+		private String mensagem;
+	}
+
+}
@@ -1,5 +1,6 @@
 package com.ebm.pessoal.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,8 +21,14 @@ public interface CidadeRepository extends JpaRepository<Cidade, Integer> {
 	
 	
 	@Transactional(readOnly=true)
-	@Query("SELECT c FROM Cidade c WHERE LOWER(c.nome) LIKE LOWER(?1) AND LOWER(c.estado.uf) = LOWER(?2)")
+	// o estado vem junto: a cidade e guardada no CacheReferencias fora da sessao
+	@Query("SELECT c FROM Cidade c JOIN FETCH c.estado e WHERE LOWER(c.nome) LIKE LOWER(?1) AND LOWER(e.uf) = LOWER(?2)")
 	Optional<Cidade>  findOneByNomeAndEstado(String nome, String uf);
+	// candidatas de um lote de (nome em minusculas, uf em maiusculas); o par exato e conferido em memoria
+	@Transactional(readOnly=true)
+	@Query("SELECT c FROM Cidade c JOIN FETCH c.estado e WHERE LOWER(c.nome) IN ?1 AND UPPER(e.uf) IN ?2")
+	List<Cidade> findAllByNomeInAndUfIn(Collection<String> nomes, Collection<String> ufs);
+
 	@Transactional(readOnly=true)
 	boolean existsByEstado(Estado estado);
 
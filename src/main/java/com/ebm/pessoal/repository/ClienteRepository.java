@@ -4,6 +4,8 @@ import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -11,10 +13,19 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.ebm.pessoal.domain.Cliente;
 import com.ebm.pessoal.domain.Pessoa;
+import com.ebm.pessoal.domain.TipoPessoa;
+import com.ebm.pessoal.dtos.ClienteListDTO;
 
 @Repository
 public interface ClienteRepository extends JpaRepository<Cliente, Integer> {
 
+	String LISTAGEM = "SELECT new com.ebm.pessoal.dtos.ClienteListDTO(c.id, p.nome, p.tipo, c.limiteCompra, t.tipo,"
+			+ " t.ddd, t.numero, e.email, es.uf, ci.nome) FROM Cliente c JOIN c.pessoa p"
+			+ " LEFT JOIN p.telefone t ON t.principal = true LEFT JOIN p.email e ON e.principal = true"
+			+ " LEFT JOIN p.endereco en ON en.principal = true LEFT JOIN en.cidade ci LEFT JOIN ci.estado es";
+	String CONTAGEM = "SELECT COUNT(c) FROM Cliente c JOIN c.pessoa p";
+	String FILTRO = " WHERE (p.tipo = ?1 OR ?1 IS NULL) AND (?2 IS NULL OR LOWER(p.nome) LIKE LOWER(CONCAT('%', ?2, '%')))";
+
 	@Transactional(readOnly = true)
 	Optional<Cliente> findOneByPessoa(Pessoa pessoa);
 
@@ -24,8 +35,25 @@ public interface ClienteRepository extends JpaRepository<Cliente, Integer> {
 	@Transactional(readOnly = true)
 	Page<Cliente> findAllByPessoa(Pessoa pessoa, Pageable page);
 
+	@Transactional(readOnly = true)
+	@EntityGraph(attributePaths = "pessoa.endereco.cidade.estado")
+	Optional<Cliente> findCompletoById(Integer id);
+
 	@Transactional(readOnly = true)
 	@Query("Select c FROM Cliente c WHERE c.pessoa.id = ?1")
 	Optional<Cliente> findByPessoaId(Integer id);
 
+	// so as colunas da listagem: nada de carregar pessoa, colecoes de contato e historico
+	@Transactional(readOnly = true)
+	@Query(value = LISTAGEM + FILTRO, countQuery = CONTAGEM + FILTRO)
+	Page<ClienteListDTO> findListBy(TipoPessoa tipo, String nome, Pageable page);
+
+	@Transactional(readOnly = true)
+	@Query(LISTAGEM + FILTRO)
+	Slice<ClienteListDTO> findSliceBy(TipoPessoa tipo, String nome, Pageable page);
+
+	@Transactional(readOnly = true)
+	@Query(CONTAGEM + FILTRO)
+	long contaListBy(TipoPessoa tipo, String nome);
+
 }
@@ -1,7 +1,9 @@
 package com.ebm.pessoal.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -25,4 +27,8 @@ public interface EmailRepository extends JpaRepository<Email, Integer> {
 
 	Optional<Email> findByEmail(String email);
 
+	@Transactional(readOnly=true)
+	@Query("SELECT e.email FROM Email e WHERE e.email IN ?1")
+	Set<String> findEmailIn(Collection<String> emails);
+
 }	
@@ -1,8 +1,11 @@
 package com.ebm.pessoal.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.ebm.pessoal.domain.Estado;
 
@@ -10,5 +13,9 @@ public interface EstadoRepository extends JpaRepository<Estado, Integer> {
 
 	Optional<Estado> findOneByUf(String uf);
 
+	// ufs em maiusculas; as gravadas sao comparadas do mesmo jeito
+	@Query("SELECT e FROM Estado e WHERE UPPER(e.uf) IN ?1")
+	List<Estado> findAllByUfIn(Collection<String> ufs);
+
 
 }
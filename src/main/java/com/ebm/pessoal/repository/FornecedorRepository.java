@@ -1,25 +1,55 @@
 package com.ebm.pessoal.repository;
 
 
-import java.util.List;
 import java.util.Set;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.ebm.estoque.domain.CategoriaItem;
 import com.ebm.pessoal.domain.Fornecedor;
+import com.ebm.pessoal.domain.TipoPessoa;
+import com.ebm.pessoal.dtos.FornecedorListDTO;
 
 @Repository	
 public interface FornecedorRepository  extends JpaRepository<Fornecedor, Integer>{
+
+	// cpf/cnpj: a pessoa e JOINED, o hibernate resolve o atributo da subclasse pelo alias da superclasse
+	String LISTAGEM = "SELECT new com.ebm.pessoal.dtos.FornecedorListDTO(f.id, p.tipo, COALESCE(p.cpf, p.cnpj), p.nome,"
+			+ " t.tipo, t.ddd, t.numero, e.email, ci.nome) FROM Fornecedor f JOIN f.pessoa p"
+			+ " LEFT JOIN p.telefone t ON t.principal = true LEFT JOIN p.email e ON e.principal = true"
+			+ " LEFT JOIN p.endereco en ON en.principal = true LEFT JOIN en.cidade ci";
+	String CONTAGEM = "SELECT COUNT(f) FROM Fornecedor f JOIN f.pessoa p";
+	String FILTRO = " WHERE (p.tipo = ?1 OR ?1 IS NULL) AND (?2 IS NULL OR LOWER(p.nome) LIKE LOWER(CONCAT('%', ?2, '%')))";
+	String FILTRO_CATEGORIAS = FILTRO
+			+ " AND EXISTS (SELECT 1 FROM Fornecedor f2 JOIN f2.categorias cat WHERE f2 = f AND cat.id IN ?3)";
 	
-	@Transactional(readOnly=true)
-	Page<Fornecedor> findDistinctByCategoriasIn(Set<CategoriaItem> categorias, Pageable page);
-	
-	@Transactional(readOnly=true)
-	List<Fornecedor> findDistinctByCategoriasIn(Set<CategoriaItem> categorias);
+	@Transactional(readOnly = true)
+	@Query(value = LISTAGEM + FILTRO, countQuery = CONTAGEM + FILTRO)
+	Page<FornecedorListDTO> findListBy(TipoPessoa tipo, String nome, Pageable page);
+
+	@Transactional(readOnly = true)
+	@Query(value = LISTAGEM + FILTRO_CATEGORIAS, countQuery = CONTAGEM + FILTRO_CATEGORIAS)
+	Page<FornecedorListDTO> findListBy(TipoPessoa tipo, String nome, Set<Integer> categorias, Pageable page);
+
+	@Transactional(readOnly = true)
+	@Query(LISTAGEM + FILTRO)
+	Slice<FornecedorListDTO> findSliceBy(TipoPessoa tipo, String nome, Pageable page);
+
+	@Transactional(readOnly = true)
+	@Query(LISTAGEM + FILTRO_CATEGORIAS)
+	Slice<FornecedorListDTO> findSliceBy(TipoPessoa tipo, String nome, Set<Integer> categorias, Pageable page);
+
+	@Transactional(readOnly = true)
+	@Query(CONTAGEM + FILTRO)
+	long contaListBy(TipoPessoa tipo, String nome);
+
+	@Transactional(readOnly = true)
+	@Query(CONTAGEM + FILTRO_CATEGORIAS)
+	long contaListBy(TipoPessoa tipo, String nome, Set<Integer> categorias);
 
 }
@@ -7,6 +7,7 @@ import java.util.Optional;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -15,10 +16,21 @@ import org.springframework.transaction.annotation.Transactional;
 import com.ebm.pessoal.domain.Cargo;
 import com.ebm.pessoal.domain.Funcionario;
 import com.ebm.pessoal.domain.Pessoa;
+import com.ebm.pessoal.domain.TipoPessoa;
+import com.ebm.pessoal.dtos.FuncionarioListDTO;
 
 @Repository
 public interface FuncionarioRepository extends JpaRepository<Funcionario, Integer> {
 
+	String LISTAGEM = "SELECT new com.ebm.pessoal.dtos.FuncionarioListDTO(f.id, f.matricula, p.nome, p.tipo,"
+			+ " cg.nomeCargo, t.tipo, t.ddd, t.numero, e.email) FROM Funcionario f JOIN f.pessoa p JOIN f.cargo cg"
+			+ " LEFT JOIN p.telefone t ON t.principal = true LEFT JOIN p.email e ON e.principal = true";
+	String CONTAGEM = "SELECT COUNT(f) FROM Funcionario f JOIN f.pessoa p JOIN f.cargo cg";
+	String FILTRO = " WHERE (p.tipo = ?1 OR ?1 IS NULL)"
+			+ " AND (?2 IS NULL OR LOWER(cg.nomeCargo) LIKE LOWER(CONCAT('%', ?2, '%')))"
+			+ " AND (?3 IS NULL OR LOWER(p.nome) LIKE LOWER(CONCAT('%', ?3, '%')))"
+			+ " AND (?4 IS NULL OR LOWER(f.matricula) LIKE LOWER(CONCAT('%', ?4, '%')))";
+
 	@Transactional(readOnly=true)
 	Optional<Funcionario> findOneByMatricula(String matricula);
 
@@ -45,10 +57,17 @@ public interface FuncionarioRepository extends JpaRepository<Funcionario, Intege
 	@Query("Select f FROM Funcionario f WHERE LOWER(f.cargo.nomeCargo) LIKE LOWER(?1)")
 	Collection<? extends Funcionario> findByCargoName(String cargo);
 	
-	@Query("Select f.id FROM Funcionario f WHERE LOWER(f.pessoa.nome) LIKE LOWER (?1) ")
-	List<Integer> findAllIdByNomeLike(String nome);
-	
-	@Query("Select distinct f.id FROM Funcionario f join f.pessoa.email e WHERE LOWER(e.email) LIKE LOWER(?1) AND e.principal = true")
-	List<Integer> findAllIdByEmailPrincipalLike(String email);
+	// so as colunas da listagem: nada de carregar pessoa, colecoes de contato e historico
+	@Transactional(readOnly = true)
+	@Query(value = LISTAGEM + FILTRO, countQuery = CONTAGEM + FILTRO)
+	Page<FuncionarioListDTO> findListBy(TipoPessoa tipo, String cargo, String nome, String matricula, Pageable page);
+
+	@Transactional(readOnly = true)
+	@Query(LISTAGEM + FILTRO)
+	Slice<FuncionarioListDTO> findSliceBy(TipoPessoa tipo, String cargo, String nome, String matricula, Pageable page);
+
+	@Transactional(readOnly = true)
+	@Query(CONTAGEM + FILTRO)
+	long contaListBy(TipoPessoa tipo, String cargo, String nome, String matricula);
 
 }
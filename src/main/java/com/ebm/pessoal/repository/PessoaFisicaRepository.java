@@ -1,7 +1,9 @@
 package com.ebm.pessoal.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.data.domain.Example;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -26,6 +28,15 @@ public interface PessoaFisicaRepository extends JpaRepository<PessoaFisica, Inte
 	@Query("SELECT pf FROM PessoaFisica pf INNER JOIN pf.email email WHERE LOWER(email) LIKE LOWER(?1)")
 	List<PessoaFisica> findAllByEmailLike(String email );
 	
+	// importacao: quais documentos do lote ja existem, numa consulta so
+	@Transactional(readOnly=true)
+	@Query("SELECT pf.cpf FROM PessoaFisica pf WHERE pf.cpf IN ?1")
+	Set<String> findCpfIn(Collection<String> cpfs);
+
+	@Transactional(readOnly=true)
+	@Query("SELECT pf.RG.RG FROM PessoaFisica pf WHERE pf.RG.RG IN ?1")
+	Set<String> findRgIn(Collection<String> rgs);
+
 	@Transactional(readOnly=true)
 	List<PessoaFisica> findAllByRG(Example<RG> example);
 	
@@ -1,7 +1,9 @@
 package com.ebm.pessoal.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -16,6 +18,10 @@ public interface PessoaJuridicaRepository extends JpaRepository<PessoaJuridica,
 	@Transactional(readOnly=true)
 	Optional<PessoaJuridica> findOneByCnpj(String CNPJ);
 
+	@Transactional(readOnly=true)
+	@Query("SELECT pj.cnpj FROM PessoaJuridica pj WHERE pj.cnpj IN ?1")
+	Set<String> findCnpjIn(Collection<String> cnpjs);
+
 	@Transactional(readOnly=true)
 	List<PessoaJuridica> findAllByInscricaoEstadualIgnoreCaseContaining(String inscricaoEstadual);
 
@@ -0,0 +1,19 @@
+package com.ebm.pessoal.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ebm.pessoal.domain.Pessoa;
+
+@Repository
+public interface PessoaRepository extends JpaRepository<Pessoa, Integer> {
+
+	@Transactional(readOnly = true)
+	@EntityGraph(Pessoa.GRAFO_COMPLETO)
+	Optional<Pessoa> findCompletaById(Integer id);
+
+}
@@ -1,7 +1,9 @@
 package com.ebm.pessoal.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -23,5 +25,10 @@ public interface TelefoneRepository extends JpaRepository<Telefone, Integer> {
 	List<String> findAllTipoTelefone();
 
 	Optional<Telefone> findByDddAndNumero(String ddd, String numero);
+
+	// ddd e numero juntos como "ddd numero", a mesma chave usada pela importacao
+	@Transactional(readOnly=true)
+	@Query("SELECT CONCAT(t.ddd, ' ', t.numero) FROM Telefone t WHERE t.numero IN ?1")
+	Set<String> findDddNumeroByNumeroIn(Collection<String> numeros);
 	
 }
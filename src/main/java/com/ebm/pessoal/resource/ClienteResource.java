@@ -5,8 +5,8 @@ import java.net.URI;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -21,6 +21,8 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.ebm.geral.domain.Contagem;
+import com.ebm.geral.domain.CursorPage;
 import com.ebm.pessoal.domain.Cliente;
 import com.ebm.pessoal.domain.TipoPessoa;
 import com.ebm.pessoal.dtos.ClienteListDTO;
@@ -73,16 +75,33 @@ public class ClienteResource {
 
 	@PreAuthorize("hasAuthority('CLIENTE_GET')")
 	@GetMapping(value = "/page")
-	public ResponseEntity<Page<ClienteListDTO>> findAllBy(
+	public ResponseEntity<Slice<ClienteListDTO>> findAllBy(
 			@RequestParam(value = "nome", required = false) String nome,
 			@RequestParam(value = "tipo", required = false) String tipo,
 			@RequestParam(value = "page", defaultValue = "0") Integer page,
 			@RequestParam(value = "linesPerPage", defaultValue = "10") Integer linesPerPage,
 			@RequestParam(value = "orderBy", defaultValue = "id") String orderBy,
-			@RequestParam(value = "direction", defaultValue = "ASC") String direction) {
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "count", defaultValue = "true") String count) {
 
 		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
-		Page<ClienteListDTO> rs = clienteService.findBy(TipoPessoa.fromString(tipo), nome, pageRequest);
+		Slice<ClienteListDTO> rs = clienteService.findBy(TipoPessoa.fromString(tipo), nome, pageRequest,
+				Contagem.fromString(count));
+		return ResponseEntity.ok().body(rs);
+	}
+
+	@PreAuthorize("hasAuthority('CLIENTE_GET')")
+	@GetMapping(value = "/page", params = "after")
+	public ResponseEntity<CursorPage<ClienteListDTO>> findAllByCursor(
+			@RequestParam(value = "nome", required = false) String nome,
+			@RequestParam(value = "tipo", required = false) String tipo,
+			@RequestParam(value = "after") String after,
+			@RequestParam(value = "linesPerPage", defaultValue = "10") Integer linesPerPage,
+			@RequestParam(value = "orderBy", defaultValue = "id") String orderBy,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "count", defaultValue = "false") boolean count) {
+		CursorPage<ClienteListDTO> rs = clienteService.findBy(TipoPessoa.fromString(tipo), nome, after, orderBy,
+				Direction.valueOf(direction), linesPerPage, count);
 		return ResponseEntity.ok().body(rs);
 	}
 
@@ -6,8 +6,8 @@ import java.util.Set;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -22,6 +22,8 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.ebm.geral.domain.Contagem;
+import com.ebm.geral.domain.CursorPage;
 import com.ebm.pessoal.domain.Fornecedor;
 import com.ebm.pessoal.domain.TipoPessoa;
 import com.ebm.pessoal.dtos.FornecedorListDTO;
@@ -74,18 +76,35 @@ public class FornecedorResource {
 
 	@PreAuthorize("hasAuthority('FORNECEDOR_GET')")
 	@GetMapping(value = "/page")
-	public ResponseEntity<Page<FornecedorListDTO>> findAllBy(
+	public ResponseEntity<Slice<FornecedorListDTO>> findAllBy(
 			@RequestParam(value = "nome", required = false) String nome,
 			@RequestParam(value = "tipo", required = false) String tipo,
 			@RequestParam(value = "categorias", required = false) Set<Integer> categorias,
 			@RequestParam(value = "page", defaultValue = "0") Integer page,
 			@RequestParam(value = "linesPerPage", defaultValue = "10") Integer linesPerPage,
 			@RequestParam(value = "orderBy", defaultValue = "id") String orderBy,
-			@RequestParam(value = "direction", defaultValue = "ASC") String direction) {
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "count", defaultValue = "true") String count) {
 
 		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
-		Page<FornecedorListDTO> rs = fornecedorService.findBy(TipoPessoa.fromString(tipo), nome, categorias,
-				pageRequest);
+		Slice<FornecedorListDTO> rs = fornecedorService.findBy(TipoPessoa.fromString(tipo), nome, categorias,
+				pageRequest, Contagem.fromString(count));
+		return ResponseEntity.ok().body(rs);
+	}
+
+	@PreAuthorize("hasAuthority('FORNECEDOR_GET')")
+	@GetMapping(value = "/page", params = "after")
+	public ResponseEntity<CursorPage<FornecedorListDTO>> findAllByCursor(
+			@RequestParam(value = "nome", required = false) String nome,
+			@RequestParam(value = "tipo", required = false) String tipo,
+			@RequestParam(value = "categorias", required = false) Set<Integer> categorias,
+			@RequestParam(value = "after") String after,
+			@RequestParam(value = "linesPerPage", defaultValue = "10") Integer linesPerPage,
+			@RequestParam(value = "orderBy", defaultValue = "id") String orderBy,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "count", defaultValue = "false") boolean count) {
+		CursorPage<FornecedorListDTO> rs = fornecedorService.findBy(TipoPessoa.fromString(tipo), nome, categorias,
+				after, orderBy, Direction.valueOf(direction), linesPerPage, count);
 		return ResponseEntity.ok().body(rs);
 	}
 
@@ -5,8 +5,8 @@ import java.net.URI;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -21,6 +21,8 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.ebm.geral.domain.Contagem;
+import com.ebm.geral.domain.CursorPage;
 import com.ebm.pessoal.domain.Funcionario;
 import com.ebm.pessoal.domain.TipoPessoa;
 import com.ebm.pessoal.dtos.FuncionarioListDTO;
@@ -73,7 +75,7 @@ public class FuncionarioResource {
 
 	@PreAuthorize("hasAuthority('FUNCIONARIO_GET')")
 	@GetMapping(value = "/page")
-	public ResponseEntity<Page<FuncionarioListDTO>> findAllBy(
+	public ResponseEntity<Slice<FuncionarioListDTO>> findAllBy(
 			@RequestParam(value = "nome", required = false) String nome,
 			@RequestParam(value = "tipo", required = false) String tipo,
 			@RequestParam(value = "cargo", required = false) String cargo,
@@ -81,11 +83,29 @@ public class FuncionarioResource {
 			@RequestParam(value = "page", defaultValue = "0") Integer page,
 			@RequestParam(value = "linesPerPage", defaultValue = "10") Integer linesPerPage,
 			@RequestParam(value = "orderBy", defaultValue = "id") String orderBy,
-			@RequestParam(value = "direction", defaultValue = "ASC") String direction) {
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "count", defaultValue = "true") String count) {
 
 		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
-		Page<FuncionarioListDTO> rs = funcionarioService.findBy(TipoPessoa.fromString(tipo), cargo, nome, matricula,
-				pageRequest);
+		Slice<FuncionarioListDTO> rs = funcionarioService.findBy(TipoPessoa.fromString(tipo), cargo, nome, matricula,
+				pageRequest, Contagem.fromString(count));
+		return ResponseEntity.ok().body(rs);
+	}
+
+	@PreAuthorize("hasAuthority('FUNCIONARIO_GET')")
+	@GetMapping(value = "/page", params = "after")
+	public ResponseEntity<CursorPage<FuncionarioListDTO>> findAllByCursor(
+			@RequestParam(value = "nome", required = false) String nome,
+			@RequestParam(value = "tipo", required = false) String tipo,
+			@RequestParam(value = "cargo", required = false) String cargo,
+			@RequestParam(value = "matricula", required = false) String matricula,
+			@RequestParam(value = "after") String after,
+			@RequestParam(value = "linesPerPage", defaultValue = "10") Integer linesPerPage,
+			@RequestParam(value = "orderBy", defaultValue = "id") String orderBy,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "count", defaultValue = "false") boolean count) {
+		CursorPage<FuncionarioListDTO> rs = funcionarioService.findBy(TipoPessoa.fromString(tipo), cargo, nome, matricula,
+				after, orderBy, Direction.valueOf(direction), linesPerPage, count);
 		return ResponseEntity.ok().body(rs);
 	}
 
@@ -1,10 +1,17 @@
 package com.ebm.pessoal.resource;
 
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,6 +20,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -20,6 +28,8 @@ import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.ebm.pessoal.domain.Cliente;
 import com.ebm.pessoal.domain.Pessoa;
+import com.ebm.pessoal.dtos.RelatorioImportacaoDTO;
+import com.ebm.pessoal.service.ImportacaoPessoaService;
 import com.ebm.pessoal.service.PessoaService;
 
 @RestController
@@ -27,6 +37,9 @@ import com.ebm.pessoal.service.PessoaService;
 public class PessoaResource {
 	@Autowired
 	private PessoaService pessoaService;
+	@Autowired
+	private ImportacaoPessoaService importacaoPessoaService;
+
 	@PreAuthorize("hasAnyAuthority('FUNCIONARIO_POST','CLIENTE_POST','FORNECEDOR_POST')")
 	@PostMapping
 	public ResponseEntity<Void> insert(@Valid @RequestBody Pessoa pessoa){
@@ -37,6 +50,18 @@ public class PessoaResource {
 		
 		return ResponseEntity.created(uri).build();
 	}
+	// text/csv com cabecalho (colunas em ImportacaoPessoaService.COLUNAS) ou application/x-ndjson, uma pessoa
+	// por linha no json do POST; devolve quantas foram gravadas e o motivo de cada linha recusada
+	@PreAuthorize("hasAnyAuthority('FUNCIONARIO_POST','CLIENTE_POST','FORNECEDOR_POST')")
+	@PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+	public ResponseEntity<RelatorioImportacaoDTO> importa(InputStream corpo,
+			@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType) {
+		MediaType tipo = MediaType.parseMediaType(contentType);
+		Charset charset = tipo.getCharset() != null ? tipo.getCharset() : StandardCharsets.UTF_8;
+		BufferedReader leitor = new BufferedReader(new InputStreamReader(corpo, charset));
+		return ResponseEntity.ok(importacaoPessoaService.importa(leitor, tipo));
+	}
+
 	@PreAuthorize("hasAnyAuthority('FUNCIONARIO_PUT','CLIENTE_PUT','FORNECEDOR_PUT')")
 	@PutMapping(value = "/{id}")
 	public ResponseEntity<Void> update(@Valid @RequestBody Pessoa pessoa, @PathVariable Integer id){
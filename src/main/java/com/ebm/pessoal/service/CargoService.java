@@ -29,7 +29,7 @@ public class CargoService {
 		if(c1.getNomeCargo() == null || c1.getNomeCargo().isEmpty())
 			throw new DataIntegrityException(DATAINTEGRITY_NOTNAME);
 		Utils.audita(c1.getHistorico());
-		return cargoRepository.save(c1);
+		return cargoRepository.saveAndFlush(c1);
 	}
 	
 	// delete
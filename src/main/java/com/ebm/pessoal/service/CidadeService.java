@@ -1,7 +1,7 @@
 package com.ebm.pessoal.service;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,6 +10,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.ebm.geral.exceptions.DataIntegrityException;
 import com.ebm.geral.exceptions.ObjectNotFoundException;
+import com.ebm.geral.service.CacheReferencias;
+import com.ebm.geral.service.CacheReferencias.Tabela;
 import com.ebm.geral.utils.Utils;
 import com.ebm.pessoal.domain.Cidade;
 import com.ebm.pessoal.domain.Estado;
@@ -27,6 +29,8 @@ public class CidadeService {
 	private CidadeRepository cidadeRepository;
 	@Autowired
 	private EstadoService estadoService;
+	@Autowired
+	private CacheReferencias cacheReferencias;
 
 	@Transactional
 	public Cidade save(Cidade cidade) {
@@ -34,14 +38,29 @@ public class CidadeService {
 		if (cidade.getEstado() == null) {
 			throw new DataIntegrityException(CIDADE_ESTADO_INVALIDO);
 		}
-		Optional<Cidade> result = cidadeRepository.findOneByNomeAndEstado(cidade.getNome(), cidade.getEstado().getUf());
-
-		if (result.isPresent())
-			cidade.setId(result.get().getId());
+		String uf = cidade.getEstado().getUf();
+		Cidade existente = cacheReferencias.cidade(cidade.getNome(), uf,
+				() -> cidadeRepository.findOneByNomeAndEstado(cidade.getNome(), uf));
+
+		Estado estado = estadoService.save(cidade.getEstado());
+		if (existente != null) {
+			// mesma grafia no mesmo estado: a cidade repassada pelo cadastro ja esta gravada
+			if (Objects.equals(existente.getNome(), cidade.getNome())
+					&& Objects.equals(existente.getEstado().getId(), estado.getId()))
+				return existente;
+			cidade.setId(existente.getId());
+		}
 
-		cidade.setEstado(estadoService.save(cidade.getEstado()));
+		// com id pode ser troca de nome: a chave antiga e desconhecida
+		boolean nova = cidade.getId() == null;
+		cidade.setEstado(estado);
 		Utils.audita(cidade.getHistorico());
-		return cidadeRepository.save(cidade);
+		Cidade salva = cidadeRepository.save(cidade);
+		if (nova)
+			cacheReferencias.invalida(Tabela.CIDADE, CacheReferencias.chaveCidade(cidade.getNome(), uf));
+		else
+			cacheReferencias.limpa(Tabela.CIDADE);
+		return salva;
 
 	}
 
@@ -52,12 +71,14 @@ public class CidadeService {
 	public void deleteAll(Boolean propagaDeletacao) {
 
 		cidadeRepository.deleteAll();
+		cacheReferencias.limpa(Tabela.CIDADE);
 		if (propagaDeletacao)
 			estadoService.deleteAll(true);
 	}
 
 	public void delete(Cidade cidade) {
 		cidadeRepository.delete(cidade);
+		cacheReferencias.limpa(Tabela.CIDADE);
 		try {
 			estadoService.delete(cidade.getEstado().getId());
 		} catch (DataIntegrityException e) {
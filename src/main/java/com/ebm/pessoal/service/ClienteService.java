@@ -1,23 +1,29 @@
 package com.ebm.pessoal.service;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.ebm.geral.domain.Contagem;
+import com.ebm.geral.domain.CursorPage;
 import com.ebm.geral.exceptions.DataIntegrityException;
 import com.ebm.geral.exceptions.ObjectNotFoundException;
+import com.ebm.geral.service.CacheContagem;
+import com.ebm.geral.utils.ListagemPorCursor;
 import com.ebm.geral.utils.Utils;
 import com.ebm.pessoal.domain.Cliente;
-import com.ebm.pessoal.domain.Pessoa;
 import com.ebm.pessoal.domain.TipoPessoa;
 import com.ebm.pessoal.dtos.ClienteListDTO;
 import com.ebm.pessoal.repository.ClienteRepository;
@@ -40,6 +46,16 @@ public class ClienteService {
 	@Autowired
 	private PessoaService pessoaService;
 
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private CacheContagem cacheContagem;
+
+	private static final ListagemPorCursor<ClienteListDTO> LISTAGEM = new ListagemPorCursor<>(ClienteListDTO.class,
+			ClienteRepository.LISTAGEM, ClienteRepository.CONTAGEM, "c.id", ClienteListDTO::getId)
+					.chave("nome", "p.nome", String.class, ClienteListDTO::getNome);
+
 	@Transactional
 	public Cliente save(Cliente cliente) {
 		
@@ -87,23 +103,31 @@ public class ClienteService {
 	}
 
 	public Cliente findById(Integer id) {
-		Optional<Cliente> cliente = clienteRepository.findById(id);
+		Optional<Cliente> cliente = clienteRepository.findCompletoById(id);
 		return cliente
 				.orElseThrow(() -> new ObjectNotFoundException("Não foi possivel encontrar o cliente de id: " + id));
 	}
 
 	public Page<ClienteListDTO> findBy(TipoPessoa tipo, String nome, PageRequest pageRequest) {
+		return clienteRepository.findListBy(tipo, Utils.nullSeVazio(nome), pageRequest);
+	}
 
-		ExampleMatcher matcher = PessoaService.ExampleMatcherDinamicFilterFor(true, tipo);
-
-		Pessoa pessoa = PessoaService.getPessoa(tipo, nome);
-
-		Cliente cliente = new Cliente(null, pessoa, null, null);
-
-		Page<Cliente> clientes = clienteRepository.findAll(Example.of(cliente, matcher), pageRequest);
-		List<ClienteListDTO> clientesDTO = clientes.get().map(c -> new ClienteListDTO(c)).collect(Collectors.toList());
+	public Slice<ClienteListDTO> findBy(TipoPessoa tipo, String nome, PageRequest pageRequest, Contagem contagem) {
+		if (contagem == Contagem.EXATA)
+			return findBy(tipo, nome, pageRequest);
+		String nm = Utils.nullSeVazio(nome);
+		Slice<ClienteListDTO> fatia = clienteRepository.findSliceBy(tipo, nm, pageRequest);
+		if (contagem == Contagem.NENHUMA)
+			return fatia;
+		return cacheContagem.pagina(fatia, "clientes", () -> clienteRepository.contaListBy(tipo, nm), tipo, nm);
+	}
 
-		return new PageImpl<>(clientesDTO, pageRequest, clientesDTO.size());
+	// por cursor: ordena por nome ou id e so conta quando pedido
+	@Transactional(readOnly = true)
+	public CursorPage<ClienteListDTO> findBy(TipoPessoa tipo, String nome, String after, String orderBy,
+			Direction direcao, int tamanho, boolean contar) {
+		return LISTAGEM.busca(entityManager, ClienteRepository.FILTRO, Arrays.asList(tipo, Utils.nullSeVazio(nome)),
+				after, orderBy, direcao, tamanho, contar);
 	}
 
 	public Cliente findByCpfOrCnpj(String document) {
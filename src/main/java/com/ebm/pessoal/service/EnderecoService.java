@@ -9,6 +9,7 @@ import org.springframework.stereotype.Service;
 import com.ebm.geral.exceptions.DataIntegrityException;
 import com.ebm.geral.exceptions.ObjectNotFoundException;
 import com.ebm.geral.utils.Utils;
+import com.ebm.pessoal.domain.Cidade;
 import com.ebm.pessoal.domain.Endereco;
 import com.ebm.pessoal.domain.Pessoa;
 import com.ebm.pessoal.repository.EnderecoRepository;
@@ -28,9 +29,13 @@ public class EnderecoService {
 		if(endereco.getCidade() == null)
 			throw new DataIntegrityException(DATAINTEGRITY_ENDERECOCIDADE);
 		
-		endereco.setCidade(cidadeService.save(endereco.getCidade()));
+		Cidade cidade = cidadeService.save(endereco.getCidade());
+		endereco.setCidade(cidade);
 		Utils.audita(endereco.getHistorico());
-		return enderecoRepository.save(endereco);
+		Endereco result = enderecoRepository.save(endereco);
+		// no merge a cidade (lazy) volta como proxy; devolve a que acabou de ser salva
+		result.setCidade(cidade);
+		return result;
 	}	
 
 	
@@ -1,5 +1,6 @@
 package com.ebm.pessoal.service;
 
+import java.util.Objects;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,6 +8,8 @@ import org.springframework.data.domain.Example;
 import org.springframework.stereotype.Service;
 
 import com.ebm.geral.exceptions.DataIntegrityException;
+import com.ebm.geral.service.CacheReferencias;
+import com.ebm.geral.service.CacheReferencias.Tabela;
 import com.ebm.geral.exceptions.ObjectNotFoundException;
 import com.ebm.pessoal.domain.Estado;
 import com.ebm.pessoal.repository.EstadoRepository;
@@ -21,25 +24,37 @@ public class EstadoService {
 	private EstadoRepository estadoRepository;
 	@Autowired
 	private CidadeService cidadeService;
+	@Autowired
+	private CacheReferencias cacheReferencias;
 	
 	// insert & update
 
 	public Estado save(Estado estado) {
-			Optional<Estado> estadoR = estadoRepository.findOneByUf(estado.getUf());
+			Estado existente = cacheReferencias.estado(estado.getUf(), () -> estadoRepository.findOneByUf(estado.getUf()));
+			// as cidades do cache levam uma copia do estado: alteracao limpa as duas tabelas
+			boolean altera = existente != null || estado.getId() != null;
 			
-			if(estadoR.isPresent()) {
-				estado.setId(estadoR.get().getId());
+			if(existente != null) {
+				estado.setId(existente.getId());
+				// cadastro de pessoa e endereco repassa o estado a cada gravacao: sem mudanca nao ha o que escrever
+				if(Objects.equals(existente.getNome(), estado.getNome()))
+					return existente;
 			}
 				
 			if(estado.getUf().length() != 2)
 				throw new DataIntegrityException(UF_INVALIDO);
-			return estadoRepository.save(estado);
+			Estado salvo = estadoRepository.save(estado);
+			if(altera)
+				cacheReferencias.limpa(Tabela.ESTADO, Tabela.CIDADE);
+			else
+				cacheReferencias.invalida(Tabela.ESTADO, estado.getUf());
+			return salvo;
 	
 	}
 	
 	//finds
 	public Estado findByUf(String uf) {
-		return estadoRepository.findOneByUf(uf).
+		return Optional.ofNullable(cacheReferencias.estado(uf, () -> estadoRepository.findOneByUf(uf))).
 				orElseThrow(() -> new ObjectNotFoundException(NOTFOUND_UF + uf));
 	}
 	
@@ -56,6 +71,7 @@ public class EstadoService {
 		}
 		
 		estadoRepository.deleteAll();
+		cacheReferencias.limpa(Tabela.ESTADO, Tabela.CIDADE);
 		
 	}
 
@@ -73,7 +89,8 @@ public class EstadoService {
 		Estado estado = find(id);
 		if(cidadeService.exist(estado))
 			throw new DataIntegrityException(DATAINTEGRITY_ETADOCOMCIDADE);
-		estadoRepository.deleteById(id);	
+		estadoRepository.deleteById(id);
+		cacheReferencias.invalida(Tabela.ESTADO, estado.getUf());
 	}
 
 	public void deleteByUf(String uf) {
@@ -81,6 +98,7 @@ public class EstadoService {
 		if(cidadeService.exist(estado))
 			throw new DataIntegrityException(DATAINTEGRITY_ETADOCOMCIDADE);
 		estadoRepository.delete(estado);
+		cacheReferencias.invalida(Tabela.ESTADO, uf);
 		
 	}
 
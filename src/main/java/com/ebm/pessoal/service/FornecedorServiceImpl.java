@@ -1,29 +1,34 @@
 package com.ebm.pessoal.service;
 
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.ebm.estoque.domain.CategoriaItem;
 import com.ebm.estoque.service.interfaces.CategoriaItemService;
+import com.ebm.geral.domain.Contagem;
+import com.ebm.geral.domain.CursorPage;
 import com.ebm.geral.exceptions.DataIntegrityException;
 import com.ebm.geral.exceptions.ObjectNotFoundException;
+import com.ebm.geral.service.CacheContagem;
+import com.ebm.geral.utils.ListagemPorCursor;
 import com.ebm.geral.utils.Utils;
 import com.ebm.pessoal.domain.Fornecedor;
 import com.ebm.pessoal.domain.Funcionario;
-import com.ebm.pessoal.domain.Pessoa;
 import com.ebm.pessoal.domain.TipoPessoa;
 import com.ebm.pessoal.dtos.FornecedorListDTO;
 import com.ebm.pessoal.repository.FornecedorRepository;
@@ -38,7 +43,14 @@ public class FornecedorServiceImpl implements FornecedorService {
 	private PessoaService pessoaService;
 	@Autowired
 	private CategoriaItemService categoriaService;
-	
+	@PersistenceContext
+	private EntityManager entityManager;
+	@Autowired
+	private CacheContagem cacheContagem;
+
+	private static final ListagemPorCursor<FornecedorListDTO> LISTAGEM = new ListagemPorCursor<>(
+			FornecedorListDTO.class, FornecedorRepository.LISTAGEM, FornecedorRepository.CONTAGEM, "f.id",
+			FornecedorListDTO::getId).chave("nome", "p.nome", String.class, FornecedorListDTO::getNome);
 
 	@Transactional
 	public Fornecedor save(Fornecedor fornecedor) {
@@ -89,6 +101,17 @@ public class FornecedorServiceImpl implements FornecedorService {
 		return fornecedorRepository.findById(id).orElseThrow(() -> new ObjectNotFoundException(ONFE_BYID + id));
 	}
 
+	@Override
+	public List<Fornecedor> findAllById(Set<Integer> ids) {
+		List<Fornecedor> fornecedores = fornecedorRepository.findAllById(ids);
+		if (fornecedores.size() != ids.size()) {
+			Set<Integer> encontrados = fornecedores.stream().map(Fornecedor::getId).collect(Collectors.toSet());
+			throw new ObjectNotFoundException(ONFE_BYID
+					+ ids.stream().filter(id -> !encontrados.contains(id)).findFirst().orElse(null));
+		}
+		return fornecedores;
+	}
+
 	@Override
 	public Fornecedor findByCpfOrCnpj(String document) {
 		try {
@@ -101,40 +124,37 @@ public class FornecedorServiceImpl implements FornecedorService {
 	
 	@Override
 	public Page<FornecedorListDTO> findBy(TipoPessoa tipo, String nome, Set<Integer> categoriasId, PageRequest pageRequest) {
+		if (categoriasId == null || categoriasId.isEmpty())
+			return fornecedorRepository.findListBy(tipo, Utils.nullSeVazio(nome), pageRequest);
+		return fornecedorRepository.findListBy(tipo, Utils.nullSeVazio(nome), categoriasId, pageRequest);
+	}
 
-		ExampleMatcher matcher = PessoaService.ExampleMatcherDinamicFilterFor(true, tipo);
-
-		Pessoa pessoa = PessoaService.getPessoa(tipo,nome);
-	
-		Fornecedor fornecedor = new Fornecedor(null,  pessoa);
-		List<Fornecedor> fornecedores = new ArrayList<Fornecedor>();
-		if(  (tipo!=null || nome != null || (categoriasId != null && !categoriasId.isEmpty()))) {
-			
-			if(tipo!=null || nome != null)
-				fornecedores = fornecedorRepository.findAll(Example.of(fornecedor, matcher));
-			
-			if(categoriasId != null && !categoriasId.isEmpty()) {
-				Set<CategoriaItem> cats = categoriaService.findAllById(categoriasId);
-				
-				if(fornecedores.size() > 0) {
-					fornecedores.retainAll(fornecedorRepository.findDistinctByCategoriasIn(cats));
-				}
-				 else {
-					 
-					 fornecedores =  fornecedorRepository.findDistinctByCategoriasIn(cats,  pageRequest).getContent();
-				 }
-			}
-		}
-		else {
-			List<FornecedorListDTO> fornecedoresl = fornecedorRepository.findAll(pageRequest).stream()
-					.map(f-> new FornecedorListDTO(f)).collect(Collectors.toList());
-			return new PageImpl<>(fornecedoresl, pageRequest, fornecedoresl.size()); 
-		}
-
-		
-		List<FornecedorListDTO> fornecedorsDTO = fornecedores.stream().map(c -> new FornecedorListDTO(c)).collect(Collectors.toList());
+	@Override
+	public Slice<FornecedorListDTO> findBy(TipoPessoa tipo, String nome, Set<Integer> categoriasId,
+			PageRequest pageRequest, Contagem contagem) {
+		if (contagem == Contagem.EXATA)
+			return findBy(tipo, nome, categoriasId, pageRequest);
+		String nm = Utils.nullSeVazio(nome);
+		boolean semCategoria = categoriasId == null || categoriasId.isEmpty();
+		Slice<FornecedorListDTO> fatia = semCategoria ? fornecedorRepository.findSliceBy(tipo, nm, pageRequest)
+				: fornecedorRepository.findSliceBy(tipo, nm, categoriasId, pageRequest);
+		if (contagem == Contagem.NENHUMA)
+			return fatia;
+		return cacheContagem.pagina(fatia, "fornecedores",
+				() -> semCategoria ? fornecedorRepository.contaListBy(tipo, nm)
+						: fornecedorRepository.contaListBy(tipo, nm, categoriasId),
+				tipo, nm, semCategoria ? null : categoriasId);
+	}
 
-		return new PageImpl<>(fornecedorsDTO, pageRequest, fornecedorsDTO.size());
+	@Transactional(readOnly = true)
+	@Override
+	public CursorPage<FornecedorListDTO> findBy(TipoPessoa tipo, String nome, Set<Integer> categoriasId, String after,
+			String orderBy, Direction direcao, int tamanho, boolean contar) {
+		if (categoriasId == null || categoriasId.isEmpty())
+			return LISTAGEM.busca(entityManager, FornecedorRepository.FILTRO,
+					Arrays.asList(tipo, Utils.nullSeVazio(nome)), after, orderBy, direcao, tamanho, contar);
+		return LISTAGEM.busca(entityManager, FornecedorRepository.FILTRO_CATEGORIAS,
+				Arrays.asList(tipo, Utils.nullSeVazio(nome), categoriasId), after, orderBy, direcao, tamanho, contar);
 	}
 
 	@Transactional
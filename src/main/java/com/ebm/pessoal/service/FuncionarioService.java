@@ -1,25 +1,31 @@
 package com.ebm.pessoal.service;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.ebm.geral.domain.Contagem;
+import com.ebm.geral.domain.CursorPage;
 import com.ebm.geral.exceptions.DataIntegrityException;
 import com.ebm.geral.exceptions.ObjectNotFoundException;
+import com.ebm.geral.service.CacheContagem;
+import com.ebm.geral.utils.ListagemPorCursor;
 import com.ebm.geral.utils.Utils;
 import com.ebm.pessoal.domain.Cargo;
 import com.ebm.pessoal.domain.Cliente;
 import com.ebm.pessoal.domain.Funcionario;
-import com.ebm.pessoal.domain.Pessoa;
 import com.ebm.pessoal.domain.TipoPessoa;
 import com.ebm.pessoal.dtos.FuncionarioListDTO;
 import com.ebm.pessoal.repository.FuncionarioRepository;
@@ -45,6 +51,16 @@ public class FuncionarioService {
 	@Autowired
 	private FuncionarioRepository funcionarioRepository;
 
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private CacheContagem cacheContagem;
+
+	private static final ListagemPorCursor<FuncionarioListDTO> LISTAGEM = new ListagemPorCursor<>(
+			FuncionarioListDTO.class, FuncionarioRepository.LISTAGEM, FuncionarioRepository.CONTAGEM, "f.id",
+			FuncionarioListDTO::getId).chave("nome", "p.nome", String.class, FuncionarioListDTO::getNome);
+
 	@Autowired
 	private PessoaService pessoaService;
 	@Autowired
@@ -134,18 +150,29 @@ public class FuncionarioService {
 
 	public Page<FuncionarioListDTO> findBy(TipoPessoa tipo, String cargoNome, String nome, String matricula,
 			PageRequest pageRequest) {
+		return funcionarioRepository.findListBy(tipo, Utils.nullSeVazio(cargoNome), Utils.nullSeVazio(nome),
+				Utils.nullSeVazio(matricula), pageRequest);
+	}
 
-		ExampleMatcher matcher = PessoaService.ExampleMatcherDinamicFilterFor(true, tipo);
-		Pessoa pessoa = PessoaService.getPessoa(tipo, nome);
-		Cargo cargo = null;
-		if (Optional.ofNullable(cargoNome).isPresent())
-			cargo = new Cargo(null, cargoNome, null, null);
-		Funcionario funcionario = new Funcionario(null, pessoa, matricula, cargo, null, null, null);
-		Page<Funcionario> funcionarios = funcionarioRepository.findAll(Example.of(funcionario, matcher), pageRequest);
-		List<FuncionarioListDTO> funcionariosDTO = funcionarios.get().map(f -> new FuncionarioListDTO(f))
-				.collect(Collectors.toList());
-
-		return new PageImpl<>(funcionariosDTO, pageRequest, funcionariosDTO.size());
+	public Slice<FuncionarioListDTO> findBy(TipoPessoa tipo, String cargoNome, String nome, String matricula,
+			PageRequest pageRequest, Contagem contagem) {
+		if (contagem == Contagem.EXATA)
+			return findBy(tipo, cargoNome, nome, matricula, pageRequest);
+		String cg = Utils.nullSeVazio(cargoNome), nm = Utils.nullSeVazio(nome), mt = Utils.nullSeVazio(matricula);
+		Slice<FuncionarioListDTO> fatia = funcionarioRepository.findSliceBy(tipo, cg, nm, mt, pageRequest);
+		if (contagem == Contagem.NENHUMA)
+			return fatia;
+		return cacheContagem.pagina(fatia, "funcionarios", () -> funcionarioRepository.contaListBy(tipo, cg, nm, mt),
+				tipo, cg, nm, mt);
+	}
+
+	// por cursor: ordena por nome ou id e so conta quando pedido
+	@Transactional(readOnly = true)
+	public CursorPage<FuncionarioListDTO> findBy(TipoPessoa tipo, String cargoNome, String nome, String matricula,
+			String after, String orderBy, Direction direcao, int tamanho, boolean contar) {
+		return LISTAGEM.busca(entityManager, FuncionarioRepository.FILTRO, Arrays.asList(tipo,
+				Utils.nullSeVazio(cargoNome), Utils.nullSeVazio(nome), Utils.nullSeVazio(matricula)),
+				after, orderBy, direcao, tamanho, contar);
 	}
 
 	public Funcionario findByCpfOrCnpj(String document) {
@@ -160,12 +187,4 @@ public class FuncionarioService {
 	public boolean existWith(Cargo cargo) {
 		return funcionarioRepository.countByCargo(cargo) == 0 ? false : true;
 	}
-
-	public List<Integer> findIdByNomeLike(String nome) {
-		return funcionarioRepository.findAllIdByNomeLike(nome);
-	}
-
-	public List<Integer> findIdByEmailPrincipalLike(String email) {
-		return funcionarioRepository.findAllIdByEmailPrincipalLike(email);
-	}
 }
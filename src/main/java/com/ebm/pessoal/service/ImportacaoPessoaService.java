@@ -0,0 +1,496 @@
+package com.ebm.pessoal.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ebm.geral.exceptions.DataIntegrityException;
+import com.ebm.geral.service.CacheReferencias;
+import com.ebm.geral.service.CacheReferencias.Tabela;
+import com.ebm.geral.utils.Utils;
+import com.ebm.pessoal.domain.Cidade;
+import com.ebm.pessoal.domain.Email;
+import com.ebm.pessoal.domain.Endereco;
+import com.ebm.pessoal.domain.Estado;
+import com.ebm.pessoal.domain.Pessoa;
+import com.ebm.pessoal.domain.PessoaFisica;
+import com.ebm.pessoal.domain.PessoaJuridica;
+import com.ebm.pessoal.domain.RG;
+import com.ebm.pessoal.domain.Telefone;
+import com.ebm.pessoal.domain.TipoPessoa;
+import com.ebm.pessoal.dtos.RelatorioImportacaoDTO;
+import com.ebm.pessoal.repository.CidadeRepository;
+import com.ebm.pessoal.repository.EmailRepository;
+import com.ebm.pessoal.repository.EstadoRepository;
+import com.ebm.pessoal.repository.PessoaFisicaRepository;
+import com.ebm.pessoal.repository.PessoaJuridicaRepository;
+import com.ebm.pessoal.repository.TelefoneRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Cadastro de pessoas em massa a partir de csv ou ndjson. O arquivo e lido em
+ * lotes: cada lote resolve cidades e estados de uma vez, valida em paralelo,
+ * confere documentos, emails e telefones repetidos com uma consulta IN por
+ * tipo e grava o que sobrou, esvaziando o contexto de persistencia no fim.
+ * Linhas recusadas vao para o relatorio com o motivo; as demais sao gravadas.
+ */
+@Service
+public class ImportacaoPessoaService {
+
+	public static final MediaType TEXT_CSV = MediaType.valueOf("text/csv");
+	public static final MediaType APPLICATION_NDJSON = MediaType.valueOf("application/x-ndjson");
+
+	public static final String DATAINTEGRITY_FORMATO = DataIntegrityException.DEFAULT
+			+ ": Formato de importacao nao suportado: ";
+	public static final String DATAINTEGRITY_LEITURA = DataIntegrityException.DEFAULT
+			+ ": Nao foi possivel ler o arquivo de importacao";
+	public static final String DATAINTEGRITY_SEMCABECALHO = DataIntegrityException.DEFAULT
+			+ ": O csv precisa de uma linha de cabecalho com os nomes das colunas";
+	public static final String DATAINTEGRITY_COLUNA = DataIntegrityException.DEFAULT
+			+ ": Coluna desconhecida no cabecalho do csv: ";
+	public static final String INVALID_JSON = "Linha com json invalido: ";
+	public static final String INVALID_DATA = "O campo dataNascimento deve estar no formato aaaa-mm-dd";
+	public static final String NEED_TIPO = "O campo tipo não pode ser nulo";
+	public static final String WITH_ID = "A importacao so cadastra pessoas novas: a linha nao pode ter id";
+	public static final String DUPLICATE_RG = "Ja existe uma pessoa com esse RG";
+	public static final String DUPLICATE_EMAIL = "Ja existe o email: ";
+	public static final String DUPLICATE_TELEFONE = "Ja existe o telefone: ";
+
+	// uma linha por pessoa com um contato de cada tipo, que vira o principal
+	public static final List<String> COLUNAS = Arrays.asList("tipo", "nome", "documento", "razaoSocial",
+			"inscricaoEstadual", "inscricaoMunicipal", "dataNascimento", "rg", "rgEmissor", "rgUf", "nacionalidade",
+			"naturalidade", "naturalidadeUf", "email", "tipoEmail", "ddd", "telefone", "tipoTelefone", "rua",
+			"numero", "bairro", "complemento", "cep", "cidade", "uf", "estado", "tipoEndereco");
+
+	@Autowired
+	private PessoaService pessoaService;
+	@Autowired
+	private PessoaFisicaRepository pessoaFisicaRepository;
+	@Autowired
+	private PessoaJuridicaRepository pessoaJuridicaRepository;
+	@Autowired
+	private EmailRepository emailRepository;
+	@Autowired
+	private TelefoneRepository telefoneRepository;
+	@Autowired
+	private CidadeRepository cidadeRepository;
+	@Autowired
+	private EstadoRepository estadoRepository;
+	@Autowired
+	private CacheReferencias cacheReferencias;
+	@Autowired
+	private Validator validator;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Value("${pessoa.importacao.lote:500}")
+	private int tamanhoLote;
+
+	@Transactional
+	public RelatorioImportacaoDTO importa(BufferedReader leitor, MediaType tipo) {
+		boolean csv = TEXT_CSV.isCompatibleWith(tipo);
+		if (!csv && !APPLICATION_NDJSON.isCompatibleWith(tipo))
+			throw new DataIntegrityException(DATAINTEGRITY_FORMATO + tipo);
+
+		RelatorioImportacaoDTO relatorio = new RelatorioImportacaoDTO();
+		Localidades localidades = new Localidades();
+		List<Linha> lote = new ArrayList<>(tamanhoLote);
+		try {
+			String[] cabecalho = csv ? cabecalho(leitor.readLine()) : null;
+			int numero = csv ? 1 : 0;
+			String texto;
+			while ((texto = leitor.readLine()) != null) {
+				numero++;
+				if (texto.trim().isEmpty())
+					continue;
+				relatorio.setLidas(relatorio.getLidas() + 1);
+				lote.add(le(texto, numero, cabecalho));
+				if (lote.size() >= tamanhoLote) {
+					processa(lote, localidades, relatorio);
+					lote.clear();
+				}
+			}
+		} catch (IOException e) {
+			throw new DataIntegrityException(DATAINTEGRITY_LEITURA, e);
+		}
+		if (!lote.isEmpty())
+			processa(lote, localidades, relatorio);
+		return relatorio;
+	}
+
+	private void processa(List<Linha> lote, Localidades localidades, RelatorioImportacaoDTO relatorio) {
+		List<Linha> lidas = lote.stream().filter(l -> l.erro == null).collect(Collectors.toList());
+		localidades.resolve(lidas);
+		// anotacoes, documentos e contatos nao dependem do banco
+		lidas.parallelStream().forEach(l -> l.erro = valida(l.pessoa));
+		recusaRepetidas(lidas.stream().filter(l -> l.erro == null).collect(Collectors.toList()));
+
+		for (Linha linha : lote) {
+			if (linha.erro != null) {
+				relatorio.erro(linha.numero, linha.erro);
+			} else {
+				grava(linha.pessoa);
+				relatorio.setInseridas(relatorio.getInseridas() + 1);
+			}
+		}
+		// os inserts saem agrupados e o contexto nao cresce com o arquivo
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	private String valida(Pessoa pessoa) {
+		Set<ConstraintViolation<Pessoa>> violacoes = validator.validate(pessoa);
+		if (!violacoes.isEmpty())
+			return violacoes.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+		if (pessoa.getId() != null)
+			return WITH_ID;
+		if (pessoa instanceof PessoaFisica && !pessoaService.validateCPF(((PessoaFisica) pessoa).getCpf()))
+			return PessoaService.INVALID_CPF;
+		if (pessoa instanceof PessoaJuridica && !pessoaService.validateCNPJ(((PessoaJuridica) pessoa).getCnpj()))
+			return PessoaService.INVALID_CNPJ;
+		try {
+			pessoaService.garantaContatos(pessoa);
+		} catch (DataIntegrityException e) {
+			return e.getMessage();
+		}
+		return null;
+	}
+
+	private void recusaRepetidas(List<Linha> validas) {
+		if (validas.isEmpty())
+			return;
+		Set<String> cpfs = new HashSet<>();
+		Set<String> rgs = new HashSet<>();
+		Set<String> cnpjs = new HashSet<>();
+		Set<String> emails = new HashSet<>();
+		Set<String> numeros = new HashSet<>();
+		for (Linha linha : validas) {
+			if (linha.pessoa instanceof PessoaFisica) {
+				cpfs.add(((PessoaFisica) linha.pessoa).getCpf());
+				rgs.add(((PessoaFisica) linha.pessoa).getRG().getRG());
+			} else {
+				cnpjs.add(((PessoaJuridica) linha.pessoa).getCnpj());
+			}
+			linha.pessoa.getEmail().forEach(e -> emails.add(e.getEmail()));
+			linha.pessoa.getTelefone().forEach(t -> numeros.add(t.getNumero()));
+		}
+
+		Chaves usadas = new Chaves(cpfs.isEmpty() ? new HashSet<>() : pessoaFisicaRepository.findCpfIn(cpfs),
+				rgs.isEmpty() ? new HashSet<>() : pessoaFisicaRepository.findRgIn(rgs),
+				cnpjs.isEmpty() ? new HashSet<>() : pessoaJuridicaRepository.findCnpjIn(cnpjs),
+				emails.isEmpty() ? new HashSet<>() : emailRepository.findEmailIn(emails),
+				numeros.isEmpty() ? new HashSet<>() : telefoneRepository.findDddNumeroByNumeroIn(numeros));
+		validas.forEach(l -> l.erro = usadas.reserva(l.pessoa));
+	}
+
+	private void grava(Pessoa pessoa) {
+		pessoa.getEndereco().forEach(e -> {
+			persistida(e.getCidade());
+			Utils.audita(e.getHistorico());
+			entityManager.persist(e);
+		});
+		pessoa.getEmail().forEach(e -> {
+			Utils.audita(e.getHistorico());
+			entityManager.persist(e);
+		});
+		pessoa.getTelefone().forEach(t -> {
+			Utils.audita(t.getHistorico());
+			entityManager.persist(t);
+		});
+		if (pessoa instanceof PessoaFisica) {
+			PessoaFisica pf = (PessoaFisica) pessoa;
+			persistida(pf.getNaturalidade());
+			if (pf.getRG().getUF() != null)
+				persistido(pf.getRG().getUF());
+		}
+		Utils.audita(pessoa.getHistorico());
+		entityManager.persist(pessoa);
+	}
+
+	// cidade e estado novos so vao ao banco quando uma linha valida os usa; depois do clear seguem como referencia
+	private void persistida(Cidade cidade) {
+		if (cidade.getId() != null)
+			return;
+		persistido(cidade.getEstado());
+		Utils.audita(cidade.getHistorico());
+		entityManager.persist(cidade);
+		cacheReferencias.invalida(Tabela.CIDADE, CacheReferencias.chaveCidade(cidade.getNome(), cidade.getEstado().getUf()));
+	}
+
+	private void persistido(Estado estado) {
+		if (estado.getId() != null)
+			return;
+		entityManager.persist(estado);
+		cacheReferencias.invalida(Tabela.ESTADO, estado.getUf());
+	}
+
+	// leitura
+	// --------------------------------------------------------------------------------------------------------
+	private Linha le(String texto, int numero, String[] cabecalho) {
+		Linha linha = new Linha(numero);
+		try {
+			linha.pessoa = cabecalho == null ? objectMapper.readValue(texto, Pessoa.class)
+					: daLinhaCsv(cabecalho, campos(texto));
+			if (linha.pessoa == null)
+				linha.erro = INVALID_JSON + texto;
+		} catch (JsonProcessingException e) {
+			linha.erro = INVALID_JSON + e.getOriginalMessage();
+		} catch (DateTimeParseException e) {
+			linha.erro = INVALID_DATA;
+		} catch (DataIntegrityException e) {
+			linha.erro = e.getMessage();
+		}
+		return linha;
+	}
+
+	private String[] cabecalho(String texto) {
+		if (texto == null || texto.trim().isEmpty())
+			throw new DataIntegrityException(DATAINTEGRITY_SEMCABECALHO);
+		// excel grava o BOM do utf-8 no inicio do arquivo
+		String[] colunas = campos(texto.replace("\uFEFF", "")).stream().map(String::trim).toArray(String[]::new);
+		for (String coluna : colunas)
+			if (!COLUNAS.contains(coluna))
+				throw new DataIntegrityException(DATAINTEGRITY_COLUNA + coluna);
+		return colunas;
+	}
+
+	private Pessoa daLinhaCsv(String[] cabecalho, List<String> valores) {
+		Map<String, String> c = new HashMap<>();
+		for (int i = 0; i < cabecalho.length && i < valores.size(); i++)
+			c.put(cabecalho[i], Utils.nullSeVazio(valores.get(i).trim()));
+
+		TipoPessoa tipo = TipoPessoa.fromString(c.get("tipo"));
+		if (tipo == null)
+			throw new DataIntegrityException(NEED_TIPO);
+		Pessoa pessoa;
+		if (tipo == TipoPessoa.PESSOA_JURIDICA) {
+			pessoa = new PessoaJuridica(null, c.get("nome"), c.get("documento"), c.get("razaoSocial"),
+					c.get("inscricaoEstadual"), c.get("inscricaoMunicipal"));
+		} else {
+			LocalDate nascimento = c.get("dataNascimento") == null ? null : LocalDate.parse(c.get("dataNascimento"));
+			RG rg = new RG(c.get("rg"), c.get("rgEmissor"), estado(c.get("rgUf"), null));
+			pessoa = new PessoaFisica(null, c.get("nome"), c.get("documento"), nascimento, rg,
+					c.get("nacionalidade"), cidade(c.get("naturalidade"), c.get("naturalidadeUf"), null));
+		}
+		pessoa.getEmail().add(new Email(null, c.get("email"), c.get("tipoEmail"), true));
+		pessoa.getTelefone().add(new Telefone(null, c.get("ddd"), c.get("telefone"), c.get("tipoTelefone"), true));
+		pessoa.getEndereco()
+				.add(new Endereco(null, c.get("rua"), c.get("bairro"), cidade(c.get("cidade"), c.get("uf"), c.get("estado")),
+						c.get("numero"), c.get("complemento"), c.get("cep"), true, c.get("tipoEndereco")));
+		return pessoa;
+	}
+
+	private static Cidade cidade(String nome, String uf, String nomeEstado) {
+		return nome == null && uf == null ? null : new Cidade(null, nome, estado(uf, nomeEstado));
+	}
+
+	private static Estado estado(String uf, String nome) {
+		return uf == null ? null : new Estado(null, uf.toUpperCase(), nome);
+	}
+
+	// campos separados por virgula; entre aspas a virgula e literal e "" vira uma aspa. Nao aceita quebra de linha no campo
+	static List<String> campos(String linha) {
+		List<String> campos = new ArrayList<>();
+		StringBuilder campo = new StringBuilder();
+		boolean aspas = false;
+		for (int i = 0; i < linha.length(); i++) {
+			char c = linha.charAt(i);
+			if (aspas && c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+				campo.append('"');
+				i++;
+			} else if (c == '"') {
+				aspas = !aspas;
+			} else if (c == ',' && !aspas) {
+				campos.add(campo.toString());
+				campo.setLength(0);
+			} else {
+				campo.append(c);
+			}
+		}
+		campos.add(campo.toString());
+		return campos;
+	}
+
+	// auxiliares
+	// --------------------------------------------------------------------------------------------------------
+	private static class Linha {
+		private final int numero;
+		private Pessoa pessoa;
+		private String erro;
+
+		private Linha(int numero) {
+			this.numero = numero;
+		}
+	}
+
+	// chaves unicas ja gravadas; cada linha aceita reserva as suas para as seguintes do lote
+	private static class Chaves {
+		private final Set<String> cpfs;
+		private final Set<String> rgs;
+		private final Set<String> cnpjs;
+		private final Set<String> emails;
+		private final Set<String> telefones;
+
+		private Chaves(Set<String> cpfs, Set<String> rgs, Set<String> cnpjs, Set<String> emails,
+				Set<String> telefones) {
+			this.cpfs = new HashSet<>(cpfs);
+			this.rgs = new HashSet<>(rgs);
+			this.cnpjs = new HashSet<>(cnpjs);
+			this.emails = new HashSet<>(emails);
+			this.telefones = new HashSet<>(telefones);
+		}
+
+		private String reserva(Pessoa pessoa) {
+			if (pessoa instanceof PessoaFisica) {
+				PessoaFisica pf = (PessoaFisica) pessoa;
+				if (cpfs.contains(pf.getCpf()))
+					return PessoaService.DUPLICATE_CPF;
+				if (rgs.contains(pf.getRG().getRG()))
+					return DUPLICATE_RG;
+			} else if (cnpjs.contains(((PessoaJuridica) pessoa).getCnpj())) {
+				return PessoaService.DUPLICATE_CNPJ;
+			}
+			Set<String> proprios = new HashSet<>();
+			for (Email email : pessoa.getEmail())
+				if (emails.contains(email.getEmail()) || !proprios.add(email.getEmail()))
+					return DUPLICATE_EMAIL + email.getEmail();
+			for (Telefone telefone : pessoa.getTelefone())
+				if (telefones.contains(chave(telefone)) || !proprios.add(chave(telefone)))
+					return DUPLICATE_TELEFONE + telefone;
+
+			if (pessoa instanceof PessoaFisica) {
+				cpfs.add(((PessoaFisica) pessoa).getCpf());
+				rgs.add(((PessoaFisica) pessoa).getRG().getRG());
+			} else {
+				cnpjs.add(((PessoaJuridica) pessoa).getCnpj());
+			}
+			pessoa.getEmail().forEach(e -> emails.add(e.getEmail()));
+			pessoa.getTelefone().forEach(t -> telefones.add(chave(t)));
+			return null;
+		}
+
+		// mesmo formato de TelefoneRepository.findDddNumeroByNumeroIn
+		private static String chave(Telefone telefone) {
+			return telefone.getDdd() + " " + telefone.getNumero();
+		}
+	}
+
+	// uma instancia por uf e por (cidade, uf) durante toda a importacao: cada uma e buscada ou criada uma vez so.
+	// A uf e comparada em maiusculas, como em CidadeRepository.findOneByNomeAndEstado: "sp" e o "SP" gravado
+	private class Localidades {
+		private final Map<String, Estado> estados = new HashMap<>();
+		private final Map<String, Cidade> cidades = new HashMap<>();
+
+		private void resolve(List<Linha> linhas) {
+			Set<String> nomes = new HashSet<>();
+			Set<String> ufsCidades = new HashSet<>();
+			linhas.stream().flatMap(l -> cidadesDe(l.pessoa)).filter(c -> chave(c) != null)
+					.filter(c -> !cidades.containsKey(chave(c))).forEach(c -> {
+						nomes.add(c.getNome().toLowerCase());
+						ufsCidades.add(uf(c.getEstado()));
+					});
+			Set<String> ufs = linhas.stream().flatMap(l -> estadosDe(l.pessoa)).map(e -> uf(e))
+					.filter(uf -> uf != null && !estados.containsKey(uf)).collect(Collectors.toSet());
+
+			// no maximo uma consulta de estados e uma de cidades por lote
+			if (!ufs.isEmpty())
+				estadoRepository.findAllByUfIn(ufs).forEach(e -> estados.putIfAbsent(uf(e), e));
+			if (!nomes.isEmpty())
+				cidadeRepository.findAllByNomeInAndUfIn(nomes, ufsCidades)
+						.forEach(c -> cidades.putIfAbsent(chave(c), c));
+
+			linhas.forEach(l -> substitui(l.pessoa));
+		}
+
+		private void substitui(Pessoa pessoa) {
+			Optional.ofNullable(pessoa.getEndereco())
+					.ifPresent(enderecos -> enderecos.stream().filter(Objects::nonNull)
+							.forEach(e -> e.setCidade(cidade(e.getCidade()))));
+			if (pessoa instanceof PessoaFisica) {
+				PessoaFisica pf = (PessoaFisica) pessoa;
+				pf.setNaturalidade(cidade(pf.getNaturalidade()));
+				if (pf.getRG() != null)
+					pf.getRG().setUF(estado(pf.getRG().getUF()));
+			}
+		}
+
+		private Cidade cidade(Cidade cidade) {
+			String chave = chave(cidade);
+			if (chave == null)
+				return cidade;
+			cidade.setEstado(estado(cidade.getEstado()));
+			Cidade atual = cidades.putIfAbsent(chave, cidade);
+			return atual == null ? cidade : atual;
+		}
+
+		private Estado estado(Estado estado) {
+			if (estado == null || estado.getUf() == null)
+				return estado;
+			// so o estado novo e gravado em maiusculas; o ja gravado fica como esta
+			if (estado.getId() == null)
+				estado.setUf(uf(estado));
+			Estado atual = estados.putIfAbsent(uf(estado), estado);
+			if (atual == null)
+				return estado;
+			// uf nova: basta uma linha trazer o nome do estado
+			if (atual.getId() == null && atual.getNome() == null)
+				atual.setNome(estado.getNome());
+			return atual;
+		}
+
+		private String chave(Cidade cidade) {
+			if (cidade == null || cidade.getNome() == null || cidade.getEstado() == null
+					|| cidade.getEstado().getUf() == null)
+				return null;
+			return cidade.getNome().toLowerCase() + "|" + uf(cidade.getEstado());
+		}
+
+		private String uf(Estado estado) {
+			return estado.getUf() == null ? null : estado.getUf().toUpperCase();
+		}
+
+		private Stream<Cidade> cidadesDe(Pessoa pessoa) {
+			Stream<Cidade> enderecos = Optional.ofNullable(pessoa.getEndereco()).map(List::stream)
+					.orElseGet(Stream::empty).filter(Objects::nonNull).map(Endereco::getCidade);
+			if (pessoa instanceof PessoaFisica)
+				return Stream.concat(enderecos, Stream.of(((PessoaFisica) pessoa).getNaturalidade()));
+			return enderecos;
+		}
+
+		private Stream<Estado> estadosDe(Pessoa pessoa) {
+			Stream<Estado> dasCidades = cidadesDe(pessoa).filter(Objects::nonNull).map(Cidade::getEstado)
+					.filter(Objects::nonNull);
+			if (pessoa instanceof PessoaFisica && ((PessoaFisica) pessoa).getRG() != null
+					&& ((PessoaFisica) pessoa).getRG().getUF() != null)
+				return Stream.concat(dasCidades, Stream.of(((PessoaFisica) pessoa).getRG().getUF()));
+			return dasCidades;
+		}
+	}
+
+}
@@ -3,14 +3,13 @@ package com.ebm.pessoal.service;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import javax.transaction.Transactional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.stereotype.Service;
 
 import com.ebm.geral.exceptions.DataIntegrityException;
@@ -24,13 +23,12 @@ import com.ebm.pessoal.domain.PessoaJuridica;
 import com.ebm.pessoal.domain.Principalizar;
 import com.ebm.pessoal.domain.RG;
 import com.ebm.pessoal.domain.Telefone;
-import com.ebm.pessoal.domain.TipoPessoa;
 import com.ebm.pessoal.repository.PessoaFisicaRepository;
 import com.ebm.pessoal.repository.PessoaJuridicaRepository;
+import com.ebm.pessoal.repository.PessoaRepository;
 
 import br.com.caelum.stella.validation.CNPJValidator;
 import br.com.caelum.stella.validation.CPFValidator;
-import br.com.caelum.stella.validation.InvalidStateException;
 
 @Service
 public class PessoaService {
@@ -51,6 +49,11 @@ public class PessoaService {
 	public static final String MOREONEPRINCIPAL = DataIntegrityException.DEFAULT
 			+ ": Uma pessoa só pode possuir um atributo principal do tipo ";
 
+	private static final CPFValidator CPF_VALIDATOR = new CPFValidator();
+	private static final CNPJValidator CNPJ_VALIDATOR = new CNPJValidator();
+
+	@Autowired
+	private PessoaRepository pessoaRepository;
 	@Autowired
 	private PessoaFisicaRepository pessoaFisicaRepository;
 	@Autowired
@@ -65,6 +68,8 @@ public class PessoaService {
 	private CidadeService cidadeService;
 	@Autowired
 	private EstadoService estadoService;
+	@Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+	private int batchSize;
 
 	// insert
 	// --------------------------------------------------------------------------------------------------------
@@ -107,16 +112,26 @@ public class PessoaService {
 
 	public Pessoa save(Pessoa pessoa) {
 		try{
-			return pessoa instanceof PessoaFisica ? save((PessoaFisica) pessoa) : save((PessoaJuridica) pessoa);
+			Pessoa salva = salva(pessoa);
+			pessoaRepository.flush();
+			return salva;
 		}catch ( DataIntegrityViolationException ex)  {
 			throw new DataIntegrityException(ex.getMessage());
 		}
 		
 	}
 
+	private Pessoa salva(Pessoa pessoa) {
+		return pessoa instanceof PessoaFisica ? save((PessoaFisica) pessoa) : save((PessoaJuridica) pessoa);
+	}
+
 	@Transactional
 	public List<Pessoa> saveAll(List<Pessoa> pessoas) {
-		return pessoas.stream().map(p -> save(p)).collect(Collectors.toList());
+		try{
+			return Utils.salvaEmLotes(pessoas, this::salva, pessoaRepository::flush, batchSize);
+		}catch ( DataIntegrityViolationException ex)  {
+			throw new DataIntegrityException(ex.getMessage());
+		}
 	}
 
 	// delete
@@ -170,12 +185,8 @@ public class PessoaService {
 	// find
 	// --------------------------------------------------------------------------------------------------------
 	public Pessoa findById(Integer id) {
-		Optional<PessoaFisica> pf = pessoaFisicaRepository.findById(id);
-
-		if (pf.isPresent())
-			return pf.get();
-
-		return pessoaJuridicaRepository.findById(id).orElseThrow(() -> new ObjectNotFoundException(NOT_FOUND_ID + id));
+		// uma consulta polimorfica com enderecos, cidade e estado; email e telefone vem por lote quando acessados
+		return pessoaRepository.findCompletaById(id).orElseThrow(() -> new ObjectNotFoundException(NOT_FOUND_ID + id));
 	}
 
 	public PessoaFisica findPF(Integer id) {
@@ -223,6 +234,16 @@ public class PessoaService {
 	// --------------------------------------------------------------------------------------------------------
 
 	private void saveAssociations(Pessoa p) {
+		garantaContatos(p);
+
+		p.setEndereco(enderecoService.salveAll(p.getEndereco()));
+		p.setEmail(emailService.saveAll(p.getEmail()));
+		p.setTelefone(telefoneService.saveAll(p.getTelefone()));
+
+	}
+
+	// ao menos um contato de cada tipo e no maximo um principal; com um so, ele vira o principal
+	public void garantaContatos(Pessoa p) {
 		Optional<List<Endereco>> enderecos = Optional.ofNullable(p.getEndereco());
 		Optional<List<Telefone>> telefones = Optional.ofNullable(p.getTelefone());
 		Optional<List<Email>> emails = Optional.ofNullable(p.getEmail());
@@ -237,11 +258,6 @@ public class PessoaService {
 		integridadeAssociacaoEPrincipal(enderecos.get());
 		integridadeAssociacaoEPrincipal(telefones.get());
 		integridadeAssociacaoEPrincipal(emails.get());
-
-		p.setEndereco(enderecoService.salveAll(p.getEndereco()));
-		p.setEmail(emailService.saveAll(p.getEmail()));
-		p.setTelefone(telefoneService.saveAll(p.getTelefone()));
-
 	}
 
 	private void integridadeAssociacaoEPrincipal(List<? extends Principalizar> entidade) {
@@ -251,24 +267,13 @@ public class PessoaService {
 			throw new DataIntegrityException(MOREONEPRINCIPAL + entidade.get(0).getClass().getSimpleName());
 	}
 
+	// os validadores do stella sao imutaveis: uma instancia serve a todas as threads, sem excecao por documento
 	public boolean validateCPF(String cpf) {
-		try {
-			CPFValidator cpfValidator = new CPFValidator();
-			cpfValidator.assertValid(cpf);
-			return true;
-		} catch (InvalidStateException e) {
-			return false;
-		}
+		return CPF_VALIDATOR.invalidMessagesFor(cpf).isEmpty();
 	}
 
 	public boolean validateCNPJ(String cnpj) {
-		try {
-			CNPJValidator cnpjValidator = new CNPJValidator();
-			cnpjValidator.assertValid(cnpj);
-			return true;
-		} catch (InvalidStateException e) {
-			return false;
-		}
+		return CNPJ_VALIDATOR.invalidMessagesFor(cnpj).isEmpty();
 	}
 
 	public void deleteAll(boolean b) {
@@ -283,17 +288,4 @@ public class PessoaService {
 
 	}
 
-	public static ExampleMatcher ExampleMatcherDinamicFilterFor(Boolean ignoreCase, TipoPessoa tipo) {
-		ExampleMatcher matcher = Utils.getExampleMatcherForDinamicFilter(ignoreCase);
-		if (tipo == null)
-			matcher = matcher.withIgnorePaths("pessoa.tipo");
-		return matcher;
-	}
-
-	public static Pessoa getPessoa(TipoPessoa tipo, String nome) {
-		if (tipo == null || tipo.equals(TipoPessoa.PESSOA_FISICA))
-			return new PessoaFisica().withNome(nome);
-		return new PessoaJuridica().withNome(nome);
-	}
-
 }
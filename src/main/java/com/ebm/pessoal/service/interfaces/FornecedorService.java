@@ -5,8 +5,12 @@ import java.util.Set;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.stereotype.Service;
 
+import com.ebm.geral.domain.Contagem;
+import com.ebm.geral.domain.CursorPage;
 import com.ebm.geral.exceptions.DataIntegrityException;
 import com.ebm.geral.exceptions.ObjectNotFoundException;
 import com.ebm.pessoal.domain.Fornecedor;
@@ -31,6 +35,8 @@ public interface FornecedorService {
 
 	Fornecedor findById(Integer id);
 
+	List<Fornecedor> findAllById(Set<Integer> ids);
+
 	Fornecedor findByCpfOrCnpj(String cnpj);
 
 	List<Fornecedor> saveAll(List<Fornecedor> fornecedores);
@@ -38,5 +44,11 @@ public interface FornecedorService {
 	Page<FornecedorListDTO> findBy(TipoPessoa tipo, String nome, Set<Integer> categorias,
 			PageRequest pageRequest);
 
+	Slice<FornecedorListDTO> findBy(TipoPessoa tipo, String nome, Set<Integer> categorias, PageRequest pageRequest,
+			Contagem contagem);
+
+	CursorPage<FornecedorListDTO> findBy(TipoPessoa tipo, String nome, Set<Integer> categorias, String after,
+			String orderBy, Direction direcao, int tamanho, boolean contar);
+
 	void delete(Integer id);
 }
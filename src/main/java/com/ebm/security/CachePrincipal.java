@@ -0,0 +1,20 @@
+package com.ebm.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ebm.geral.utils.CacheLimitado;
+
+/**
+ * Usuarios ja autenticados por login, para o filtro JWT nao ir ao banco a cada
+ * requisicao. Alteracoes no usuario devem chamar {@link #invalida(Object)}.
+ */
+@Component
+public class CachePrincipal extends CacheLimitado<String, Usuario> {
+
+	public CachePrincipal(@Value("${jwt.cache.ttl:60000}") long ttlMillis,
+			@Value("${jwt.cache.tamanho:1000}") int tamanho) {
+		super(ttlMillis, tamanho);
+	}
+
+}
@@ -0,0 +1,21 @@
+package com.ebm.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ebm.geral.utils.CacheLimitado;
+
+/**
+ * Versao de permissoes de cada usuario por id, conferida contra a do token
+ * quando as permissoes vem nele. Em outro no a revogacao vale apos a
+ * validade da entrada.
+ */
+@Component
+public class CacheVersao extends CacheLimitado<Integer, Integer> {
+
+	public CacheVersao(@Value("${jwt.cache.ttl:60000}") long ttlMillis,
+			@Value("${jwt.cache.tamanho:1000}") int tamanho) {
+		super(ttlMillis, tamanho);
+	}
+
+}
@@ -1,11 +1,17 @@
 package com.ebm.security;
 
+import java.util.Base64;
+import java.util.BitSet;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 
@@ -18,15 +24,54 @@ public class JWTUtil {
 	@Value("${jwt.expiration}")
 	private Long exp;
 	
-	public String generatedToken(String username) {
-		return Jwts.builder()
-				.setSubject(username)
-				.setExpiration(new Date(System.currentTimeMillis()+exp))
-
-				.signWith(SignatureAlgorithm.HS512, secret.getBytes())
+	// true: o token leva id, permissoes e versao do usuario e o filtro nao consulta o usuario
+	@Value("${jwt.permissoes-no-token:false}")
+	private boolean permissoesNoToken;
+	
+	private static final String CLAIM_ID = "uid";
+	private static final String CLAIM_PERMISSOES = "per";
+	private static final String CLAIM_VERSAO = "ver";
+	
+	public String generatedToken(Usuario user) {
+		JwtBuilder builder = Jwts.builder()
+				.setSubject(user.getUsername())
+				.setExpiration(new Date(System.currentTimeMillis()+exp));
+		if(permissoesNoToken)
+			builder.claim(CLAIM_ID, user.getId())
+					.claim(CLAIM_PERMISSOES, codifica(user.getPermissoes()))
+					.claim(CLAIM_VERSAO, user.getVersao());
+		return builder.signWith(SignatureAlgorithm.HS512, secret.getBytes())
 				.compact();
 	}
 
+	// usuario montado so com o que veio no token; null se o token nao leva permissoes
+	public Usuario getUsuario(Claims claims) {
+		String permissoes = claims.get(CLAIM_PERMISSOES, String.class);
+		Integer id = claims.get(CLAIM_ID, Integer.class);
+		Integer versao = claims.get(CLAIM_VERSAO, Integer.class);
+		if(permissoes == null || id == null || versao == null)
+			return null;
+		try {
+			Usuario user = new Usuario(id, claims.getSubject(), null, versao);
+			user.setPermissoes(decodifica(permissoes));
+			return user;
+		} catch(IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	// um bit por PermissaoE.id, em base64 url
+	private static String codifica(Set<PermissaoE> permissoes) {
+		BitSet bits = new BitSet();
+		permissoes.forEach(p -> bits.set(p.getId()));
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bits.toByteArray());
+	}
+
+	private static Set<PermissaoE> decodifica(String permissoes) {
+		return BitSet.valueOf(Base64.getUrlDecoder().decode(permissoes)).stream()
+				.mapToObj(PermissaoE::toEnum).collect(Collectors.toCollection(() -> EnumSet.noneOf(PermissaoE.class)));
+	}
+
 	public String getUsername(String token) {
 		Claims claims = getClaims(token);
 		if(claims != null) 
@@ -35,15 +80,22 @@ public class JWTUtil {
 	}
 
 	public boolean tokenValido(String token) {
+		return getUsernameSeValido(token) != null;
+	}
+
+	// uma unica leitura do token: assinatura, expiracao e login; null se o token nao serve
+	public String getUsernameSeValido(String token) {
+		Claims claims = getClaimsSeValido(token);
+		return claims == null ? null : claims.getSubject();
+	}
+
+	public Claims getClaimsSeValido(String token) {
 		Claims claims = getClaims(token);
-		if(claims != null) {
-			String username = getUsername(token);
-			Date expirationDate = claims.getExpiration();
-			Date now = new Date(System.currentTimeMillis());
-			if(username != null && now != null && now.before(expirationDate))
-				return true;
-		}
-		return false;
+		if(claims == null || claims.getSubject() == null || claims.getExpiration() == null)
+			return null;
+		if(!new Date(System.currentTimeMillis()).before(claims.getExpiration()))
+			return null;
+		return claims;
 	}
 
 	private Claims getClaims(String token) {
@@ -9,6 +9,8 @@ import java.util.stream.Stream;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
@@ -70,12 +72,28 @@ public enum PermissaoE  {
 	@JsonIgnore
 	private String nome;
 	private String descricao;
+	// uma instancia por permissao, compartilhada por todos os usuarios
+	@JsonIgnore
+	private final GrantedAuthority authority;
+
+	// indice pelo id: toEnum e chamado para cada permissao de cada usuario carregado
+	private static final PermissaoE[] POR_ID;
+
+	static {
+		int maior = 0;
+		for(PermissaoE p: values())
+			maior = Math.max(maior, p.id);
+		POR_ID = new PermissaoE[maior + 1];
+		for(PermissaoE p: values())
+			POR_ID[p.id] = p;
+	}
 
 	private PermissaoE(Integer id, Modulo mod, String nome, String descricao) {
 		this.id =id;
 		this.mod=mod;
 		this.nome =nome;
 		this.descricao = descricao;
+		this.authority = new SimpleGrantedAuthority(nome);
 	}
 
 	public Integer getId() {
@@ -93,16 +111,19 @@ public enum PermissaoE  {
 	public String getDescricao() {
 		return descricao;
 	}
+
+	public GrantedAuthority getAuthority() {
+		return authority;
+	}
+
 	public static PermissaoE toEnum(Integer id) {
 		if(id == null) {
 			return null;
 		}
-		for(PermissaoE p: PermissaoE.values()) {
-			if(id.equals(p.getId()))
-				return p;
-		}
-		
-		throw new IllegalArgumentException("id invalido: " + id);
+		PermissaoE p = id >= 0 && id < POR_ID.length ? POR_ID[id] : null;
+		if(p == null)
+			throw new IllegalArgumentException("id invalido: " + id);
+		return p;
 	}
 	
 	public static Page<PermissaoE> findPermissoesByDescAndModule(String desc, Modulo modulo, PageRequest page){
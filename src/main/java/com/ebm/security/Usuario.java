@@ -1,6 +1,8 @@
 package com.ebm.security;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -10,21 +12,21 @@ import javax.persistence.ElementCollection;
 import javax.persistence.Embedded;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
-import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.MapsId;
 import javax.persistence.OneToOne;
+import javax.persistence.Table;
 import javax.persistence.Transient;
 
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import com.ebm.pessoal.domain.Funcionario;
 import com.ebm.pessoal.domain.HistoricoCadastral;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
@@ -33,12 +35,12 @@ import lombok.Setter;
 @Getter
 @Setter
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Table(indexes = @Index(name = "idx_usuario_login", columnList = "login"))
 public class Usuario implements UserDetails {
 
 	private static final long serialVersionUID = 1L;
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	@EqualsAndHashCode.Include
 	private Integer id;
 
@@ -51,6 +53,20 @@ public class Usuario implements UserDetails {
 
 	@ElementCollection(fetch = FetchType.EAGER)
 	private Set<Integer> permissoes = new HashSet<>();
+	// montados de permissoes no primeiro uso e descartados quando ela muda; imutaveis, o principal e compartilhado
+	@Transient
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private transient Set<PermissaoE> permissoesE;
+	@Transient
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private transient Set<GrantedAuthority> authorities;
+
+	// incrementa quando login ou permissoes mudam: tokens com permissoes embutidas e versao antiga deixam de valer
+	@JsonIgnore
+	@Column(nullable = false)
+	private int versao;
 
 	@MapsId
 	@OneToOne
@@ -68,6 +84,11 @@ public class Usuario implements UserDetails {
 
 	}
 
+	public Usuario(Integer id, String login, String senha, int versao) {
+		this(id, login, senha);
+		this.versao = versao;
+	}
+
 	public String getEmail() {
 		return this.funcionario.getPessoa().getEmailPrincipal().getEmail();
 	}
@@ -92,8 +113,13 @@ public class Usuario implements UserDetails {
 	@Transient
 	@Override
 	public Collection<? extends GrantedAuthority> getAuthorities() {
-		return permissoes.stream().map(x -> new SimpleGrantedAuthority(PermissaoE.toEnum(x).getNome()))
-				.collect(Collectors.toSet());
+		Set<GrantedAuthority> result = authorities;
+		if (result == null) {
+			result = Collections.unmodifiableSet(
+					getPermissoes().stream().map(PermissaoE::getAuthority).collect(Collectors.toSet()));
+			authorities = result;
+		}
+		return result;
 	}
 
 	@JsonIgnore
@@ -136,18 +162,33 @@ public class Usuario implements UserDetails {
 
 	public void addPermissao(PermissaoE permissao) {
 		this.permissoes.add(permissao.getId());
+		limpaDerivados();
 	}
 
 	public void removePermissao(PermissaoE permissao) {
 		this.permissoes.remove(permissao.getId());
+		limpaDerivados();
 	}
 
 	public Set<PermissaoE> getPermissoes() {
-		return permissoes.stream().map(p -> PermissaoE.toEnum(p)).collect(Collectors.toSet());
+		Set<PermissaoE> result = permissoesE;
+		if (result == null) {
+			EnumSet<PermissaoE> enumSet = EnumSet.noneOf(PermissaoE.class);
+			permissoes.forEach(p -> enumSet.add(PermissaoE.toEnum(p)));
+			result = Collections.unmodifiableSet(enumSet);
+			permissoesE = result;
+		}
+		return result;
 	}
 
 	public void setPermissoes(Set<PermissaoE> permissao) {
 		this.permissoes = permissao.stream().map(p -> p.getId()).collect(Collectors.toSet());
+		limpaDerivados();
+	}
+
+	private void limpaDerivados() {
+		this.permissoesE = null;
+		this.authorities = null;
 	}
 
 }
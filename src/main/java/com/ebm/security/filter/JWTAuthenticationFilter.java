@@ -55,8 +55,7 @@ public class JWTAuthenticationFilter extends UsernamePasswordAuthenticationFilte
 	protected void successfulAuthentication(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
 			Authentication authResult) throws IOException, ServletException {
 	
-		String username = ((Usuario) authResult.getPrincipal()).getUsername();
-		String token = jwtUtil.generatedToken(username);
+		String token = jwtUtil.generatedToken((Usuario) authResult.getPrincipal());
 		response.addHeader("Authorization",  "Bearer " + token);
 		response.addHeader("access-control-expose-headers", "Authorization");
 		
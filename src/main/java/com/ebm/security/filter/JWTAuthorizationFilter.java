@@ -10,18 +10,20 @@ import javax.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 import com.ebm.security.JWTUtil;
 import com.ebm.security.Usuario;
+import com.ebm.security.service.UsuarioService;
+
+import io.jsonwebtoken.Claims;
 
 public class JWTAuthorizationFilter extends BasicAuthenticationFilter {
 
 	private JWTUtil jwtUtil;
-	private UserDetailsService userService;
+	private UsuarioService userService;
 
-	public JWTAuthorizationFilter(AuthenticationManager authenticationManager, JWTUtil jwtUtil, UserDetailsService userService) {
+	public JWTAuthorizationFilter(AuthenticationManager authenticationManager, JWTUtil jwtUtil, UsuarioService userService) {
 		super(authenticationManager);
 		this.jwtUtil = jwtUtil;
 		this.userService = userService;
@@ -42,12 +44,16 @@ public class JWTAuthorizationFilter extends BasicAuthenticationFilter {
 	}
 
 	private UsernamePasswordAuthenticationToken getAuthentication(String token) {
-		if(jwtUtil.tokenValido(token)) {
-			String username = jwtUtil.getUsername(token);
-			Usuario user = (Usuario) userService.loadUserByUsername(username);
-			return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
-		}
-		return null;
+		Claims claims = jwtUtil.getClaimsSeValido(token);
+		if(claims == null)
+			return null;
+		// com as permissoes no token basta conferir a versao, que fica em memoria
+		Usuario user = jwtUtil.getUsuario(claims);
+		if(user == null)
+			user = userService.findPrincipal(claims.getSubject());
+		else if(!userService.versaoValida(user))
+			return null;
+		return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
 	}
 	
 	
@@ -3,15 +3,29 @@ package com.ebm.security.repository;
 import java.util.Optional;
 import java.util.Set;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.ebm.pessoal.domain.Funcionario;
 import com.ebm.security.Usuario;
+import com.ebm.security.dto.UsuarioListDTO;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Integer> {
 
+	// o id do usuario e o do funcionario (@MapsId); email so o principal
+	String LISTAGEM = "SELECT new com.ebm.security.dto.UsuarioListDTO(u.id, cg.nomeCargo, p.nome, u.login, e.email)"
+			+ " FROM Usuario u JOIN u.funcionario f JOIN f.pessoa p JOIN f.cargo cg"
+			+ " LEFT JOIN p.email e ON e.principal = true";
+	String CONTAGEM = "SELECT COUNT(u) FROM Usuario u JOIN u.funcionario f JOIN f.pessoa p JOIN f.cargo cg"
+			+ " LEFT JOIN p.email e ON e.principal = true";
+	String FILTRO = " WHERE (?1 IS NULL OR LOWER(p.nome) LIKE LOWER(CONCAT('%', ?1, '%')))"
+			+ " AND (?2 IS NULL OR LOWER(u.login) LIKE LOWER(CONCAT('%', ?2, '%')))"
+			+ " AND (?3 IS NULL OR LOWER(e.email) LIKE LOWER(CONCAT('%', ?3, '%')))";
+
 	@Transactional(readOnly = true)
 	Optional<Usuario> findOneByFuncionario(Funcionario funcionario);
 
@@ -19,25 +33,29 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Integer> {
 	@Transactional(readOnly = true)
 	Optional<Usuario> findOneByLogin(String login);
 
+	// uma consulta paginada com os joins ate o email principal, no lugar da intersecao de ids
 	@Transactional(readOnly = true)
-	@Query("SELECT u.id FROM Usuario u WHERE u.funcionario.id in ?1")
-	Set<Integer> findAllIdOfFuncionarios(Set<Integer> findAllIdByNome);
+	@Query(value = LISTAGEM + FILTRO, countQuery = CONTAGEM + FILTRO)
+	Page<UsuarioListDTO> findListBy(String nome, String login, String email, Pageable page);
 
 	@Transactional(readOnly = true)
-	@Query("SELECT u.id FROM Usuario u WHERE LOWER(u.login) LIKE LOWER(?1)")
-	Set<Integer> findAllIdByLogin(String login);
-
+	@Query(LISTAGEM + FILTRO)
+	Slice<UsuarioListDTO> findSliceBy(String nome, String login, String email, Pageable page);
 
+	@Transactional(readOnly = true)
+	@Query(CONTAGEM + FILTRO)
+	long contaListBy(String nome, String login, String email);
 
 	@Transactional(readOnly = true)
-	@Query("SELECT u.id FROM Usuario u")
-	Set<Integer> findAllId();
+	@Query("SELECT new com.ebm.security.Usuario(u.id, u.login, u.senha, u.versao) FROM Usuario u WHERE u.login = ?1")
+	Optional<Usuario> findCredenciaisByLogin(String login);
 
 	@Transactional(readOnly = true)
-	Optional<Usuario> findByLogin(String username);
+	@Query("SELECT u.versao FROM Usuario u WHERE u.id = ?1")
+	Optional<Integer> findVersaoById(Integer id);
 
 	@Transactional(readOnly = true)
-	@Query("SELECT distinct p.id FROM Pessoa p WHERE LOWER (p.nome) LIKE LOWER(?1)")
-	Set<Integer> findAllIdOfFuncionariosByNome(String nome);
+	@Query("SELECT p FROM Usuario u JOIN u.permissoes p WHERE u.id = ?1")
+	Set<Integer> findPermissoesById(Integer id);
 
 }
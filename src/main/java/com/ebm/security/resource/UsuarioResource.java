@@ -6,8 +6,8 @@ import java.util.Set;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -22,6 +22,8 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.ebm.geral.domain.Contagem;
+import com.ebm.geral.domain.CursorPage;
 import com.ebm.security.PermissaoE;
 import com.ebm.security.Usuario;
 import com.ebm.security.dto.UsuarioListDTO;
@@ -89,17 +91,34 @@ public class UsuarioResource {
 
 	@PreAuthorize("hasAuthority('USUARIO_GET')")
 	@GetMapping(value = "/page")
-	public ResponseEntity<Page<UsuarioListDTO>> findAllBy(
+	public ResponseEntity<Slice<UsuarioListDTO>> findAllBy(
 			@RequestParam(value = "nome", required = false) String nome,
 			@RequestParam(value = "login", required = false) String login,
 			@RequestParam(value = "email", required = false) String email,
 			@RequestParam(value = "page", defaultValue = "0") Integer page,
 			@RequestParam(value = "linesPerPage", defaultValue = "10") Integer linesPerPage,
 			@RequestParam(value = "orderBy", defaultValue = "id") String orderBy,
-			@RequestParam(value = "direction", defaultValue = "ASC") String direction) {
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "count", defaultValue = "true") String count) {
 
 		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
-		Page<UsuarioListDTO> rs = usuarioService.findBy(nome, login, email, pageRequest);
+		Slice<UsuarioListDTO> rs = usuarioService.findBy(nome, login, email, pageRequest, Contagem.fromString(count));
+		return ResponseEntity.ok().body(rs);
+	}
+
+	@PreAuthorize("hasAuthority('USUARIO_GET')")
+	@GetMapping(value = "/page", params = "after")
+	public ResponseEntity<CursorPage<UsuarioListDTO>> findAllByCursor(
+			@RequestParam(value = "nome", required = false) String nome,
+			@RequestParam(value = "login", required = false) String login,
+			@RequestParam(value = "email", required = false) String email,
+			@RequestParam(value = "after") String after,
+			@RequestParam(value = "linesPerPage", defaultValue = "10") Integer linesPerPage,
+			@RequestParam(value = "orderBy", defaultValue = "id") String orderBy,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "count", defaultValue = "false") boolean count) {
+		CursorPage<UsuarioListDTO> rs = usuarioService.findBy(nome, login, email, after, orderBy,
+				Direction.valueOf(direction), linesPerPage, count);
 		return ResponseEntity.ok().body(rs);
 	}
 
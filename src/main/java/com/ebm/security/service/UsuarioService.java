@@ -1,15 +1,19 @@
 package com.ebm.security.service;
 
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -18,11 +22,17 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.ebm.geral.domain.Contagem;
+import com.ebm.geral.domain.CursorPage;
 import com.ebm.geral.exceptions.DataIntegrityException;
 import com.ebm.geral.exceptions.ObjectNotFoundException;
+import com.ebm.geral.service.CacheContagem;
+import com.ebm.geral.utils.ListagemPorCursor;
 import com.ebm.geral.utils.Utils;
 import com.ebm.pessoal.domain.Funcionario;
 import com.ebm.pessoal.service.FuncionarioService;
+import com.ebm.security.CachePrincipal;
+import com.ebm.security.CacheVersao;
 import com.ebm.security.PermissaoE;
 import com.ebm.security.Usuario;
 import com.ebm.security.dto.UsuarioListDTO;
@@ -44,22 +54,43 @@ public class UsuarioService implements UserDetailsService {
 	private FuncionarioService funcionarioService;
 	@Autowired
 	private BCryptPasswordEncoder pEncoder;
+	@Autowired
+	private CachePrincipal cachePrincipal;
+	@Autowired
+	private CacheVersao cacheVersao;
+	@Autowired
+	private CacheContagem cacheContagem;
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private static final ListagemPorCursor<UsuarioListDTO> LISTAGEM = new ListagemPorCursor<>(UsuarioListDTO.class,
+			UsuarioRepository.LISTAGEM, UsuarioRepository.CONTAGEM, "u.id", UsuarioListDTO::getId)
+					.chave("login", "u.login", String.class, UsuarioListDTO::getLogin)
+					.chave("nome", "p.nome", String.class, UsuarioListDTO::getNome);
+
 	public UsuarioService() {
 	}
 
 	@Override
 	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-		try {
-			return new Usuario(this.findByUserName(username));
-		} catch (ObjectNotFoundException ex) {
-			throw new UsernameNotFoundException(ex.getMessage() + username);
-		} 
-		
+		// so login, senha e permissoes: carregar a entidade traria funcionario, pessoa e contatos a cada requisicao
+		Usuario credenciais = userRepository.findCredenciaisByLogin(username)
+				.orElseThrow(() -> new UsernameNotFoundException(ONFE_BYUSERNAME + username));
+		Set<PermissaoE> permissoes = userRepository.findPermissoesById(credenciais.getId()).stream()
+				.map(PermissaoE::toEnum).collect(Collectors.toSet());
+		credenciais.setPermissoes(permissoes);
+		return credenciais;
 	}
-	
-	private Usuario findByUserName(String username) {
-		Optional<Usuario> user = userRepository.findByLogin(username);
-		return user.orElseThrow( () -> new ObjectNotFoundException(ONFE_BYUSERNAME));
+
+	// usado pelo filtro JWT a cada requisicao; o login (senha conferida) continua indo ao banco
+	public Usuario findPrincipal(String username) throws UsernameNotFoundException {
+		return cachePrincipal.get(username, login -> (Usuario) loadUserByUsername(login));
+	}
+
+	// permissoes vindas do token so valem enquanto a versao do usuario for a mesma da emissao
+	public boolean versaoValida(Usuario doToken) {
+		Integer atual = cacheVersao.get(doToken.getId(), id -> userRepository.findVersaoById(id).orElse(null));
+		return atual != null && atual == doToken.getVersao();
 	}
 
 	// INSERT
@@ -85,17 +116,26 @@ public class UsuarioService implements UserDetailsService {
 
 
 	public Usuario update(UsuarioUpdateDTO userUp) {
-		Usuario old = fromDTO(userUp);
+		Usuario old = this.findById(userUp.getId());
+		String loginAnterior = old.getLogin();
+		fromDTO(userUp, old);
+		old.setVersao(old.getVersao() + 1);
 		
 		Utils.audita(old.getHistorico());
 		
-		return this.userRepository.save(old);
+		Usuario result = this.userRepository.save(old);
+		// permissoes ou login mudaram: o principal em cache e os tokens ja emitidos nao valem mais
+		cachePrincipal.invalida(loginAnterior);
+		cachePrincipal.invalida(result.getLogin());
+		cacheVersao.invalida(result.getId());
+		return result;
 	}
 
 	public Usuario fromDTO(UsuarioUpdateDTO userUp) {
-	
-		Usuario old = this.findById(userUp.getId());
-		
+		return fromDTO(userUp, this.findById(userUp.getId()));
+	}
+
+	private Usuario fromDTO(UsuarioUpdateDTO userUp, Usuario old) {
 		if(userUp.getLogin()!= null && !userUp.getLogin().equals(old.getLogin()))
 			old.setLogin(userUp.getLogin());
 		
@@ -125,8 +165,10 @@ public class UsuarioService implements UserDetailsService {
 	// DELETE
 
 	public void deleteById(Integer id) {
-		find(id);
+		Usuario user = find(id);
 		userRepository.deleteById(id);
+		cachePrincipal.invalida(user.getLogin());
+		cacheVersao.invalida(id);
 	}
 
 	// FIND
@@ -156,25 +198,31 @@ public class UsuarioService implements UserDetailsService {
 		return userRepository.findAllById(ids);
 	}
 
-	//metodo nenhum pouco perfomatico
-	public Page<UsuarioListDTO> findBy(String nome , String login, String email,
-			PageRequest pageRequest) {
-		Set<Integer> ids = new HashSet<>();
-
-		ids = userRepository.findAllId();
-		if (nome != null)
-			ids.retainAll(funcionarioService.findIdByNomeLike(nome));
-
-		if (login != null)
-			ids.retainAll(userRepository.findAllIdByLogin("%"+login+"%"));
-
-		if (email != null)
-			ids.retainAll(funcionarioService.findIdByEmailPrincipalLike("%"+email+"%"));
+	public Page<UsuarioListDTO> findBy(String nome, String login, String email, PageRequest pageRequest) {
+		return userRepository.findListBy(Utils.nullSeVazio(nome), Utils.nullSeVazio(login), Utils.nullSeVazio(email),
+				pageRequest);
+	}
 
-		List<UsuarioListDTO> usuarios = userRepository.findAllById(ids).stream().map(u -> new UsuarioListDTO(u))
-				.collect(Collectors.toList());
+	public Slice<UsuarioListDTO> findBy(String nome, String login, String email, PageRequest pageRequest,
+			Contagem contagem) {
+		if (contagem == Contagem.EXATA)
+			return findBy(nome, login, email, pageRequest);
+		String nm = Utils.nullSeVazio(nome);
+		String lg = Utils.nullSeVazio(login);
+		String em = Utils.nullSeVazio(email);
+		Slice<UsuarioListDTO> fatia = userRepository.findSliceBy(nm, lg, em, pageRequest);
+		if (contagem == Contagem.NENHUMA)
+			return fatia;
+		return cacheContagem.pagina(fatia, "usuarios", () -> userRepository.contaListBy(nm, lg, em), nm, lg, em);
+	}
 
-		return new PageImpl<>(usuarios, pageRequest, usuarios.size());
+	// por cursor: ordena por login, nome ou id e so conta quando pedido
+	@Transactional(readOnly = true)
+	public CursorPage<UsuarioListDTO> findBy(String nome, String login, String email, String after, String orderBy,
+			Direction direcao, int tamanho, boolean contar) {
+		return LISTAGEM.busca(entityManager, UsuarioRepository.FILTRO,
+				Arrays.asList(Utils.nullSeVazio(nome), Utils.nullSeVazio(login), Utils.nullSeVazio(email)), after,
+				orderBy, direcao, tamanho, contar);
 	}
 
 	public Set<PermissaoE> getPermissoes() {
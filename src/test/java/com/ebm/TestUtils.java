@@ -2,6 +2,7 @@ package com.ebm;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.Assert.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -11,6 +12,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
@@ -22,10 +26,15 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
+import com.ebm.geral.domain.CursorPage;
 import com.ebm.geral.resource.exception.ValidationError;
+import com.ebm.geral.utils.ContadorConsultas;
+import com.ebm.geral.utils.ContadorConsultas.Medicao;
 import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -96,6 +105,22 @@ public class TestUtils {
 				.andExpect(jsonPath("$.totalPages", equalTo(totalPage)));
 	}
 
+	// segue o next da listagem por cursor, a partir do inicio, ate a ultima pagina
+	public <T> List<CursorPage<T>> testGetCursor(String endpoint, MultiValueMap<String, String> params,
+			TypeReference<CursorPage<T>> tipo) throws Exception {
+		List<CursorPage<T>> paginas = new ArrayList<>();
+		MultiValueMap<String, String> pagina = new LinkedMultiValueMap<>(params);
+		String next = "";
+		do {
+			pagina.set("after", next);
+			String json = testGetRequestParams(endpoint, pagina, status().isOk()).andReturn().getResponse()
+					.getContentAsString();
+			paginas.add(om.readValue(json, tipo));
+			next = paginas.get(paginas.size() - 1).getNext();
+		} while (next != null);
+		return paginas;
+	}
+
 	public ResultActions testGetExpectedSucess(String endpoint, Integer id) throws Exception {
 		return this.mockMvc.perform(get(endpoint + "/" + id).accept(MediaType.APPLICATION_JSON))
 				.andExpect(status().isOk()).andExpect(jsonPath("$.id", equalTo(id)))
@@ -129,6 +154,37 @@ public class TestUtils {
 		return this.entityManager;
 	}
 
+	// falha se a chamada (servico ou mockMvc, na thread do teste) emitir mais de maximo comandos SQL
+	public <T> T noMaximo(int maximo, Callable<T> chamada) throws Exception {
+		Medicao medicao = inicia();
+		T resultado;
+		try {
+			resultado = chamada.call();
+		} finally {
+			ContadorConsultas.encerra(medicao);
+		}
+		assertTrue("Esperado no maximo " + maximo + " comandos SQL - " + medicao, medicao.getComandos() <= maximo);
+		return resultado;
+	}
+
+	// para conferir tambem entidades carregadas e colecoes buscadas
+	public Medicao mede(Callable<?> chamada) throws Exception {
+		Medicao medicao = inicia();
+		try {
+			chamada.call();
+		} finally {
+			ContadorConsultas.encerra(medicao);
+		}
+		return medicao;
+	}
+
+	private Medicao inicia() {
+		// o que ficou pendente antes da chamada nao entra na conta
+		if (entityManager.isJoinedToTransaction())
+			entityManager.flush();
+		return ContadorConsultas.inicia("teste");
+	}
+
 
 
 }
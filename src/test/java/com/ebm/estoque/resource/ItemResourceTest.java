@@ -2,7 +2,9 @@ package com.ebm.estoque.resource;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -12,10 +14,13 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort.Direction;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,8 +34,10 @@ import com.ebm.estoque.dtos.ItemListDTO;
 import com.ebm.estoque.service.interfaces.CategoriaItemService;
 import com.ebm.estoque.service.interfaces.ItemService;
 import com.ebm.estoque.service.interfaces.UnidadeService;
+import com.ebm.geral.domain.CursorPage;
 import com.ebm.geral.domain.RestResponsePage;
 import com.ebm.geral.service.PopulaBD;
+import com.ebm.geral.utils.Cursor;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonMappingException;
@@ -201,6 +208,42 @@ public class ItemResourceTest extends BaseTest{
 
 	}
 
+	@Transactional
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "GET" })
+	public void testFindParamiterizadoPaginado() throws Exception {
+		preparaTestParameterizado();
+		MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+		params.add("page", "2");
+		params.add("linesPerPage", "3");
+
+		util.testGetPage(ENDPOINT_BASE + "/page", params, status().isOk(), 8, 3).andDo(result -> {
+			RestResponsePage<ItemListDTO> results = getPage(result);
+			assertThat(results.getContent().size(), equalTo(2));
+			assertThat(results.getNumber(), equalTo(2));
+		});
+	}
+
+	// a listagem nao busca unidade, categoria ou fornecedores linha a linha: pagina e contagem
+	@Transactional
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "GET" })
+	public void testFindParamiterizadoConsultasLimitadas() throws Exception {
+		preparaTestParameterizado();
+		util.noMaximo(2, () -> util.testGetPage(ENDPOINT_BASE + "/page", new LinkedMultiValueMap<>(), status().isOk(), 8, 1));
+	}
+
+	@Transactional
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "GET" })
+	public void testaFindByIdConsultasLimitadas() throws Exception {
+		itemService.save(bd.p1);
+		util.em().flush();
+		util.em().clear();
+		// unidade e categoria vem no mesmo select do item
+		util.noMaximo(1, () -> util.testGetExpectedSucess(this.ENDPOINT_BASE, bd.p1.getId()));
+	}
+
 //	// test find parameterizado bd.unidade bd.s1 s3
 	@Transactional
 	@Test
@@ -301,4 +344,74 @@ public class ItemResourceTest extends BaseTest{
 		});
 	}
 
+	@Transactional
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "GET" })
+	public void testFindPorCursorPercorreTodasAsPaginas() throws Exception {
+		preparaTestParameterizado();
+		MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+		params.add("linesPerPage", "3");
+		params.add("count", "true");
+
+		List<CursorPage<ItemListDTO>> paginas = util.testGetCursor(ENDPOINT_BASE + "/page", params,
+				new TypeReference<CursorPage<ItemListDTO>>() {
+				});
+		assertThat(paginas.size(), equalTo(3));
+		assertTrue(paginas.stream().allMatch(p -> p.getTotalElements() == 8L));
+		List<ItemListDTO> itens = paginas.stream().flatMap(p -> p.getContent().stream()).collect(Collectors.toList());
+		assertThat(itens.stream().map(ItemListDTO::getId).distinct().count(), equalTo(8L));
+
+		// mesma ordem da listagem por offset
+		params.clear();
+		params.add("linesPerPage", "8");
+		util.testGetPage(ENDPOINT_BASE + "/page", params, status().isOk(), 8, 1).andDo(result -> {
+			assertThat(itens.stream().map(ItemListDTO::getNome).collect(Collectors.toList()),
+					equalTo(getPage(result).stream().map(ItemListDTO::getNome).collect(Collectors.toList())));
+		});
+	}
+
+	@Transactional
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "GET" })
+	public void testFindPorCursorSemContagem() throws Exception {
+		preparaTestParameterizado();
+		MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+		params.add("tipo", TipoItem.PRODUTO.getDescricao());
+		params.add("orderBy", "id");
+		params.add("direction", "DESC");
+		params.add("linesPerPage", "3");
+		params.add("after", "");
+
+		util.testGetRequestParams(ENDPOINT_BASE + "/page", params, status().isOk())
+				.andExpect(jsonPath("$.totalElements", nullValue())).andExpect(jsonPath("$.content", hasSize(3)))
+				.andExpect(jsonPath("$.content[0].id", equalTo(bd.p4.getId())));
+
+		List<CursorPage<ItemListDTO>> paginas = util.testGetCursor(ENDPOINT_BASE + "/page", params,
+				new TypeReference<CursorPage<ItemListDTO>>() {
+				});
+		assertThat(paginas.size(), equalTo(2));
+		assertThat(paginas.get(1).getContent().get(0).getId(), equalTo(bd.p1.getId()));
+		assertNull(paginas.get(1).getNext());
+	}
+
+	@Transactional
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "GET" })
+	public void testFindPorCursorInvalido() throws Exception {
+		preparaTestParameterizado();
+		MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+		params.add("after", "");
+		params.add("orderBy", "descricao");
+		util.testGetRequestParams(ENDPOINT_BASE + "/page", params, status().isBadRequest());
+
+		params.set("orderBy", "nome");
+		params.set("after", "nao-e-um-cursor");
+		util.testGetRequestParams(ENDPOINT_BASE + "/page", params, status().isBadRequest());
+
+		// cursor gerado ordenando por nome nao serve para a ordem por id
+		params.set("after", new Cursor("nome", Direction.ASC, bd.p1.getId(), bd.p1.getNome()).codifica());
+		params.set("orderBy", "id");
+		util.testGetRequestParams(ENDPOINT_BASE + "/page", params, status().isBadRequest());
+	}
+
 }
@@ -1,14 +1,20 @@
 package com.ebm.estoque.resource;
 
+import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -26,16 +32,21 @@ import com.ebm.estoque.domain.Produto;
 import com.ebm.estoque.domain.ProdutoMovimentacao;
 import com.ebm.estoque.domain.enums.TipoMovimentacao;
 import com.ebm.estoque.dtos.MovimentacaoListDTO;
+import com.ebm.estoque.service.interfaces.LancamentoEstoqueService;
+import com.ebm.geral.domain.CursorPage;
 import com.ebm.geral.domain.RestResponsePage;
 import com.ebm.geral.resource.exception.ValidationError;
 import com.ebm.geral.service.PopulaBD;
 import com.ebm.geral.utils.Utils;
+import com.ebm.pessoal.domain.Fornecedor;
 import com.fasterxml.jackson.core.type.TypeReference;
 
 public class MovimentacaoResourceTest extends BaseTest {
 
 	@Autowired
 	private PopulaBD bd;
+	@Autowired
+	private LancamentoEstoqueService lancamentoService;
 
 	private final String ENDPOINT_BASE = "/movimentacoes";
 	private final String BASE_AUTHORITY = "MOVIMENTACAO_";
@@ -187,6 +198,35 @@ public class MovimentacaoResourceTest extends BaseTest {
 		assertTrue(bd.ent1.getDescricao().equals("NOVONOME"));
 	}
 
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "PUT" })
+	@Transactional
+	public void testaUpdateRefazEstoqueESaldos() throws Exception {
+		LocalDateTime data = LocalDateTime.of(2020, 1, 10, 8, 0);
+		Integer estqAtual = bd.p1.getEstoqueAtual();
+		Movimentacao ent = Movimentacao.novaEntrada();
+		ent.setDataMovimentacao(data);
+		ent.getProdutoMovimentacao()
+				.add(new ProdutoMovimentacao(ent, bd.p1, BigDecimal.valueOf(0), BigDecimal.valueOf(100), 2));
+		bd.getMovimentacaoS().save(ent);
+
+		// a mesma movimentacao de novo nao conta duas vezes
+		util.testPutExpectNoContent(ENDPOINT_BASE + "/" + ent.getId(), ent);
+		assertThat(((Produto) bd.getItemS().findById(bd.p1.getId())).getEstoqueAtual(), equalTo(estqAtual + 2));
+		assertThat(lancamentoService.saldoEm(bd.p1.getId(), data), equalTo(estqAtual + 2));
+
+		// corpo novo, como o de um cliente: a instancia salva e a gerenciada pela transacao do teste
+		Movimentacao alterada = Movimentacao.novaEntrada();
+		alterada.setDataMovimentacao(data);
+		alterada.getProdutoMovimentacao()
+				.add(new ProdutoMovimentacao(alterada, bd.p1, BigDecimal.valueOf(0), BigDecimal.valueOf(100), 3));
+		util.testPutExpectNoContent(ENDPOINT_BASE + "/" + ent.getId(), alterada);
+		assertThat(((Produto) bd.getItemS().findById(bd.p1.getId())).getEstoqueAtual(), equalTo(estqAtual + 3));
+		assertThat(lancamentoService.saldoEm(bd.p1.getId(), data.minusSeconds(1)), equalTo(estqAtual));
+		assertThat(lancamentoService.saldoEm(bd.p1.getId(), data), equalTo(estqAtual + 3));
+		assertThat(lancamentoService.saldoEm(bd.p1.getId(), LocalDateTime.now()), equalTo(estqAtual + 3));
+	}
+
 	@Test
 	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "POST" })
 	@Transactional
@@ -218,6 +258,73 @@ public class MovimentacaoResourceTest extends BaseTest {
 
 	}
 
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "POST" })
+	@Transactional
+	public void testaInsercaoEmLote() throws Exception {
+		fornecedor();
+		bd.ent1.getFornecedores().add(bd.forf1);
+		Movimentacao ent = Movimentacao.novaEntrada();
+		ent.getProdutoMovimentacao()
+				.add(new ProdutoMovimentacao(ent, bd.p1, BigDecimal.valueOf(0), BigDecimal.valueOf(100), 2));
+
+		util.testPost(ENDPOINT_BASE + "/batch", Arrays.asList(bd.ent1, bd.sai1, ent), status().isCreated())
+				.andExpect(jsonPath("$.*", hasSize(3))).andDo(result -> {
+					Integer[] ids = util.objectMapper().readValue(result.getResponse().getContentAsString(),
+							Integer[].class);
+					Movimentacao mov = bd.getMovimentacaoS().findById(ids[0]);
+					assertTrue(mov.getFornecedores().contains(bd.forf1));
+					assertTrue(mov.getProdutoMovimentacao().size() == 3);
+				});
+
+		Produto prod = (Produto) bd.getItemS().findById(bd.p1.getId());
+		assertTrue(prod.getEstoqueAtual().equals(2));
+		prod = (Produto) bd.getItemS().findById(bd.p2.getId());
+		assertTrue(prod.getEstoqueAtual().equals(0));
+	}
+
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "POST" })
+	@Transactional
+	public void testaInsercaoEmLoteProdutoInexistente() throws Exception {
+		Movimentacao ent = Movimentacao.novaEntrada();
+		ent.getProdutoMovimentacao().add(
+				new ProdutoMovimentacao(ent, Produto.ofId(-1), BigDecimal.valueOf(0), BigDecimal.valueOf(100), 2));
+
+		util.testPost(ENDPOINT_BASE + "/batch", Arrays.asList(bd.ent1, ent), status().isNotFound());
+	}
+
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "POST" })
+	@Transactional
+	public void testaInsercaoEmLoteFornecedorInexistente() throws Exception {
+		bd.ent1.getFornecedores().add(Fornecedor.ofId(-1));
+
+		util.testPost(ENDPOINT_BASE + "/batch", Arrays.asList(bd.sai1, bd.ent1), status().isNotFound());
+	}
+
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "POST" })
+	@Transactional
+	public void testaInsercaoEmLoteValidaCadaMovimentacao() throws Exception {
+		bd.sai1.setDocumento("1");
+
+		util.testPost(ENDPOINT_BASE + "/batch", Arrays.asList(bd.ent1, bd.sai1), status().isUnprocessableEntity())
+				.andDo(result -> {
+					ValidationError error = util.objectMapper().readValue(result.getResponse().getContentAsString(),
+							ValidationError.class);
+					assertTrue(error.getErrors().size() == 1);
+					assertThat(error.getErrors().get(0).getFieldName(), equalTo("movimentacoes[1].documento"));
+				});
+	}
+
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "PUT" })
+	@Transactional
+	public void testaInsercaoEmLoteSemAuth() throws Exception {
+		util.testPost(ENDPOINT_BASE + "/batch", Arrays.asList(bd.ent1), status().isForbidden());
+	}
+
 	@Test
 	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "GET" })
 	@Transactional
@@ -376,6 +483,93 @@ public class MovimentacaoResourceTest extends BaseTest {
 
 	}
 
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "GET" })
+	@Transactional
+	public void testFindParamiterizadoPeriodo() throws Exception {
+		bd.ent2.setDataMovimentacao(LocalDateTime.of(2019, 3, 1, 0, 0));
+		bd.sai2.setDataMovimentacao(LocalDateTime.of(2019, 3, 15, 23, 59));
+		preparaTestParameterizado();
+
+		MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+		params.add("de", "2019-03-01");
+		params.add("ate", "2019-03-10");
+		util.testGetPage(ENDPOINT_BASE + "/page", params, status().isOk(), 1, 1).andDo(result -> {
+			assertTrue(getPage(result).stream().allMatch(m -> m.getId().equals(bd.ent2.getId())));
+		});
+
+		// ate inclusivo, junto com o filtro por produto
+		params.set("ate", "2019-03-15");
+		params.add("produtos", bd.p4.getId().toString());
+		util.testGetPage(ENDPOINT_BASE + "/page", params, status().isOk(), 2, 1);
+
+		params.set("de", "2019-03-16");
+		util.testGetRequestParams(ENDPOINT_BASE + "/page", params, status().isBadRequest());
+	}
+
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "GET" })
+	@Transactional
+	public void testFindParamiterizadoSemContagem() throws Exception {
+		preparaTestParameterizado();
+
+		MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+		params.add("tipo", TipoMovimentacao.SAIDA.getDesc());
+		params.add("linesPerPage", "2");
+		params.add("count", "false");
+		util.testGetRequestParams(ENDPOINT_BASE + "/page", params, status().isOk())
+				.andExpect(jsonPath("$.totalElements").doesNotExist()).andExpect(jsonPath("$.content", hasSize(2)))
+				.andExpect(jsonPath("$.last", equalTo(false)));
+
+		params.add("page", "1");
+		util.testGetRequestParams(ENDPOINT_BASE + "/page", params, status().isOk())
+				.andExpect(jsonPath("$.content", hasSize(1))).andExpect(jsonPath("$.last", equalTo(true)));
+
+		params.set("count", "cached");
+		util.testGetPage(ENDPOINT_BASE + "/page", params, status().isOk(), 3, 2);
+
+		params.set("count", "talvez");
+		util.testGetRequestParams(ENDPOINT_BASE + "/page", params, status().isBadRequest());
+	}
+
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "GET" })
+	@Transactional
+	public void testFindPorCursorDataMovimentacao() throws Exception {
+		bd.ent2.setDataMovimentacao(LocalDateTime.of(2019, 3, 1, 0, 0));
+		bd.sai2.setDataMovimentacao(LocalDateTime.of(2019, 3, 15, 23, 59));
+		preparaTestParameterizado();
+
+		MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+		params.add("orderBy", "dataMovimentacao");
+		params.add("direction", "DESC");
+		params.add("linesPerPage", "4");
+		List<CursorPage<MovimentacaoListDTO>> paginas = util.testGetCursor(ENDPOINT_BASE + "/page", params,
+				new TypeReference<CursorPage<MovimentacaoListDTO>>() {
+				});
+
+		assertThat(paginas.size(), equalTo(2));
+		assertNull(paginas.get(0).getTotalElements());
+		List<Integer> ids = paginas.stream().flatMap(p -> p.getContent().stream()).map(MovimentacaoListDTO::getId)
+				.collect(Collectors.toList());
+		assertThat(ids.size(), equalTo(6));
+		assertTrue(ids.containsAll(Arrays.asList(bd.ent1.getId(), bd.ent2.getId(), bd.ent3.getId(), bd.sai1.getId(),
+				bd.sai2.getId(), bd.sai3.getId())));
+		// as mais antigas por ultimo
+		assertThat(ids.subList(4, 6), equalTo(Arrays.asList(bd.sai2.getId(), bd.ent2.getId())));
+
+		// o filtro continua valendo entre as paginas
+		params.add("tipo", TipoMovimentacao.ENTRADA.getDesc());
+		params.set("linesPerPage", "2");
+		paginas = util.testGetCursor(ENDPOINT_BASE + "/page", params,
+				new TypeReference<CursorPage<MovimentacaoListDTO>>() {
+				});
+		assertThat(paginas.size(), equalTo(2));
+		assertTrue(paginas.stream().flatMap(p -> p.getContent().stream())
+				.allMatch(m -> m.getTipo().equals(TipoMovimentacao.ENTRADA.getDesc())));
+		assertThat(paginas.get(1).getContent().get(0).getId(), equalTo(bd.ent2.getId()));
+	}
+
 	@Test
 	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "GET" })
 	@Transactional
@@ -0,0 +1,77 @@
+package com.ebm.estoque.resource;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import com.ebm.BaseTest;
+import com.ebm.estoque.domain.Movimentacao;
+import com.ebm.estoque.domain.ProdutoMovimentacao;
+import com.ebm.geral.service.PopulaBD;
+
+public class ProdutoResourceTest extends BaseTest {
+
+	@Autowired
+	private PopulaBD bd;
+
+	private final String ENDPOINT_BASE = "/produtos";
+
+	@Before
+	public void setUp() {
+		bd.instanciaItem(true);
+		bd.saveUnidade(Arrays.asList(bd.un1, bd.un2));
+		bd.saveCategoria(Arrays.asList(bd.cat1, bd.cat2, bd.cat3, bd.cat4));
+		bd.saveProduto(Arrays.asList(bd.p1, bd.p2));
+		Movimentacao entrada = Movimentacao.novaEntrada();
+		entrada.setDataMovimentacao(LocalDateTime.of(2020, 1, 31, 12, 0));
+		entrada.getProdutoMovimentacao()
+				.add(new ProdutoMovimentacao(entrada, bd.p1, BigDecimal.ZERO, BigDecimal.TEN, 7));
+		bd.getMovimentacaoS().save(entrada);
+	}
+
+	@Transactional
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { "ITEM_GET" })
+	public void testSaldoNaData() throws Exception {
+		MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+		params.add("em", "2020-01-31T11:59:59");
+		util.testGetRequestParams(ENDPOINT_BASE + "/" + bd.p1.getId() + "/saldo", params, status().isOk())
+				.andExpect(jsonPath("$.saldo", is(0)));
+		params.set("em", "2020-01-31T23:59:59");
+		util.testGetRequestParams(ENDPOINT_BASE + "/" + bd.p1.getId() + "/saldo", params, status().isOk())
+				.andExpect(jsonPath("$.saldo", is(7)));
+
+		params.add("ids", bd.p1.getId() + "," + bd.p2.getId());
+		util.testGetRequestParams(ENDPOINT_BASE + "/saldos", params, status().isOk())
+				.andExpect(jsonPath("$", hasSize(2))).andExpect(jsonPath("$[1].saldo", is(4)));
+	}
+
+	@Transactional
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { "ITEM_GET" })
+	public void testSaldoProdutoInexistente() throws Exception {
+		util.testGetRequestParams(ENDPOINT_BASE + "/0/saldo", new LinkedMultiValueMap<>(), status().isNotFound());
+	}
+
+	@Transactional
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { "MOVIMENTACAO_GET" })
+	public void testSaldoSemPermissao() throws Exception {
+		util.testGetRequestParams(ENDPOINT_BASE + "/" + bd.p1.getId() + "/saldo", new LinkedMultiValueMap<>(),
+				status().isForbidden());
+	}
+
+}
@@ -0,0 +1,62 @@
+package com.ebm.estoque.resource;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import com.ebm.BaseTest;
+import com.ebm.geral.service.PopulaBD;
+
+public class RelatorioEstoqueResourceTest extends BaseTest {
+
+	@Autowired
+	private PopulaBD bd;
+
+	private final String ENDPOINT_BASE = "/relatorios/estoque";
+
+	@Before
+	public void setUp() {
+		bd.instanciaItem(true);
+		bd.saveUnidade(Arrays.asList(bd.un1, bd.un2));
+		bd.saveCategoria(Arrays.asList(bd.cat1, bd.cat2, bd.cat3, bd.cat4));
+		bd.getItemS().saveAll(Arrays.asList(bd.p1, bd.p2, bd.s1));
+	}
+
+	@Transactional
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { "ITEM_GET" })
+	public void testResumoItensPorUnidade() throws Exception {
+		MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+		params.add("agrupar", "unidade");
+		util.testGetRequestParams(ENDPOINT_BASE + "/itens", params, status().isOk())
+				.andExpect(jsonPath("$", hasSize(2)));
+	}
+
+	@Transactional
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { "MOVIMENTACAO_GET" })
+	public void testResumoMovimentacoesAgrupamentoInvalido() throws Exception {
+		MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+		params.add("agrupar", "produto");
+		util.testGetRequestParams(ENDPOINT_BASE + "/movimentacoes", params, status().isBadRequest());
+		util.testGetRequestParams(ENDPOINT_BASE + "/movimentacoes", new LinkedMultiValueMap<>(), status().isOk());
+	}
+
+	@Transactional
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { "MOVIMENTACAO_GET" })
+	public void testResumoItensSemPermissao() throws Exception {
+		util.testGetRequestParams(ENDPOINT_BASE + "/itens", new LinkedMultiValueMap<>(), status().isForbidden());
+	}
+
+}
@@ -1,8 +1,12 @@
 package com.ebm.estoque.service;
 
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -14,10 +18,13 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.ebm.BaseTest;
+import com.ebm.estoque.domain.Item;
+import com.ebm.estoque.domain.Servico;
 import com.ebm.estoque.service.interfaces.CategoriaItemService;
 import com.ebm.estoque.service.interfaces.ItemService;
 import com.ebm.estoque.service.interfaces.UnidadeService;
 import com.ebm.geral.service.PopulaBD;
+import com.ebm.geral.utils.TotaisEstimados;
 
 public class ItemServiceTest  extends BaseTest{
 
@@ -90,4 +97,37 @@ public class ItemServiceTest  extends BaseTest{
 		assertTrue(resultado - 310 == 0);
 	}
 
-}
\ No newline at end of file
+	@Transactional
+	@Test
+	public void testTotalizaEstimativasUmaPassada() {
+		List<Item> itens = Arrays.asList(bd.p1, bd.s1);
+		TotaisEstimados totais = itemService.totalizaEstimativas(itens);
+
+		assertThat(totais.getComissaoEstimada(0.1), equalTo(new BigDecimal("31.00")));
+		assertThat(totais.getComissaoEstimada(), equalTo(new BigDecimal("4.90")));
+		assertThat(totais.getLucroBrutoEstimado(), equalTo(new BigDecimal("90.00")));
+		assertThat(totais.getLucroLiquidoEstimado(), equalTo(new BigDecimal("85.10")));
+		assertThat(totais.getLucroLiquidoEstimado(0.1), equalTo(new BigDecimal("59.00")));
+		assertThat(totais.getCustoTotal(), equalTo(new BigDecimal("220.00")));
+		assertThat(totais.getPrecoVendaTotal(), equalTo(new BigDecimal("310.00")));
+		// a mesma soma dividida entre threads
+		assertThat(itens.parallelStream().collect(TotaisEstimados.coletor()).getLucroLiquidoEstimado(),
+				equalTo(totais.getLucroLiquidoEstimado()));
+	}
+
+	@Transactional
+	@Test
+	public void testTotalizaEstimativasArredondaCadaItem() {
+		// 0,125 por item vira 0,12 (HALF_EVEN) antes de somar, como as linhas de TotaisVenda
+		List<Item> itens = Arrays.asList(
+				new Servico(null, "Ajuste A", null, null, null, "AJ01", new BigDecimal("0.125"), null, 0d, 0d),
+				new Servico(null, "Ajuste B", null, null, null, "AJ02", new BigDecimal("0.125"), null, 0d, 0d));
+		TotaisEstimados totais = itemService.totalizaEstimativas(itens);
+
+		assertThat(totais.getCustoTotal(), equalTo(new BigDecimal("0.24")));
+		assertThat(totais.getPrecoVendaTotal(), equalTo(new BigDecimal("0.24")));
+		assertThat(itens.parallelStream().collect(TotaisEstimados.coletor()).getCustoTotal(),
+				equalTo(totais.getCustoTotal()));
+	}
+
+}
@@ -0,0 +1,138 @@
+package com.ebm.estoque.service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ebm.BaseTest;
+import com.ebm.estoque.domain.LancamentoEstoque;
+import com.ebm.estoque.domain.Movimentacao;
+import com.ebm.estoque.domain.Produto;
+import com.ebm.estoque.domain.ProdutoMovimentacao;
+import com.ebm.estoque.repository.LancamentoEstoqueRepository;
+import com.ebm.estoque.service.interfaces.LancamentoEstoqueService;
+import com.ebm.estoque.service.interfaces.MovimentacaoService;
+import com.ebm.geral.exceptions.ObjectNotFoundException;
+import com.ebm.geral.service.PopulaBD;
+
+public class LancamentoEstoqueServiceTest extends BaseTest {
+
+	private static final LocalDateTime JANEIRO = LocalDateTime.of(2020, 1, 10, 8, 0);
+	private static final LocalDateTime FEVEREIRO = LocalDateTime.of(2020, 2, 10, 8, 0);
+
+	@Autowired
+	private PopulaBD bd;
+	@Autowired
+	private MovimentacaoService movimentacaoService;
+	@Autowired
+	private LancamentoEstoqueService lancamentoService;
+	@Autowired
+	private LancamentoEstoqueRepository lancamentoRepository;
+
+	@Before
+	public void setUp() {
+		bd.instanciaItem(true);
+		bd.saveUnidade(Arrays.asList(bd.un1, bd.un2));
+		bd.saveCategoria(Arrays.asList(bd.cat1, bd.cat2, bd.cat3, bd.cat4));
+		bd.p1.setEstoque(0, 5, 100);
+		bd.saveProduto(Arrays.asList(bd.p1, bd.p2));
+	}
+
+	@Transactional
+	@Test
+	public void testSaldoEmCadaData() {
+		movimentacaoService.save(movimentacao(Movimentacao.novaEntrada(), JANEIRO, 10));
+		movimentacaoService.save(movimentacao(Movimentacao.novaSaida(), FEVEREIRO, 3));
+
+		assertEquals(Arrays.asList(15, 12), saldos());
+		assertEquals(5, lancamentoService.saldoEm(bd.p1.getId(), JANEIRO.minusDays(1)));
+		assertEquals(15, lancamentoService.saldoEm(bd.p1.getId(), JANEIRO));
+		assertEquals(15, lancamentoService.saldoEm(bd.p1.getId(), FEVEREIRO.minusSeconds(1)));
+		assertEquals(12, lancamentoService.saldoEm(bd.p1.getId(), FEVEREIRO.plusYears(1)));
+		assertEquals(12, estoqueAtual());
+	}
+
+	@Transactional
+	@Test
+	public void testLancamentoRetroativoDeslocaPosteriores() {
+		movimentacaoService.save(movimentacao(Movimentacao.novaEntrada(), JANEIRO, 10));
+		movimentacaoService.save(movimentacao(Movimentacao.novaSaida(), FEVEREIRO, 3));
+		movimentacaoService.save(movimentacao(Movimentacao.novaEntrada(), JANEIRO.minusDays(5), 4));
+
+		assertEquals(Arrays.asList(9, 19, 16), saldos());
+		assertEquals(5, lancamentoService.saldoEm(bd.p1.getId(), JANEIRO.minusDays(6)));
+		assertEquals(9, lancamentoService.saldoEm(bd.p1.getId(), JANEIRO.minusDays(1)));
+		assertEquals(estoqueAtual(), lancamentoService.saldoEm(bd.p1.getId(), LocalDateTime.now()));
+	}
+
+	@Transactional
+	@Test
+	public void testLoteRegistraNaOrdemDasDatas() {
+		movimentacaoService.saveBatch(Arrays.asList(movimentacao(Movimentacao.novaSaida(), FEVEREIRO, 2),
+				movimentacao(Movimentacao.novaEntrada(), JANEIRO, 7)));
+
+		assertEquals(Arrays.asList(12, 10), saldos());
+		assertEquals(estoqueAtual(), lancamentoService.saldoEm(bd.p1.getId(), LocalDateTime.now()));
+	}
+
+	@Transactional
+	@Test
+	public void testSaldoEmUmaConsulta() {
+		for (int i = 0; i < 20; i++)
+			movimentacaoService.save(movimentacao(Movimentacao.novaEntrada(), JANEIRO.plusDays(i), 1));
+		util.em().flush();
+		util.em().clear();
+		Statistics stats = util.em().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		stats.clear();
+
+		assertEquals(15, lancamentoService.saldoEm(bd.p1.getId(), JANEIRO.plusDays(9)));
+		assertEquals(1, stats.getPrepareStatementCount());
+	}
+
+	@Transactional
+	@Test
+	public void testSemLancamentosUsaEstoqueAtual() {
+		assertEquals(5, lancamentoService.saldoEm(bd.p1.getId(), JANEIRO));
+	}
+
+	@Transactional
+	@Test(expected = ObjectNotFoundException.class)
+	public void testSaldoDeServico() {
+		bd.getItemS().save(bd.s1);
+		lancamentoService.saldoEm(bd.s1.getId(), JANEIRO);
+	}
+
+	// o UPDATE dos saldos posteriores nao passa pelo contexto de persistencia
+	private List<Integer> saldos() {
+		util.em().flush();
+		util.em().clear();
+		return lancamentoRepository.findAll().stream().filter(l -> l.getProdutoId().equals(bd.p1.getId()))
+				.sorted((a, b) -> a.getDataMovimentacao().compareTo(b.getDataMovimentacao()))
+				.map(LancamentoEstoque::getSaldo).collect(Collectors.toList());
+	}
+
+	private int estoqueAtual() {
+		util.em().flush();
+		util.em().clear();
+		return ((Produto) bd.getItemS().findById(bd.p1.getId())).getEstoqueAtual();
+	}
+
+	private Movimentacao movimentacao(Movimentacao movimentacao, LocalDateTime data, int quantidade) {
+		movimentacao.setDataMovimentacao(data);
+		movimentacao.getProdutoMovimentacao().add(new ProdutoMovimentacao(movimentacao, Produto.ofId(bd.p1.getId()),
+				BigDecimal.ZERO, BigDecimal.TEN, quantidade));
+		return movimentacao;
+	}
+
+}
@@ -1,14 +1,166 @@
-//package com.ebm.estoque.service;
-//
-//import org.junit.Before;
-//
-//import com.ebm.BaseTest;
-//
-//public class MovimentacaoServiceTest  extends BaseTest{
-//
-//	@Before
-//	public void setUp() {
-//	
-//	}
-//	
-//}
+package com.ebm.estoque.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.ebm.BaseTest;
+import com.ebm.estoque.domain.Movimentacao;
+import com.ebm.estoque.domain.Produto;
+import com.ebm.estoque.domain.ProdutoMovimentacao;
+import com.ebm.estoque.repository.LancamentoEstoqueRepository;
+import com.ebm.estoque.repository.MovimentacaoRepository;
+import com.ebm.estoque.repository.ProdutoMovimentacaoRepository;
+import com.ebm.estoque.service.interfaces.MovimentacaoService;
+import com.ebm.geral.service.PopulaBD;
+
+public class MovimentacaoServiceTest extends BaseTest {
+
+	private static final int THREADS = 32;
+
+	@Autowired
+	private PopulaBD bd;
+	@Autowired
+	private MovimentacaoService movimentacaoService;
+	@Autowired
+	private MovimentacaoRepository movimentacaoRepository;
+	@Autowired
+	private ProdutoMovimentacaoRepository pMovimentacaoRepository;
+	@Autowired
+	private LancamentoEstoqueRepository lancamentoRepository;
+
+	@Before
+	public void setUp() {
+		bd.instanciaItem(true);
+		bd.saveUnidade(Arrays.asList(bd.un1, bd.un2));
+		bd.saveCategoria(Arrays.asList(bd.cat1, bd.cat2, bd.cat3, bd.cat4));
+		bd.p1.setEstoque(5, 100, 1000);
+		bd.saveProduto(Arrays.asList(bd.p1));
+	}
+
+	@After
+	public void setDown() {
+		lancamentoRepository.deleteAll();
+		pMovimentacaoRepository.deleteAll();
+		movimentacaoRepository.deleteAll();
+		bd.getItemS().deleteAll(true);
+	}
+
+	// sem @Transactional: cada thread precisa de sua propria transacao para disputar a mesma linha
+	@Test
+	public void testMovimentacoesConcorrentesNaoPerdemAtualizacao() throws Exception {
+		Integer estoqueInicial = bd.p1.getEstoqueAtual();
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch largada = new CountDownLatch(1);
+		List<Future<Movimentacao>> resultados = new ArrayList<>();
+
+		for (int i = 0; i < THREADS; i++) {
+			boolean entrada = i % 2 == 0;
+			resultados.add(executor.submit(() -> {
+				Movimentacao mov = entrada ? Movimentacao.novaEntrada() : Movimentacao.novaSaida();
+				mov.getProdutoMovimentacao().add(new ProdutoMovimentacao(mov, Produto.ofId(bd.p1.getId()),
+						BigDecimal.valueOf(0), BigDecimal.valueOf(10), entrada ? 3 : 1));
+				largada.await();
+				return movimentacaoService.save(mov);
+			}));
+		}
+		largada.countDown();
+		for (Future<Movimentacao> resultado : resultados)
+			resultado.get(60, TimeUnit.SECONDS);
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+		Produto prod = (Produto) bd.getItemS().findById(bd.p1.getId());
+		int esperado = estoqueInicial + (THREADS / 2) * 3 - (THREADS / 2) * 1;
+		assertEquals(esperado, prod.getEstoqueAtual().intValue());
+		assertEquals(THREADS, movimentacaoRepository.count());
+		// o livro acompanha o estoque: o saldo do ultimo lancamento e o estoqueAtual
+		assertEquals(THREADS, lancamentoRepository.count());
+		assertEquals(esperado, lancamentoRepository.findFirstByProdutoIdOrderByDataMovimentacaoDescIdDesc(bd.p1.getId())
+				.get().getSaldo());
+	}
+
+	@Test
+	public void testCustoMedioPonderadoNaEntradaEDesfeitoNaExclusao() {
+		// p1: 100 unidades a 100
+		movimentacaoService.save(movimentacao(Movimentacao.novaEntrada(), null, "0", "130", 100));
+		assertEquals(new BigDecimal("115.00"), custoMedio(bd.p1));
+		movimentacaoService.save(movimentacao(Movimentacao.novaSaida(), null, "0", "200", 50));
+		assertEquals(new BigDecimal("115.00"), custoMedio(bd.p1));
+		Movimentacao ultima = movimentacaoService.save(movimentacao(Movimentacao.novaEntrada(), null, "10", "100", 50));
+		assertEquals(new BigDecimal("108.75"), custoMedio(bd.p1));
+
+		movimentacaoService.deleteById(ultima.getId());
+		assertEquals(new BigDecimal("115.00"), custoMedio(bd.p1));
+		assertEquals(150, ((Produto) bd.getItemS().findById(bd.p1.getId())).getEstoqueAtual().intValue());
+	}
+
+	@Test
+	public void testExclusaoComEntradaPosteriorRefazCustoMedio() {
+		// sem estoque anterior ao historico: todo o custo vem das entradas
+		bd.p1.setEstoque(0, 0, 1000);
+		bd.getItemS().save(bd.p1);
+		Movimentacao primeira = movimentacaoService.save(movimentacao(Movimentacao.novaEntrada(), null, "0", "130", 100));
+		movimentacaoService.save(movimentacao(Movimentacao.novaEntrada(), null, "0", "70", 100));
+		assertEquals(new BigDecimal("100.00"), custoMedio(bd.p1));
+
+		// a segunda entrada ja ponderou a primeira: o custo sai do historico refeito, so com a entrada a 70
+		movimentacaoService.deleteById(primeira.getId());
+		assertEquals(new BigDecimal("70.00"), custoMedio(bd.p1));
+		assertEquals(100, ((Produto) bd.getItemS().findById(bd.p1.getId())).getEstoqueAtual().intValue());
+	}
+
+	@Test
+	public void testCustoMedioNoLoteSegueAsDatas() {
+		movimentacaoService.saveBatch(Arrays.asList(
+				movimentacao(Movimentacao.novaEntrada(), LocalDateTime.of(2020, 2, 1, 0, 0), "0", "130", 100),
+				movimentacao(Movimentacao.novaEntrada(), LocalDateTime.of(2020, 1, 1, 0, 0), "0", "70", 100)));
+		assertEquals(new BigDecimal("100.00"), custoMedio(bd.p1));
+	}
+
+	@Test
+	public void testRecalculaCustoMedioPeloHistorico() {
+		bd.p1.setEstoque(0, 0, 1000);
+		bd.p1.setValorCompraMedio(BigDecimal.ONE);
+		bd.getItemS().save(bd.p1);
+		movimentacaoService.saveBatch(Arrays.asList(
+				movimentacao(Movimentacao.novaEntrada(), LocalDateTime.of(2020, 1, 1, 0, 0), "0", "100", 10),
+				movimentacao(Movimentacao.novaEntrada(), LocalDateTime.of(2020, 1, 2, 0, 0), "0", "130", 10),
+				movimentacao(Movimentacao.novaSaida(), LocalDateTime.of(2020, 1, 3, 0, 0), "0", "200", 5),
+				movimentacao(Movimentacao.novaEntrada(), LocalDateTime.of(2020, 1, 4, 0, 0), "0", "85", 5)));
+		Produto produto = (Produto) bd.getItemS().findById(bd.p1.getId());
+		produto.setValorCompraMedio(BigDecimal.ONE);
+		bd.getItemS().save(produto);
+
+		assertEquals(1, movimentacaoService.recalculaCustoMedio());
+		assertEquals(new BigDecimal("107.50"), custoMedio(bd.p1));
+	}
+
+	private BigDecimal custoMedio(Produto produto) {
+		return bd.getItemS().findById(produto.getId()).getValorCompraMedio().setScale(2);
+	}
+
+	private Movimentacao movimentacao(Movimentacao movimentacao, LocalDateTime data, String desconto, String bruto,
+			int quantidade) {
+		movimentacao.setDataMovimentacao(data);
+		movimentacao.getProdutoMovimentacao().add(new ProdutoMovimentacao(movimentacao, Produto.ofId(bd.p1.getId()),
+				new BigDecimal(desconto), new BigDecimal(bruto), quantidade));
+		return movimentacao;
+	}
+
+}
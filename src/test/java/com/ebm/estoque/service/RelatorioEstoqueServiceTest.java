@@ -0,0 +1,156 @@
+package com.ebm.estoque.service;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ebm.BaseTest;
+import com.ebm.estoque.domain.Item;
+import com.ebm.estoque.domain.Movimentacao;
+import com.ebm.estoque.domain.Produto;
+import com.ebm.estoque.domain.ProdutoMovimentacao;
+import com.ebm.estoque.domain.enums.TipoMovimentacao;
+import com.ebm.estoque.domain.interfaces.ItemVendaInfo;
+import com.ebm.estoque.dtos.ResumoItensDTO;
+import com.ebm.estoque.dtos.ResumoMovimentacaoDTO;
+import com.ebm.estoque.service.interfaces.RelatorioEstoqueService;
+import com.ebm.geral.exceptions.DataIntegrityException;
+import com.ebm.geral.service.PopulaBD;
+import com.ebm.geral.utils.TotaisEstimados;
+import com.ebm.geral.utils.TotaisVenda;
+import com.ebm.geral.utils.UtilContabel;
+
+public class RelatorioEstoqueServiceTest extends BaseTest {
+
+	@Autowired
+	private PopulaBD bd;
+	@Autowired
+	private RelatorioEstoqueService relatorioService;
+
+	private List<Item> itens;
+
+	@Before
+	public void setUp() {
+		bd.instanciaFornecedores(true).instanciaItem(false);
+		bd.saveUnidade(Arrays.asList(bd.un1, bd.un2));
+		bd.saveCategoria(Arrays.asList(bd.cat1, bd.cat2, bd.cat3, bd.cat4));
+		bd.p1.setEstoque(5, 50, 100);
+		itens = Arrays.asList(bd.p1, bd.p2, bd.p5, bd.s1, bd.s2);
+		bd.getItemS().saveAll(itens);
+	}
+
+	@Transactional
+	@Test
+	public void testResumoItensIgualAoCalculoEmMemoria() {
+		List<ResumoItensDTO> porCategoria = relatorioService.resumoItens("categoria");
+
+		assertEquals(3, porCategoria.size());
+		for (ResumoItensDTO resumo : porCategoria) {
+			List<Item> doGrupo = itens.stream().filter(i -> i.getCategoria().getNome().equals(resumo.getGrupo()))
+					.collect(Collectors.toList());
+			TotaisEstimados totais = UtilContabel.totalizaEstimativas(doGrupo);
+
+			assertEquals(doGrupo.size(), resumo.getItens().intValue());
+			assertThat(resumo.getCustoTotal(), equalTo(totais.getCustoTotal()));
+			assertThat(resumo.getPrecoVendaTotal(), equalTo(totais.getPrecoVendaTotal()));
+			assertThat(resumo.getLucroBrutoEstimado(), equalTo(totais.getLucroBrutoEstimado()));
+			assertThat(resumo.getComissaoEstimada(), equalTo(totais.getComissaoEstimada()));
+			assertThat(resumo.getLucroLiquidoEstimado(), equalTo(totais.getLucroLiquidoEstimado()));
+		}
+
+		// p1 (Informatica): 50 em estoque a 100; p5: 4 a 100; servicos nao tem estoque
+		ResumoItensDTO informatica = porCategoria.stream().filter(r -> r.getGrupo().equals(bd.cat1.getNome()))
+				.findFirst().get();
+		assertThat(informatica.getValorEmEstoque(), equalTo(new BigDecimal("5400.00")));
+		assertEquals(2, relatorioService.resumoItens("unidade").size());
+	}
+
+	@Transactional
+	@Test
+	public void testResumoMovimentacoesPorMesEFornecedor() {
+		bd.savePessoa(Arrays.asList(bd.pf1));
+		bd.saveFornecedores(Arrays.asList(bd.forf1));
+
+		Movimentacao janeiro = saida(LocalDateTime.of(2020, 1, 15, 10, 0));
+		linha(janeiro, bd.p1, "10", "200.10", 2);
+		linha(janeiro, bd.p2, null, "150", 1);
+		Movimentacao fevereiro = saida(LocalDateTime.of(2020, 2, 1, 0, 0));
+		linha(fevereiro, bd.p1, "0.33", "300", 4);
+		Movimentacao entrada = Movimentacao.novaEntrada();
+		entrada.setDataMovimentacao(LocalDateTime.of(2020, 2, 10, 0, 0));
+		entrada.getFornecedores().add(bd.forf1);
+		linha(entrada, bd.p2, null, "90", 3);
+		Arrays.asList(janeiro, fevereiro, entrada).forEach(m -> bd.getMovimentacaoS().save(m));
+
+		List<ResumoMovimentacaoDTO> porMes = relatorioService.resumoMovimentacoes("mes", TipoMovimentacao.SAIDA,
+				null, null);
+
+		assertEquals(Arrays.asList("2020-01", "2020-02"),
+				porMes.stream().map(ResumoMovimentacaoDTO::getGrupo).collect(Collectors.toList()));
+		confere(porMes.get(0), janeiro);
+		confere(porMes.get(1), fevereiro);
+
+		// fornecedor so existe em entrada
+		List<ResumoMovimentacaoDTO> porFornecedor = relatorioService.resumoMovimentacoes("fornecedor",
+				TipoMovimentacao.ENTRADA, null, null);
+		assertEquals(1, porFornecedor.size());
+		assertEquals(bd.forf1.getPessoa().getNome(), porFornecedor.get(0).getGrupo());
+		confere(porFornecedor.get(0), entrada);
+
+		// ate e inclusivo: o dia 1 de fevereiro entra
+		List<ResumoMovimentacaoDTO> periodo = relatorioService.resumoMovimentacoes("mes", TipoMovimentacao.SAIDA,
+				LocalDate.of(2020, 1, 16), LocalDate.of(2020, 2, 1));
+		assertEquals(1, periodo.size());
+		confere(periodo.get(0), fevereiro);
+	}
+
+	@Transactional
+	@Test(expected = DataIntegrityException.class)
+	public void testAgrupamentoInvalido() {
+		relatorioService.resumoMovimentacoes("produto", null, null, null);
+	}
+
+	@Transactional
+	@Test(expected = DataIntegrityException.class)
+	public void testPeriodoInvertido() {
+		relatorioService.resumoMovimentacoes("mes", null, LocalDate.of(2020, 2, 1), LocalDate.of(2020, 1, 1));
+	}
+
+	private void confere(ResumoMovimentacaoDTO resumo, Movimentacao movimentacao) {
+		TotaisVenda totais = UtilContabel.totaliza(new ArrayList<ItemVendaInfo>(movimentacao.getProdutoMovimentacao()));
+		assertEquals(movimentacao.getProdutoMovimentacao().stream().mapToInt(ProdutoMovimentacao::getQuantidade).sum(),
+				resumo.getQuantidade().intValue());
+		assertThat(resumo.getValorTotalBruto(), equalTo(totais.getValorTotalBruto()));
+		assertThat(resumo.getValorTotalDesconto(), equalTo(totais.getValorTotalDesconto()));
+		assertThat(resumo.getValorVendaLiquidoTotal(), equalTo(totais.getValorVendaLiquidoTotal()));
+		assertThat(resumo.getCustoTotal(), equalTo(totais.getCustoTotal()));
+		assertThat(resumo.getComissaoTotal(), equalTo(totais.getComissaoTotal()));
+		assertThat(resumo.getLucroLiquidoTotal(), equalTo(totais.getLucroLiquidoTotal()));
+	}
+
+	private static Movimentacao saida(LocalDateTime data) {
+		Movimentacao movimentacao = Movimentacao.novaSaida();
+		movimentacao.setDataMovimentacao(data);
+		return movimentacao;
+	}
+
+	private static void linha(Movimentacao movimentacao, Produto produto, String desconto, String bruto,
+			int quantidade) {
+		movimentacao.getProdutoMovimentacao().add(new ProdutoMovimentacao(movimentacao, produto,
+				desconto == null ? null : new BigDecimal(desconto), new BigDecimal(bruto), quantidade));
+	}
+
+}
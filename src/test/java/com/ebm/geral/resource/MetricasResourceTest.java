@@ -0,0 +1,69 @@
+package com.ebm.geral.resource;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ebm.BaseTest;
+
+public class MetricasResourceTest extends BaseTest {
+
+	private static final String TOKEN = "coletor-de-teste";
+
+	@Autowired
+	private MetricasResource metricasResource;
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(metricasResource, "token", TOKEN);
+	}
+
+	@After
+	public void setDown() {
+		ReflectionTestUtils.setField(metricasResource, "token", "");
+	}
+
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { "ITEM_AUX_GET" })
+	public void testColetaComToken() throws Exception {
+		util.mockMvc().perform(get("/unidades/find").param("nome", "ZZ")).andExpect(status().isNotFound());
+		util.mockMvc().perform(post("/login").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"login\":\"naoexiste\",\"password\":\"errada\"}")).andExpect(status().isUnauthorized());
+
+		util.mockMvc().perform(get("/metricas").header(MetricasResource.TOKEN_HEADER, TOKEN))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString(
+						"http_server_requests_seconds_count{method=\"GET\",uri=\"/unidades/find\",status=\"404\",outcome=\"CLIENT_ERROR\"}")))
+				.andExpect(content().string(containsString(
+						"http_server_requests_seconds_bucket{method=\"POST\",uri=\"/login\",status=\"401\",outcome=\"CLIENT_ERROR\",le=\"+Inf\"}")))
+				.andExpect(content().string(containsString(
+						"repository_invocations_seconds_count{repository=\"UnidadeRepository\",method=\"findByAbrevIgnoreCaseLike\",state=\"SUCCESS\"}")))
+				.andExpect(content().string(containsString("cache_gets_total{cache=\"referencia_unidade\",result=\"miss\"}")))
+				.andExpect(content().string(containsString("hikaricp_connections_max{pool=")));
+	}
+
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { "ITEM_AUX_GET" })
+	public void testColetaSemTokenNemPermissao() throws Exception {
+		util.mockMvc().perform(get("/metricas").header(MetricasResource.TOKEN_HEADER, "outro"))
+				.andExpect(status().isForbidden());
+	}
+
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { "USUARIO_GET" })
+	public void testColetaComPermissao() throws Exception {
+		util.mockMvc().perform(get("/metricas")).andExpect(status().isOk())
+				.andExpect(content().string(containsString("# TYPE http_server_requests_seconds histogram")));
+	}
+
+}
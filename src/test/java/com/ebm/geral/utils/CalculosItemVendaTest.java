@@ -1,6 +1,7 @@
 package com.ebm.geral.utils;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import java.math.BigDecimal;
 
@@ -93,5 +94,26 @@ public class CalculosItemVendaTest  extends BaseTest{
 		assertThat(pm3.getCalculadora().getValorTotalBruto().doubleValue(), equalTo(300*4d));
 	}
 
+	@Test
+	public void testRecalculaQuandoLinhaMuda() {
+		BigDecimal liquido = pm3.getCalculadora().getValorVendaLiquido();
+		assertThat(pm3.getCalculadora().getValorVendaLiquido(), sameInstance(liquido));
+
+		pm3.setDesconto(BigDecimal.valueOf(50));
+		pm3.setQuantidade(1);
+
+		assertThat(pm3.getCalculadora().getValorVendaLiquido().doubleValue(), equalTo(250d));
+		assertThat(pm3.getCalculadora().getLucroBrutoTotal().doubleValue(), equalTo(150d));
+	}
+
+	@Test
+	public void testArredondaEmCentavos() {
+		// 0,015 de comissao sobre 0,99: 0,01485
+		bd.p1.setComissaoVenda(0.015);
+		ProdutoMovimentacao pm = new ProdutoMovimentacao(null, bd.p1, null, new BigDecimal("0.99"), 1);
+
+		assertThat(pm.getCalculadora().getComissaoUnitaria(), equalTo(new BigDecimal("0.01")));
+		assertThat(pm.getCalculadora().getValorVendaLiquido(), equalTo(new BigDecimal("0.99")));
+	}
 
 }
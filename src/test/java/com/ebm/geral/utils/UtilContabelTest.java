@@ -4,6 +4,7 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertThat;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -76,4 +77,42 @@ public class UtilContabelTest extends BaseTest{
 		assertThat(UtilContabel.calcularPrecoValorVendaLiquidoTotal(pms), equalTo(2760d));
 	}
 
+	@Test
+	public void testTotalizaSomaCentavosSemPerda() {
+		// 0,10 dez vezes: em double a soma ficaria 0.9999999999999999
+		List<ItemVendaInfo> centavos = new ArrayList<>();
+		for (int i = 0; i < 10; i++)
+			centavos.add(new ProdutoMovimentacao(null, bd.p1, null, new BigDecimal("0.10"), 1));
+
+		TotaisVenda totais = UtilContabel.totaliza(centavos);
+
+		assertThat(totais.getValorVendaLiquidoTotal(), equalTo(new BigDecimal("1.00")));
+		assertThat(totais.getComissaoTotal(), equalTo(new BigDecimal("0.00")));
+		assertThat(totais.getComissaoTotal(0.5), equalTo(new BigDecimal("0.50")));
+	}
+
+	@Test
+	public void testTotalizaIgualAosMetodosDouble() {
+		TotaisVenda totais = UtilContabel.totaliza(pms);
+
+		assertThat(totais.getLucroBrutoTotal().doubleValue(), equalTo(UtilContabel.calcularLucroBruto(pms)));
+		assertThat(totais.getLucroLiquidoTotal(0.1).doubleValue(), equalTo(1760d - 276d));
+		assertThat(totais.getValorTotalDesconto(), equalTo(new BigDecimal("40.00")));
+	}
+
+	@Test
+	public void testColetorParaleloIgualAoSequencial() {
+		List<ItemVendaInfo> venda = new ArrayList<>();
+		for (int i = 0; i < 1000; i++)
+			venda.add(new ProdutoMovimentacao(null, bd.p1, BigDecimal.valueOf(i % 7), new BigDecimal("199.99"), 1 + i % 3));
+
+		TotaisVenda sequencial = UtilContabel.totaliza(venda);
+		TotaisVenda paralelo = venda.parallelStream().collect(TotaisVenda.coletor());
+
+		assertThat(paralelo.getValorVendaLiquidoTotal(), equalTo(sequencial.getValorVendaLiquidoTotal()));
+		assertThat(paralelo.getComissaoTotal(), equalTo(sequencial.getComissaoTotal()));
+		assertThat(paralelo.getLucroLiquidoTotal(), equalTo(sequencial.getLucroLiquidoTotal()));
+		assertThat(paralelo.getCustoTotal(), equalTo(sequencial.getCustoTotal()));
+	}
+
 }
@@ -384,6 +384,26 @@ public class ClienteResourceTest extends BaseTest {
 
 	}
 
+	// uma consulta para a pagina e outra para o total, sem carregar a pessoa de cada linha
+	@Transactional
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "GET" })
+	public void testaBuscaParamiterizadaConsultasLimitadas() throws Exception {
+		cenarioParaBuscaParamiterizada();
+		util.noMaximo(2, () -> util.testGetPage(ENDPOINT_BASE + "/page", new LinkedMultiValueMap<>(), status().isOk(), 8, 1));
+	}
+
+	@Transactional
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "GET" })
+	public void testaFindByIdConsultasLimitadas() throws Exception {
+		this.bd.getClientS().save(bd.cj1);
+		util.em().flush();
+		util.em().clear();
+		// cliente com a pessoa, depois emails e telefones da pessoa
+		util.noMaximo(3, () -> util.testGetExpectedSucess(this.ENDPOINT_BASE, bd.cj1.getId()));
+	}
+
 	@Transactional
 	@Test
 	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "GET" })
@@ -415,6 +435,23 @@ public class ClienteResourceTest extends BaseTest {
 	}
 
 
+	@Transactional
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "GET" })
+	public void testaBuscaParamiterizadaContatoPrincipal() throws Exception {
+		cenarioParaBuscaParamiterizada();
+		MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+		params.add("nome", bd.cf1.getPessoa().getNome());
+		util.testGetPage(ENDPOINT_BASE + "/page", params, status().isOk(), 1, 1).andDo(result_ -> {
+			ClienteListDTO dto = this.getPage(result_).getContent().get(0);
+
+			assertTrue(dto.getId().equals(bd.cf1.getId()));
+			assertTrue(dto.getTelefone().equals(bd.cf1.getPessoa().getTelefonePrincipal().toString()));
+			assertTrue(dto.getEmail().equals(bd.cf1.getPessoa().getEmailPrincipal().getEmail()));
+			assertTrue(dto.getLimteCompra().equals(bd.cf1.getLimiteCompra().doubleValue()));
+		});
+	}
+
 	@Transactional
 	@Test
 	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "DELETE" })
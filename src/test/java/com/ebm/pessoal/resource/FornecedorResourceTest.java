@@ -345,6 +345,31 @@ public class FornecedorResourceTest extends BaseTest {
 
 	}
 
+	@Transactional
+	@Test // bd.forj1 bd.forj3 bd.forj4
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "GET" })
+	public void testaBuscaParamiterizadaCategoriaPaginada() throws Exception {
+		cenarioParaBuscaParamiterizada();
+		MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+		params.add("categorias", bd.cat1.getId().toString());
+		params.add("linesPerPage", "2");
+		Set<Integer> ids = new HashSet<>();
+
+		// o total e o do filtro inteiro, nao o tamanho da pagina
+		util.testGetPage(ENDPOINT_BASE + "/page", params, status().isOk(), 3, 2).andDo(result_ -> {
+			RestResponsePage<FornecedorListDTO> result = getPage(result_);
+			assertThat(result.getNumberOfElements(), equalTo(2));
+			result.forEach(f -> ids.add(f.getId()));
+		});
+		params.add("page", "1");
+		util.testGetPage(ENDPOINT_BASE + "/page", params, status().isOk(), 3, 2).andDo(result_ -> {
+			RestResponsePage<FornecedorListDTO> result = getPage(result_);
+			assertThat(result.getNumberOfElements(), equalTo(1));
+			result.forEach(f -> ids.add(f.getId()));
+		});
+		assertThat(ids, equalTo(new HashSet<>(Arrays.asList(bd.forj1.getId(), bd.forj3.getId(), bd.forj4.getId()))));
+	}
+
 	@Transactional
 	@Test // bd.forj1
 	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "GET" })
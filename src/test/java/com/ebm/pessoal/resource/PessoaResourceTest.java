@@ -1,15 +1,20 @@
 package com.ebm.pessoal.resource;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.Arrays;
+import java.util.stream.Collectors;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.ebm.BaseTest;
@@ -18,13 +23,22 @@ import com.ebm.geral.service.PopulaBD;
 import com.ebm.geral.utils.Utils;
 import com.ebm.pessoal.domain.Cidade;
 import com.ebm.pessoal.domain.Estado;
+import com.ebm.pessoal.domain.Pessoa;
 import com.ebm.pessoal.domain.PessoaFisica;
 import com.ebm.pessoal.domain.PessoaJuridica;
+import com.ebm.pessoal.dtos.RelatorioImportacaoDTO;
+import com.ebm.pessoal.dtos.RelatorioImportacaoDTO.ErroLinha;
+import com.ebm.pessoal.service.ImportacaoPessoaService;
+import com.ebm.pessoal.service.PessoaService;
 
 public class PessoaResourceTest extends BaseTest {
 
 	@Autowired
 	private PopulaBD bd;
+	@Autowired
+	private PessoaService pessoaService;
+	@Autowired
+	private ImportacaoPessoaService importacaoPessoaService;
 
 	private final String ENDPOINT_BASE = "/pessoas";
 	private final String BASE_AUTHORITY = "FORNECEDOR_";
@@ -344,4 +358,87 @@ public class PessoaResourceTest extends BaseTest {
 		util.testDelete(ENDPOINT_BASE + "/null", status().isBadRequest());
 	}
 
+	@Transactional
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "POST" })
+	public void testImportacaoNdjson() throws Exception {
+		bd.pf3.setCpf("12345678900");
+		String corpo = String.join("\n", json(bd.pf1), json(bd.pj1), json(bd.pf2), json(bd.pf1), json(bd.pf3),
+				"{nao e json");
+
+		RelatorioImportacaoDTO relatorio = importa("application/x-ndjson", corpo);
+		assertEquals(6, relatorio.getLidas());
+		assertEquals(3, relatorio.getInseridas());
+		assertEquals(Arrays.asList(4, 5, 6),
+				relatorio.getErros().stream().map(ErroLinha::getLinha).collect(Collectors.toList()));
+		assertEquals(PessoaService.DUPLICATE_CPF, relatorio.getErros().get(0).getMensagem());
+		assertEquals(PessoaService.INVALID_CPF, relatorio.getErros().get(1).getMensagem());
+		assertEquals(bd.pf2.getNome(), pessoaService.findByCpfOrCnpj(bd.pf2.getCpf()).getNome());
+		assertEquals(bd.pj1.getNome(), pessoaService.findByCpfOrCnpj(bd.pj1.getCnpj()).getNome());
+	}
+
+	@Transactional
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "POST" })
+	public void testImportacaoCsvCompartilhaCidadeEntreLotes() throws Exception {
+		String corpo = String.join("\n",
+				"tipo,nome,documento,razaoSocial,dataNascimento,rg,rgEmissor,rgUf,naturalidade,naturalidadeUf,email,ddd,telefone,rua,numero,bairro,cep,cidade,uf,estado",
+				"PESSOA_FISICA,Maria Silva,07952632019,,1980-04-30,54345,SSP XY,XY,Cidade Nova,XY,maria@example.com,62,999990001,\"Rua 1, Qd 2\",10,Centro,75000000,Cidade Nova,XY,Estado Novo",
+				"",
+				"PESSOA_FISICA,Maria Carvalho,58522943060,,1990-01-30,45233,SSP XY,xy,Cidade Nova,XY,carvalho@example.com,62,999990002,Rua das Flores,20,Centro,75000001,Cidade Nova,XY,",
+				"PESSOA_JURIDICA,Juniscleids ME,18038642000145,Juniscleids ME,,,,,,,juni@example.com,62,999990003,Avenida Principal,30,Centro,75000002,cidade nova,xy,",
+				"PESSOA_JURIDICA,Invalida ME,18038642000146,Invalida ME,,,,,,,invalida@example.com,62,999990004,Avenida Principal,40,Centro,75000003,Cidade Nova,XY,",
+				"PESSOA_FISICA,Outra Maria,58522943060,,1990-01-30,99999,SSP XY,XY,Cidade Nova,XY,outra@example.com,62,999990005,Rua das Flores,50,Centro,75000004,Cidade Nova,XY,");
+
+		// lotes de dois: a cidade criada no primeiro lote e reaproveitada depois do clear, tambem com uf "xy"
+		Object tamanhoLote = ReflectionTestUtils.getField(importacaoPessoaService, "tamanhoLote");
+		ReflectionTestUtils.setField(importacaoPessoaService, "tamanhoLote", 2);
+		RelatorioImportacaoDTO relatorio;
+		try {
+			relatorio = importa("text/csv", corpo);
+		} finally {
+			ReflectionTestUtils.setField(importacaoPessoaService, "tamanhoLote", tamanhoLote);
+		}
+
+		assertEquals(5, relatorio.getLidas());
+		assertEquals(3, relatorio.getInseridas());
+		assertEquals(Arrays.asList(6, 7),
+				relatorio.getErros().stream().map(ErroLinha::getLinha).collect(Collectors.toList()));
+		assertEquals(PessoaService.INVALID_CNPJ, relatorio.getErros().get(0).getMensagem());
+		assertEquals(PessoaService.DUPLICATE_CPF, relatorio.getErros().get(1).getMensagem());
+		assertEquals(1L, util.em().createQuery("SELECT COUNT(c) FROM Cidade c WHERE LOWER(c.nome) = 'cidade nova'")
+				.getSingleResult());
+		assertEquals(1L, util.em().createQuery("SELECT COUNT(e) FROM Estado e WHERE UPPER(e.uf) = 'XY'").getSingleResult());
+		PessoaFisica carvalho = (PessoaFisica) pessoaService.findByCpfOrCnpj("58522943060");
+		assertEquals("Estado Novo", carvalho.getRG().getUF().getNome());
+		assertEquals("XY", carvalho.getRG().getUF().getUf());
+		assertEquals("Rua 1, Qd 2", pessoaService.findByCpfOrCnpj("07952632019").getEnderecoPrincipal().getRua());
+	}
+
+	@Transactional
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "POST" })
+	public void testImportacaoCsvColunaDesconhecida() throws Exception {
+		util.mockMvc().perform(post(ENDPOINT_BASE + "/import").contentType("text/csv").content("tipo,nome,idade\n"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Transactional
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "GET" })
+	public void testImportacaoSemPermissao() throws Exception {
+		util.mockMvc().perform(post(ENDPOINT_BASE + "/import").contentType("application/x-ndjson").content(json(bd.pf1)))
+				.andExpect(status().isForbidden());
+	}
+
+	private String json(Pessoa pessoa) throws Exception {
+		return util.objectMapper().writeValueAsString(pessoa);
+	}
+
+	private RelatorioImportacaoDTO importa(String tipo, String corpo) throws Exception {
+		MvcResult result = util.mockMvc().perform(post(ENDPOINT_BASE + "/import").contentType(tipo).content(corpo))
+				.andExpect(status().isOk()).andReturn();
+		return util.objectMapper().readValue(result.getResponse().getContentAsByteArray(), RelatorioImportacaoDTO.class);
+	}
+
 }
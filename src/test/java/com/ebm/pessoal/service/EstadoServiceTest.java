@@ -2,18 +2,25 @@ package com.ebm.pessoal.service;
 
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.ebm.BaseTest;
 import com.ebm.geral.exceptions.DataIntegrityException;
 import com.ebm.geral.exceptions.ObjectNotFoundException;
+import com.ebm.geral.service.CacheReferencias;
+import com.ebm.geral.service.CacheReferencias.Tabela;
 import com.ebm.pessoal.domain.Cidade;
 import com.ebm.pessoal.domain.Estado;
 
@@ -26,6 +33,10 @@ public class EstadoServiceTest  extends BaseTest{
 	private CidadeService cidadeService;
 	@Autowired
 	private EnderecoService enderecoService;
+	@Autowired
+	private CacheReferencias cacheReferencias;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
 	
 	@Before
 	public  void setUp() {
@@ -174,4 +185,42 @@ public class EstadoServiceTest  extends BaseTest{
 		}
 		cidadeService.delete(cidade);
 	}
+
+	// a segunda busca pela mesma uf nao vai ao banco; a gravacao invalida a entrada
+	@Test
+	public void testBuscaUfUsaCache() {
+		estadoService.save(eGO);
+		Statistics stats = util.em().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		long acertos = cacheReferencias.estatisticas().get(Tabela.ESTADO).getAcertos();
+
+		estadoService.findByUf("GO");
+		stats.clear();
+		Estado result = estadoService.findByUf("GO");
+		assertEquals(0, stats.getPrepareStatementCount());
+		assertEquals(acertos + 1, cacheReferencias.estatisticas().get(Tabela.ESTADO).getAcertos());
+
+		result.setNome("Alterado no retorno");
+		assertThat(estadoService.findByUf("GO").getNome(), equalTo("Goias"));
+
+		estadoService.save(new Estado(null, "GO", "Goias Novo"));
+		assertThat(estadoService.findByUf("GO").getNome(), equalTo("Goias Novo"));
+	}
+
+	// estado lido dentro de uma transacao desfeita nao fica no cache
+	@Test
+	public void testCacheDescartadoNoRollback() {
+		new TransactionTemplate(transactionManager).execute(status -> {
+			estadoService.save(new Estado(null, "MT", "Mato Grosso"));
+			assertThat(estadoService.findByUf("MT").getNome(), equalTo("Mato Grosso"));
+			status.setRollbackOnly();
+			return null;
+		});
+
+		try {
+			estadoService.findByUf("MT");
+			fail();
+		} catch (ObjectNotFoundException ex) {
+			assertThat(ex.getMessage(), equalTo(EstadoService.NOTFOUND_UF + "MT"));
+		}
+	}
 }
@@ -0,0 +1,131 @@
+package com.ebm.pessoal.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ebm.BaseTest;
+import com.ebm.geral.domain.Contagem;
+import com.ebm.geral.service.CacheContagem;
+import com.ebm.geral.service.PopulaBD;
+import com.ebm.pessoal.domain.Pessoa;
+import com.ebm.pessoal.dtos.ClienteListDTO;
+import com.ebm.security.dto.UsuarioNewDTO;
+import com.ebm.security.service.UsuarioService;
+
+/**
+ * Quantidade de consultas por chamada nos caminhos quentes de leitura de
+ * pessoa. Se algum numero subir, alguma associacao voltou a ser buscada de
+ * forma ansiosa (ou virou N+1).
+ */
+public class PessoaServiceTest extends BaseTest {
+
+	@Autowired
+	private PopulaBD bd;
+	@Autowired
+	private PessoaService pessoaService;
+	@Autowired
+	private ClienteService clienteService;
+	@Autowired
+	private FuncionarioService funcionarioService;
+	@Autowired
+	private CargoService cargoService;
+	@Autowired
+	private UsuarioService usuarioService;
+	@Autowired
+	private CacheContagem cacheContagem;
+
+	private Statistics estatisticas;
+
+	@Before
+	public void setUp() {
+		bd.instanciaCliente(true).instanciaCargos().instanciaFuncionario(false).instanciaUsuarios();
+		estatisticas = util.em().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Transactional
+	@Test
+	public void testFindByIdBuscaContatosSemConsultasExtras() {
+		pessoaService.save(bd.pf1);
+		pessoaService.save(bd.pj1);
+
+		// pessoa, enderecos, cidade e estado numa consulta so
+		assertEquals(1, consultas(() -> pessoaService.findById(bd.pf1.getId())));
+		assertEquals(1, consultas(() -> pessoaService.findById(bd.pj1.getId())));
+		// email e telefone so quando usados, um lote cada
+		assertEquals(3, consultas(() -> tocaContatos(pessoaService.findById(bd.pj1.getId()))));
+	}
+
+	@Transactional
+	@Test
+	public void testClienteFindByIdBuscaPessoaJunto() {
+		pessoaService.save(bd.pj1);
+		clienteService.save(bd.cj1);
+
+		assertEquals(1, consultas(() -> clienteService.findById(bd.cj1.getId())));
+		assertEquals(3, consultas(() -> tocaContatos(clienteService.findById(bd.cj1.getId()).getPessoa())));
+	}
+
+	@Transactional
+	@Test
+	public void testLoadUserByUsernameNaoCarregaFuncionario() {
+		pessoaService.save(bd.pj1);
+		cargoService.save(bd.funj1.getCargo());
+		funcionarioService.save(bd.funj1);
+		usuarioService.save(UsuarioNewDTO.from(bd.user5));
+
+		// credenciais e permissoes; nada de funcionario, pessoa e contatos
+		assertEquals(2, consultas(() -> usuarioService.loadUserByUsername(bd.user5.getLogin())));
+	}
+
+	@Transactional
+	@Test
+	public void testListagemClientesSemContagemOuComContagemEmCache() {
+		pessoaService.save(bd.pf1);
+		pessoaService.save(bd.pj1);
+		clienteService.save(bd.cf1);
+		clienteService.save(bd.cj1);
+		cacheContagem.limpa();
+		PageRequest pagina = PageRequest.of(0, 1);
+
+		assertEquals(2, consultas(() -> clienteService.findBy(null, null, pagina, Contagem.EXATA)));
+		// so a listagem, com uma linha a mais para saber se ha proxima
+		assertEquals(1, consultas(() -> {
+			Slice<ClienteListDTO> fatia = clienteService.findBy(null, null, pagina, Contagem.NENHUMA);
+			assertFalse(fatia instanceof Page);
+			assertTrue(fatia.hasNext());
+		}));
+		// o COUNT do mesmo filtro vai ao banco uma vez so
+		assertEquals(2, consultas(() -> clienteService.findBy(null, null, pagina, Contagem.CACHE)));
+		assertEquals(1, consultas(() -> {
+			Page<ClienteListDTO> cache = (Page<ClienteListDTO>) clienteService.findBy(null, null, pagina, Contagem.CACHE);
+			assertEquals(2, cache.getTotalElements());
+		}));
+		assertEquals(2, consultas(() -> clienteService.findBy(null, "Silva", pagina, Contagem.CACHE)));
+	}
+
+	private long consultas(Runnable chamada) {
+		util.em().flush();
+		util.em().clear();
+		estatisticas.clear();
+		chamada.run();
+		return estatisticas.getPrepareStatementCount();
+	}
+
+	private static void tocaContatos(Pessoa pessoa) {
+		pessoa.getEndereco().forEach(e -> e.getCidade().getEstado().getUf());
+		pessoa.getEmail().size();
+		pessoa.getTelefone().size();
+	}
+
+}
@@ -0,0 +1,95 @@
+package com.ebm.security.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ebm.BaseTest;
+import com.ebm.geral.service.PopulaBD;
+import com.ebm.security.CachePrincipal;
+import com.ebm.security.JWTUtil;
+import com.ebm.security.PermissaoE;
+import com.ebm.security.Usuario;
+import com.ebm.security.dto.UsuarioNewDTO;
+import com.ebm.security.dto.UsuarioUpdateDTO;
+import com.ebm.security.service.UsuarioService;
+
+public class JWTAuthorizationFilterTest extends BaseTest {
+
+	@Autowired
+	private PopulaBD bd;
+	@Autowired
+	private JWTUtil jwtUtil;
+	@Autowired
+	private UsuarioService userService;
+	@Autowired
+	private CachePrincipal cachePrincipal;
+
+	@Before
+	public void setUp() {
+		bd.instanciaFuncionario(true).instanciaUsuarios();
+		bd.getCargoS().save(bd.funf1.getCargo());
+		bd.getPessoaS().save(bd.funf1.getPessoa());
+		bd.getFuncionarioS().save(bd.funf1);
+		ReflectionTestUtils.setField(jwtUtil, "permissoesNoToken", true);
+		// outros testes podem ter deixado em cache um usuario de mesmo login ja desfeito pelo rollback
+		cachePrincipal.limpa();
+	}
+
+	@After
+	public void setDown() {
+		ReflectionTestUtils.setField(jwtUtil, "permissoesNoToken", false);
+	}
+
+	@Transactional
+	@Test
+	public void testPermissoesNoTokenAteMudarVersao() throws Exception {
+		bd.user1 = userService.save(UsuarioNewDTO.from(bd.user1));
+		String token = geraToken(bd.user1.getLogin());
+
+		Usuario doToken = jwtUtil.getUsuario(jwtUtil.getClaimsSeValido(token));
+		assertEquals(bd.user1.getId(), doToken.getId());
+		assertEquals(bd.user1.getPermissoes(), doToken.getPermissoes());
+		getCargos(token).andExpect(status().isOk());
+
+		// mesmo mantendo CARGO_GET, o token antigo perde a validade com a nova versao
+		UsuarioUpdateDTO userDTO = UsuarioUpdateDTO.from(bd.user1);
+		userDTO.setPermissoes(new HashSet<>(Arrays.asList(PermissaoE.CARGO_GET)));
+		userService.update(userDTO);
+
+		getCargos(token).andExpect(status().isForbidden());
+		getCargos(geraToken(bd.user1.getLogin())).andExpect(status().isOk());
+	}
+
+	@Transactional
+	@Test
+	public void testSemPermissoesNoTokenConsultaUsuario() throws Exception {
+		ReflectionTestUtils.setField(jwtUtil, "permissoesNoToken", false);
+		bd.user1 = userService.save(UsuarioNewDTO.from(bd.user1));
+		String token = geraToken(bd.user1.getLogin());
+
+		assertNull(jwtUtil.getUsuario(jwtUtil.getClaimsSeValido(token)));
+		getCargos(token).andExpect(status().isOk());
+	}
+
+	private String geraToken(String login) {
+		return jwtUtil.generatedToken((Usuario) userService.loadUserByUsername(login));
+	}
+
+	private ResultActions getCargos(String token) throws Exception {
+		return util.mockMvc().perform(get("/cargos/page").header("Authorization", "Bearer " + token));
+	}
+
+}
@@ -11,6 +11,8 @@ import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.transaction.Transactional;
 
@@ -25,6 +27,7 @@ import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
 import com.ebm.BaseTest;
+import com.ebm.geral.domain.CursorPage;
 import com.ebm.geral.domain.RestResponsePage;
 import com.ebm.geral.resource.exception.ValidationError;
 import com.ebm.geral.service.PopulaBD;
@@ -330,6 +333,51 @@ public class UsuarioResourceTest extends BaseTest {
 
 	}
 
+	@Transactional
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "GET" })
+	public void testFindByPaginadoComTotal() throws Exception {
+		prepara();
+		MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+		params.add("login", "login");
+		params.add("orderBy", "login");
+		params.add("linesPerPage", "2");
+		params.add("page", "1");
+
+		// a segunda pagina vem so com o restante e o total continua sendo o do filtro
+		util.testGetPage(ENDPOINT_BASE + "/page", params, status().isOk(), 3, 2).andDo(result_ -> {
+			RestResponsePage<UsuarioListDTO> list = this.getPage(result_);
+			assertThat(list.getNumberOfElements(), equalTo(1));
+			assertThat(list.getContent().get(0).getLogin(), equalTo("login4"));
+			assertThat(list.getContent().get(0).getNome(), equalTo(bd.funf4.getPessoa().getNome()));
+		});
+
+		params.clear();
+		params.add("nome", bd.funf4.getPessoa().getNome().substring(1).toUpperCase());
+		util.testGetPage(ENDPOINT_BASE + "/page", params, status().isOk(), 1, 1);
+	}
+
+	@Transactional
+	@Test
+	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "GET" })
+	public void testFindPorCursorLogin() throws Exception {
+		prepara();
+		MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+		params.add("login", "login");
+		params.add("orderBy", "login");
+		params.add("linesPerPage", "2");
+		params.add("count", "true");
+
+		List<CursorPage<UsuarioListDTO>> paginas = util.testGetCursor(ENDPOINT_BASE + "/page", params,
+				new TypeReference<CursorPage<UsuarioListDTO>>() {
+				});
+		assertThat(paginas.size(), equalTo(2));
+		assertThat(paginas.get(0).getTotalElements(), equalTo(3L));
+		assertThat(paginas.stream().flatMap(p -> p.getContent().stream()).map(UsuarioListDTO::getLogin)
+				.collect(Collectors.toList()), equalTo(Arrays.asList("login2", "login3", "login4")));
+		assertThat(paginas.get(1).getContent().get(0).getNome(), equalTo(bd.funf4.getPessoa().getNome()));
+	}
+
 	@Transactional
 	@Test
 	@WithMockUser(username = "test", password = "test", authorities = { BASE_AUTHORITY + "GET" })
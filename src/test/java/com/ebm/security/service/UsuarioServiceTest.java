@@ -1,7 +1,9 @@
 package com.ebm.security.service;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -13,6 +15,7 @@ import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.ebm.BaseTest;
@@ -22,7 +25,9 @@ import com.ebm.pessoal.domain.Funcionario;
 import com.ebm.pessoal.service.CargoService;
 import com.ebm.pessoal.service.FuncionarioService;
 import com.ebm.pessoal.service.PessoaService;
+import com.ebm.security.CachePrincipal;
 import com.ebm.security.PermissaoE;
+import com.ebm.security.Usuario;
 import com.ebm.security.dto.UsuarioListDTO;
 import com.ebm.security.dto.UsuarioNewDTO;
 import com.ebm.security.dto.UsuarioUpdateDTO;
@@ -39,6 +44,8 @@ public class UsuarioServiceTest  extends BaseTest{
 	private CargoService cargoS;
 	@Autowired
 	private PopulaBD bd;
+	@Autowired
+	private CachePrincipal cachePrincipal;
 
 	@Before
 	public void setUp() {
@@ -102,12 +109,54 @@ public class UsuarioServiceTest  extends BaseTest{
 		testSePossuITodos(list);
 	}
 	
+	@Transactional
+	@Test
+	public void testFindPrincipalUsaCacheAteUpdate() {
+		cachePrincipal.limpa();
+		bd.user1 = userService.save(UsuarioNewDTO.from(bd.user1));
+
+		Usuario principal = userService.findPrincipal(bd.user1.getLogin());
+		assertSame(principal, userService.findPrincipal(bd.user1.getLogin()));
+		assertTrue(principal.getPermissoes().contains(PermissaoE.CLIENTE_GET));
+
+		UsuarioUpdateDTO userDTO = UsuarioUpdateDTO.from(bd.user1);
+		userDTO.setPermissoes(new HashSet<>(Arrays.asList(PermissaoE.CARGO_POST)));
+		userService.update(userDTO);
+
+		Usuario atualizado = userService.findPrincipal(bd.user1.getLogin());
+		assertFalse(atualizado.getPermissoes().contains(PermissaoE.CLIENTE_GET));
+		assertTrue(atualizado.getPermissoes().contains(PermissaoE.CARGO_POST));
+	}
+
 	@Transactional
 	@Test
 	public void testPermissaoUserAdm() {
 		assertTrue(bd.user5.getPermissoes().containsAll(Arrays.asList(PermissaoE.values())));
 	}
 
+	@Transactional
+	@Test
+	public void testAuthoritiesCompartilhadasEntreUsuarios() {
+		Arrays.stream(PermissaoE.values()).forEach(p -> assertSame(p, PermissaoE.toEnum(p.getId())));
+
+		GrantedAuthority doUser1 = bd.user1.getAuthorities().stream()
+				.filter(a -> a.getAuthority().equals(PermissaoE.CLIENTE_GET.getNome())).findFirst().get();
+		GrantedAuthority doUser5 = bd.user5.getAuthorities().stream()
+				.filter(a -> a.getAuthority().equals(PermissaoE.CLIENTE_GET.getNome())).findFirst().get();
+		assertSame(doUser1, doUser5);
+
+		// a troca de permissoes descarta o que foi montado antes
+		bd.user1.removePermissao(PermissaoE.CLIENTE_GET);
+		assertFalse(bd.user1.getPermissoes().contains(PermissaoE.CLIENTE_GET));
+		assertFalse(bd.user1.getAuthorities().contains(PermissaoE.CLIENTE_GET.getAuthority()));
+	}
+
+	@Transactional
+	@Test(expected = IllegalArgumentException.class)
+	public void testToEnumIdInvalido() {
+		PermissaoE.toEnum(9999);
+	}
+
 	private void testSePossuITodos(Page<UsuarioListDTO> list) {
 		assertThat(list.getNumberOfElements(), equalTo(4));
 		assertTrue(list.stream().anyMatch(u -> u.getNome().equals(bd.funf1.getPessoa().getNome())));